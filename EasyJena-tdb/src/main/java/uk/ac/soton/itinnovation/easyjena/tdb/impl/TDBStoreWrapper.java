@@ -0,0 +1,199 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.tdb.impl;
+
+import com.hp.hpl.jena.query.Dataset;
+import com.hp.hpl.jena.query.ReadWrite;
+import com.hp.hpl.jena.tdb.TDB;
+import com.hp.hpl.jena.tdb.TDBFactory;
+import com.hp.hpl.jena.tdb.TDBLoader;
+import com.hp.hpl.jena.tdb.base.block.FileMode;
+import com.hp.hpl.jena.tdb.sys.SystemTDB;
+import java.util.Properties;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.RDFLanguages;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.core.impl.LocalStoreWrapper;
+import uk.ac.soton.itinnovation.easyjena.core.spec.IStoreMetrics;
+
+/**
+ * This class provides a persistent store in a local directory using Jena TDB. Every operation runs in a TDB
+ * transaction: queries in read transactions, which can run concurrently with each other and with a writer, and
+ * changes in write transactions, which are aborted if they fail so the store never contains half a change.
+ * Documents are imported using TDB's bulk loader.
+ */
+public class TDBStoreWrapper extends LocalStoreWrapper {
+
+	private static final Logger logger = LoggerFactory.getLogger(TDBStoreWrapper.class);
+
+	//for properties documentation see src/main/resources/easyjena.properties in EasyJena-core
+	public static final String LOCATION = "easyjena.tdb.location";
+	public static final String FILE_MODE = "easyjena.tdb.fileMode";
+	public static final String UNION_DEFAULT_GRAPH = "easyjena.tdb.unionDefaultGraph";
+
+	//how many operations of the current thread are running inside the transaction of an enclosing operation
+	private final ThreadLocal<int[]> nested = ThreadLocal.withInitial(() -> new int[1]);
+
+	/**
+	 * Creates a store configured by the easyjena.tdb.* properties
+	 *
+	 * @param props the properties; an in-memory store is created if no location is given
+	 */
+	public TDBStoreWrapper(Properties props) {
+		super(createDataset(props));
+		this.props = props;
+	}
+
+	/**
+	 * Creates a store in the given directory, which is created if it doesn't exist
+	 *
+	 * @param location the directory
+	 */
+	public TDBStoreWrapper(String location) {
+		super(TDBFactory.createDataset(location));
+	}
+
+	/**
+	 * Imports a document using TDB's bulk loader, which builds the indexes much faster than adding triples one by
+	 * one. The loader takes the syntax from the file extension and resolves relative URIs against the location of
+	 * the document, so documents with a different base URI or syntax are parsed normally.
+	 *
+	 * @param ontologypath where to find the ontology document. This can be a URL or a path on disk.
+	 * @param baseURI the baseURI of the ontology - none if it is null
+	 * @param graphURI which graph to save it into - default graph is this is null
+	 * @param format the format the document is in; guessed from the file extension if this is null
+	 */
+	@Override
+	public void importDocumentToGraph(String ontologypath, String baseURI, String graphURI, RDFFormat format) {
+
+		Lang lang = RDFLanguages.filenameToLang(ontologypath);
+		if (baseURI != null || lang == null || (format != null && !RDFLanguages.sameLang(format.getLang(), lang))) {
+			super.importDocumentToGraph(ontologypath, baseURI, graphURI, format);
+			return;
+		}
+
+		logger.debug("Bulk loading document {} into graph <{}>", ontologypath, graphURI);
+		long start = System.currentTimeMillis();
+		try {
+			write(IStoreMetrics.IMPORT, null, () -> TDBLoader.loadModel(getModel(graphURI), ontologypath, false));
+			logger.debug("Loaded document {} in {}ms", ontologypath, System.currentTimeMillis() - start);
+		} catch (RuntimeException e) {
+			logger.error("Could not import document {} into graph <{}>", ontologypath, graphURI, e);
+		}
+	}
+
+	/**
+	 * Close the store and release its files. The store can't be used any more afterwards.
+	 */
+	public void close() {
+		connected = false;
+		dataset.close();
+	}
+
+	// Locking ////////////////////////////////////////////////////////////////////////////////////
+	@Override
+	protected void beginRead() {
+		if (dataset.isInTransaction()) {
+			//called from within another operation, e.g. by a result handler
+			nested.get()[0]++;
+		} else {
+			dataset.begin(ReadWrite.READ);
+		}
+	}
+
+	@Override
+	protected void endRead() {
+		if (nested.get()[0] > 0) {
+			nested.get()[0]--;
+		} else {
+			dataset.end();
+		}
+	}
+
+	@Override
+	protected void beginWrite() {
+		if (dataset.isInTransaction()) {
+			//joins the enclosing transaction; this fails when changing data if that is a read transaction
+			nested.get()[0]++;
+		} else {
+			dataset.begin(ReadWrite.WRITE);
+		}
+	}
+
+	@Override
+	protected void endWrite(boolean success) {
+		if (nested.get()[0] > 0) {
+			//the enclosing operation decides whether to commit
+			nested.get()[0]--;
+			return;
+		}
+		try {
+			if (success) {
+				dataset.commit();
+			} else {
+				logger.warn("Aborting transaction on TDB store");
+				dataset.abort();
+			}
+		} finally {
+			dataset.end();
+		}
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Create a TDB dataset as configured by the properties
+	 *
+	 * @param props the properties
+	 * @return the dataset
+	 */
+	private static Dataset createDataset(Properties props) {
+
+		//memory mapped files are fastest on 64 bit systems, which is what TDB picks by default
+		String fileMode = props.getProperty(FILE_MODE, "").trim();
+		if (!fileMode.isEmpty()) {
+			try {
+				SystemTDB.setFileMode(FileMode.valueOf(fileMode));
+			} catch (IllegalArgumentException e) {
+				logger.warn("Invalid TDB file mode {}, using default", fileMode);
+			}
+		}
+
+		String location = props.getProperty(LOCATION, "").trim();
+		Dataset dataset;
+		if (location.isEmpty()) {
+			logger.info("No TDB location configured, creating an in-memory store");
+			dataset = TDBFactory.createDataset();
+		} else {
+			dataset = TDBFactory.createDataset(location);
+		}
+
+		if (Boolean.parseBoolean(props.getProperty(UNION_DEFAULT_GRAPH, "false").trim())) {
+			dataset.getContext().set(TDB.symUnionDefaultGraph, true);
+		}
+		return dataset;
+	}
+}
@@ -0,0 +1,204 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.tdb.test;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.Resource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.core.impl.HttpStoreWrapper;
+import uk.ac.soton.itinnovation.easyjena.core.impl.LocalStoreWrapper;
+import uk.ac.soton.itinnovation.easyjena.core.spec.IStoreWrapper;
+import uk.ac.soton.itinnovation.easyjena.tdb.impl.TDBStoreWrapper;
+
+/**
+ * This class compares the TDB store with the in-memory store and, if its SPARQL endpoint is configured and
+ * reachable, the HTTP store. Each store gets the same synthetic graph, which is stored, counted, queried by a
+ * number of concurrent readers and removed again. Pass the number of triples as the first argument.
+ */
+public class StoreBenchmark {
+
+	private static final Logger logger = LoggerFactory.getLogger(StoreBenchmark.class);
+
+	private static final String NS = "http://www.it-innovation.soton.ac.uk/benchmark/";
+	private static final String GRAPH = NS + "graph";
+	private static final int DEFAULT_TRIPLES = 1000000;
+	private static final int READERS = 4;
+	private static final int QUERIES = 250;
+
+	private final Properties props = new Properties();
+
+	/**
+	 * Run the benchmark
+	 *
+	 * @param triples the number of triples to use
+	 */
+	public void run(int triples) {
+
+		try {
+			logger.info("Loading properties file");
+			props.load(getClass().getClassLoader().getResourceAsStream("easyjena.properties"));
+		} catch (IOException | NullPointerException e) {
+			logger.warn("Could not load properties file, not benchmarking the HTTP store", e);
+		}
+
+		Model m = createModel(triples);
+		logger.info("Created benchmark graph of {} triples", m.size());
+
+		List<IStoreWrapper> stores = new ArrayList<>();
+		try {
+			String location = props.getProperty(TDBStoreWrapper.LOCATION, "").trim();
+			if (location.isEmpty()) {
+				location = Files.createTempDirectory("easyjena-tdb").toString();
+			}
+			stores.add(new TDBStoreWrapper(location));
+		} catch (IOException e) {
+			logger.error("Could not create directory for TDB store", e);
+		}
+		stores.add(new LocalStoreWrapper());
+		if (props.containsKey("easyjena.sparqlendpoint.select")) {
+			HttpStoreWrapper http = new HttpStoreWrapper(props);
+			if (http.getStatistics(null) != null) {
+				stores.add(http);
+			} else {
+				logger.warn("SPARQL endpoint {} is not reachable, not benchmarking the HTTP store",
+						http.getSparqlSelectEndpoint());
+			}
+		}
+
+		stores.stream().forEach(store -> {
+			try {
+				benchmark(store, m);
+			} catch (Exception e) {
+				logger.error("Benchmark failed for store {}", store.getClass().getSimpleName(), e);
+			} finally {
+				store.disconnect();
+			}
+		});
+		stores.stream().filter(s -> s instanceof TDBStoreWrapper).forEach(s -> ((TDBStoreWrapper) s).close());
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Run all operations on one store and log how long each of them took
+	 *
+	 * @param store the store
+	 * @param m the graph to use
+	 * @throws Exception if the concurrent readers fail
+	 */
+	private void benchmark(IStoreWrapper store, Model m) throws Exception {
+
+		String name = store.getClass().getSimpleName();
+		store.connect();
+		store.deleteGraph(GRAPH);
+
+		long start = System.currentTimeMillis();
+		store.storeModel(m, GRAPH);
+		logger.info("{}: stored {} triples in {}ms", name, m.size(), System.currentTimeMillis() - start);
+
+		start = System.currentTimeMillis();
+		int count = store.getCount(GRAPH);
+		logger.info("{}: counted {} triples in {}ms", name, count, System.currentTimeMillis() - start);
+
+		start = System.currentTimeMillis();
+		long[] rows = {0};
+		store.querySelect("SELECT ?s ?p ?o WHERE { GRAPH <" + GRAPH + "> { ?s ?p ?o } }", solution -> {
+			rows[0]++;
+			return true;
+		});
+		logger.info("{}: streamed {} solutions in {}ms", name, rows[0], System.currentTimeMillis() - start);
+
+		//point queries from several threads at once
+		ExecutorService readers = Executors.newFixedThreadPool(READERS);
+		int subjects = (int) Long.max(1, m.size() / 10);
+		start = System.currentTimeMillis();
+		List<Future<?>> results = new ArrayList<>();
+		for (int r = 0; r < READERS; r++) {
+			int offset = r;
+			results.add(readers.submit(() -> {
+				for (int q = 0; q < QUERIES; q++) {
+					int subject = (offset * QUERIES + q) * 7919 % subjects;
+					store.querySelect("SELECT ?p ?o WHERE { GRAPH <" + GRAPH + "> { <" + NS + "s" + subject
+							+ "> ?p ?o } }");
+				}
+			}));
+		}
+		for (Future<?> result : results) {
+			result.get();
+		}
+		readers.shutdown();
+		long time = System.currentTimeMillis() - start;
+		logger.info("{}: {} readers ran {} point queries in {}ms ({} queries/s)", name, READERS, READERS * QUERIES,
+				time, READERS * QUERIES * 1000L / Long.max(1, time));
+
+		start = System.currentTimeMillis();
+		store.removeModel(m, GRAPH);
+		logger.info("{}: removed {} triples in {}ms, {} left", name, m.size(), System.currentTimeMillis() - start,
+				store.getCount(GRAPH));
+		store.deleteGraph(GRAPH);
+	}
+
+	/**
+	 * Create a graph with ten properties for each subject, half of them literals
+	 *
+	 * @param triples the number of triples
+	 * @return the graph
+	 */
+	private static Model createModel(int triples) {
+
+		Model m = ModelFactory.createDefaultModel();
+		Property[] properties = new Property[10];
+		for (int i = 0; i < properties.length; i++) {
+			properties[i] = m.createProperty(NS + "p" + i);
+		}
+		for (int i = 0; i < triples; i++) {
+			Resource subject = m.createResource(NS + "s" + i / properties.length);
+			if (i % 2 == 0) {
+				subject.addLiteral(properties[i % properties.length], i);
+			} else {
+				subject.addProperty(properties[i % properties.length], m.createResource(NS + "s" + i / 3));
+			}
+		}
+		return m;
+	}
+
+	/**
+	 * Main method
+	 * @param args the number of triples (optional)
+	 */
+	public static void main(String[] args) {
+		(new StoreBenchmark()).run(args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TRIPLES);
+	}
+}
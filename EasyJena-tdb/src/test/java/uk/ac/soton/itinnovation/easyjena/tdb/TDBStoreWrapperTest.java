@@ -0,0 +1,194 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.tdb;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.jena.riot.RDFFormat;
+import junit.framework.TestCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.tdb.impl.TDBStoreWrapper;
+
+@RunWith(JUnit4.class)
+public class TDBStoreWrapperTest extends TestCase {
+
+	private static final String GRAPH = "http://example.com/graph";
+	private static final String NS = "http://example.com/ns#";
+
+	private static Logger logger;
+
+	private TDBStoreWrapper store;
+
+	@BeforeClass
+	public static void beforeClass() {
+		logger = LoggerFactory.getLogger(TDBStoreWrapperTest.class);
+		logger.info("TDBStoreWrapper tests executing...");
+	}
+
+	@Before
+	public void beforeEachTest() {
+		//in-memory TDB store
+		store = new TDBStoreWrapper(new Properties());
+		store.connect();
+	}
+
+	@After
+	public void afterEachTest() {
+		store.close();
+	}
+
+	// Tests //////////////////////////////////////////////////////////////////////////////////////
+
+	@Test
+	public void testUpdateAndQuery() {
+		store.update("INSERT DATA { GRAPH <" + GRAPH + "> { <" + NS + "a> <" + NS + "p> 1, 2, 3 } }");
+		assertEquals(3, store.getCount(GRAPH));
+		assertTrue(store.queryAsk("ASK { GRAPH <" + GRAPH + "> { <" + NS + "a> <" + NS + "p> 2 } }"));
+	}
+
+	@Test
+	public void testFailedUpdateIsAborted() {
+		//the second operation fails after the first one has been executed
+		store.update("INSERT DATA { GRAPH <" + GRAPH + "> { <" + NS + "a> <" + NS + "p> 1 } } ;\n"
+				+ "LOAD <file:///does/not/exist.ttl>");
+		assertEquals(0, store.getCount(GRAPH));
+	}
+
+	@Test
+	public void testNestedRead() {
+		store.update("INSERT DATA { GRAPH <" + GRAPH + "> { <" + NS + "a> <" + NS + "p> 1, 2 } }");
+		int[] counts = {0};
+		store.querySelect("SELECT * WHERE { GRAPH <" + GRAPH + "> { ?s ?p ?o } }", solution -> {
+			//runs inside the read transaction of the query
+			counts[0] += store.getCount(GRAPH);
+			return true;
+		});
+		assertEquals(4, counts[0]);
+	}
+
+	@Test
+	public void testBulkLoadIntoGraph() throws IOException {
+		File file = createDocument(".ttl", "@prefix ns: <" + NS + "> .\nns:a ns:p 1, 2, 3 .\n");
+		try {
+			store.importDocumentToGraph(file.getPath(), null, GRAPH, null);
+			assertEquals(3, store.getCount(GRAPH));
+			assertEquals(0, store.getCount(null));
+			assertTrue(store.queryAsk("ASK { GRAPH <" + GRAPH + "> { <" + NS + "a> <" + NS + "p> 3 } }"));
+		} finally {
+			Files.delete(file.toPath());
+		}
+	}
+
+	@Test
+	public void testImportWithBaseURIOrFormat() throws IOException {
+		//relative URIs are resolved against the given base URI rather than the location of the document
+		String base = "http://example.com/";
+		File relative = createDocument(".ttl", "<a> <p> 1 .\n");
+		//the syntax is given explicitly and doesn't match the file extension
+		File turtle = createDocument(".nt", "@prefix ns: <" + NS + "> .\nns:b ns:p 1, 2 .\n");
+		try {
+			store.importDocumentToGraph(relative.getPath(), base, GRAPH, null);
+			assertTrue(store.queryAsk("ASK { GRAPH <" + GRAPH + "> { <" + base + "a> <" + base + "p> 1 } }"));
+
+			store.importDocumentToGraph(turtle.getPath(), null, GRAPH, RDFFormat.TURTLE);
+			assertTrue(store.queryAsk("ASK { GRAPH <" + GRAPH + "> { <" + NS + "b> <" + NS + "p> 2 } }"));
+			assertEquals(3, store.getCount(GRAPH));
+		} finally {
+			Files.delete(relative.toPath());
+			Files.delete(turtle.toPath());
+		}
+	}
+
+	@Test
+	public void testReadWhileWriting() throws InterruptedException {
+		store.close();
+		WritingStore writingStore = new WritingStore();
+		store = writingStore;
+		store.connect();
+		store.update("INSERT DATA { GRAPH <" + GRAPH + "> { <" + NS + "a> <" + NS + "p> 1 } }");
+
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread writer = new Thread(() -> writingStore.addAndWait(NS + "b", writing, release));
+		writer.start();
+		try {
+			assertTrue(writing.await(10, TimeUnit.SECONDS));
+			//readers don't wait for the writer and only see committed data
+			assertEquals(1, store.getCount(GRAPH));
+			assertFalse(store.queryAsk("ASK { GRAPH <" + GRAPH + "> { <" + NS + "b> ?p ?o } }"));
+		} finally {
+			release.countDown();
+			writer.join();
+		}
+		assertEquals(2, store.getCount(GRAPH));
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+
+	private static File createDocument(String extension, String content) throws IOException {
+		File file = File.createTempFile("easyjena-tdb", extension);
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	/**
+	 * An in-memory store which lets the tests hold a write transaction open
+	 */
+	private static class WritingStore extends TDBStoreWrapper {
+
+		WritingStore() {
+			super(new Properties());
+		}
+
+		/**
+		 * Add a triple in a write transaction which is only committed once it is released
+		 */
+		void addAndWait(String subject, CountDownLatch writing, CountDownLatch release) {
+			write(() -> {
+				Model m = getModel(GRAPH);
+				m.add(m.createResource(subject), m.createProperty(NS + "p"), "2");
+				writing.countDown();
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+	}
+}
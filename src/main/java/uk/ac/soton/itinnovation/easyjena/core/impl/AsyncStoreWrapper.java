@@ -0,0 +1,202 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.core.spec.IAsyncStoreWrapper;
+import uk.ac.soton.itinnovation.easyjena.core.spec.ISelectResultHandler;
+import uk.ac.soton.itinnovation.easyjena.core.spec.IStoreWrapper;
+
+/**
+ * Runs the operations of a blocking store wrapper on an executor. By default a fixed pool of daemon threads is
+ * used, but any executor can be given, e.g. one creating a virtual thread per task on JDKs which support them.
+ */
+public class AsyncStoreWrapper implements IAsyncStoreWrapper {
+
+	private static final Logger logger = LoggerFactory.getLogger(AsyncStoreWrapper.class);
+
+	//for properties documentation see src/main/resources/easyjena.properties
+	public static final String THREADS = "easyjena.async.threads";
+
+	private static final int DEFAULT_THREADS = 8;
+	//the key for updates of the default graph
+	private static final String DEFAULT_GRAPH = "";
+
+	private final IStoreWrapper store;
+	private final Executor executor;
+	//only set if the executor has been created here and needs to be shut down
+	private final ExecutorService ownExecutor;
+
+	//the last update submitted for each graph; removed once it has finished
+	private final Map<String, CompletableFuture<Void>> lastUpdates = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates an asynchronous wrapper using its own thread pool. The size of the pool is taken from the
+	 * easyjena.async.threads property of the store.
+	 *
+	 * @param store the store to run the operations on
+	 */
+	public AsyncStoreWrapper(IStoreWrapper store) {
+
+		this.store = store;
+		int threads = DEFAULT_THREADS;
+		if (store.getProperties() != null && store.getProperties().containsKey(THREADS)) {
+			try {
+				threads = Integer.parseInt(store.getProperties().getProperty(THREADS).trim());
+			} catch (NumberFormatException e) {
+				logger.warn("Invalid number of threads {}, using {}", store.getProperties().getProperty(THREADS),
+						DEFAULT_THREADS);
+			}
+		}
+		ownExecutor = Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactory() {
+
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "easyjena-async-" + count.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		executor = ownExecutor;
+	}
+
+	/**
+	 * Creates an asynchronous wrapper using the given executor. The executor is not shut down by this wrapper.
+	 *
+	 * @param store the store to run the operations on
+	 * @param executor the executor to run the operations on
+	 */
+	public AsyncStoreWrapper(IStoreWrapper store, Executor executor) {
+
+		this.store = store;
+		this.executor = executor;
+		ownExecutor = null;
+	}
+
+	@Override
+	public IStoreWrapper getStore() {
+		return store;
+	}
+
+	// Queries ////////////////////////////////////////////////////////////////////////////////////
+	@Override
+	public CompletableFuture<List<Map<String, String>>> querySelect(String sparql) {
+		//the stores return their own kind of result, so collect the solutions the same way for all of them
+		return CompletableFuture.supplyAsync(() -> {
+			List<Map<String, String>> results = new LinkedList<>();
+			store.querySelect(sparql, row -> {
+				Map<String, String> r = new HashMap<>();
+				row.varNames().forEachRemaining(var -> r.put(var, row.get(var).toString()));
+				results.add(r);
+				return true;
+			});
+			return results;
+		}, executor);
+	}
+
+	@Override
+	public CompletableFuture<Boolean> querySelect(String sparql, ISelectResultHandler handler) {
+		return CompletableFuture.supplyAsync(() -> store.querySelect(sparql, handler), executor);
+	}
+
+	@Override
+	public CompletableFuture<Boolean> queryAsk(String sparql) {
+		return CompletableFuture.supplyAsync(() -> store.queryAsk(sparql), executor);
+	}
+
+	@Override
+	public CompletableFuture<Object> queryConstruct(String sparql) {
+		return CompletableFuture.supplyAsync(() -> store.queryConstruct(sparql), executor);
+	}
+
+	// Updates ////////////////////////////////////////////////////////////////////////////////////
+	@Override
+	public CompletableFuture<Void> update(String sparql) {
+		return update(sparql, null);
+	}
+
+	@Override
+	public CompletableFuture<Void> update(String sparql, String graphURI) {
+		return runOrdered(graphURI, () -> store.update(sparql));
+	}
+
+	@Override
+	public CompletableFuture<Void> storeModel(Model m, String graphURI) {
+		return runOrdered(graphURI, () -> store.storeModel(m, graphURI));
+	}
+
+	@Override
+	public CompletableFuture<Void> storeTriples(Set<Triple> triples, String graphURI) {
+		return runOrdered(graphURI, () -> store.storeTriples(triples, graphURI));
+	}
+
+	@Override
+	public CompletableFuture<Void> removeTriples(Set<Triple> triples, String graphURI) {
+		return runOrdered(graphURI, () -> store.removeTriples(triples, graphURI));
+	}
+
+	@Override
+	public void shutdown() {
+		if (ownExecutor != null) {
+			ownExecutor.shutdown();
+		}
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Run an update after all previously submitted updates for the same graph have finished,
+	 * whether they succeeded or not.
+	 *
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 * @param action the update
+	 * @return the future of the update
+	 */
+	private CompletableFuture<Void> runOrdered(String graphURI, Runnable action) {
+
+		String key = graphURI != null ? graphURI : DEFAULT_GRAPH;
+		CompletableFuture<Void> next = lastUpdates.compute(key, (k, last) -> last == null
+				? CompletableFuture.runAsync(action, executor)
+				: last.handle((result, e) -> null).thenRunAsync(action, executor));
+		//don't keep finished updates around
+		next.whenComplete((result, e) -> lastUpdates.remove(key, next));
+		return next;
+	}
+}
@@ -0,0 +1,89 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+/**
+ * Summary of an operation which has been sent to a store in several batches.
+ */
+public class BatchReport {
+
+	private final int batches;
+	private final int failedBatches;
+	private final long triples;
+
+	/**
+	 * Create a report
+	 *
+	 * @param batches the number of batches (i.e. requests) sent
+	 * @param failedBatches how many of these batches failed
+	 * @param triples the number of triples in all successful batches
+	 */
+	public BatchReport(int batches, int failedBatches, long triples) {
+		this.batches = batches;
+		this.failedBatches = failedBatches;
+		this.triples = triples;
+	}
+
+	/**
+	 * Get the number of batches sent to the store
+	 *
+	 * @return the number of batches
+	 */
+	public int getBatches() {
+		return batches;
+	}
+
+	/**
+	 * Get the number of batches which could not be processed by the store
+	 *
+	 * @return the number of failed batches
+	 */
+	public int getFailedBatches() {
+		return failedBatches;
+	}
+
+	/**
+	 * Get the number of triples which have been processed successfully
+	 *
+	 * @return the number of triples
+	 */
+	public long getTriples() {
+		return triples;
+	}
+
+	/**
+	 * Find out whether all batches have been processed successfully
+	 *
+	 * @return true if no batch failed
+	 */
+	public boolean isSuccessful() {
+		return failedBatches == 0;
+	}
+
+	@Override
+	public String toString() {
+		return triples + " triples in " + batches + " batches (" + failedBatches + " failed)";
+	}
+}
@@ -0,0 +1,586 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.rdf.model.Model;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.jena.riot.RDFFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.core.spec.AStoreWrapper;
+import uk.ac.soton.itinnovation.easyjena.core.spec.ISelectResultHandler;
+import uk.ac.soton.itinnovation.easyjena.core.spec.IStoreWrapper;
+
+/**
+ * Wraps another store and caches the results of SELECT and ASK queries, graph existence checks and triple counts.
+ * Entries are evicted when the cache is full (least recently used first) or after a fixed time.
+ *
+ * Each entry remembers which graphs it was computed from. Any change made through this wrapper invalidates the
+ * entries which depend on the changed graph. Changes made to the store by other means are only picked up once
+ * the entries expire. Cached results are shared between callers and must not be modified.
+ */
+public class CachingStoreWrapper extends AStoreWrapper {
+
+	private static final Logger logger = LoggerFactory.getLogger(CachingStoreWrapper.class);
+
+	//for properties documentation see src/main/resources/easyjena.properties
+	public static final String CACHE_SIZE = "easyjena.cache.size";
+	public static final String CACHE_TTL = "easyjena.cache.ttl";
+	public static final String CACHE_UNION_DEFAULT_GRAPH = "easyjena.cache.unionDefaultGraph";
+
+	private static final int DEFAULT_CACHE_SIZE = 1000;
+	private static final long DEFAULT_CACHE_TTL = 60000;
+
+	//tags for entries which depend on the default graph or on any graph
+	private static final String DEFAULT_GRAPH = "";
+	private static final String ANY_GRAPH = "*";
+
+	private static final Pattern FROM = Pattern.compile("\\bFROM\\s+(NAMED\\s+)?<([^>]*)>", Pattern.CASE_INSENSITIVE);
+	private static final Pattern GRAPH = Pattern.compile("\\b(GRAPH|WITH)\\s+(<([^>]*)>|\\S)",
+			Pattern.CASE_INSENSITIVE);
+	//updates which might change graphs without naming them
+	private static final Pattern UPDATE_ALL = Pattern.compile(
+			"\\b((CLEAR|DROP)\\s+(SILENT\\s+)?(ALL|NAMED)|ADD|MOVE|COPY|LOAD)\\b", Pattern.CASE_INSENSITIVE);
+
+	private final IStoreWrapper store;
+	private final int maxEntries;
+	private final long ttl;
+	private final boolean unionDefaultGraph;
+
+	//access ordered, i.e. the first entry is the least recently used one
+	private final LinkedHashMap<String, CacheEntry> cache;
+	//incremented by every invalidation so results of queries running at the same time are not cached
+	private long generation;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * Creates a cache for the given store, configured using the store's easyjena.cache.* properties
+	 *
+	 * @param store the store to wrap
+	 */
+	public CachingStoreWrapper(IStoreWrapper store) {
+		this(store, getIntProperty(store.getProperties(), CACHE_SIZE, DEFAULT_CACHE_SIZE),
+				getIntProperty(store.getProperties(), CACHE_TTL, (int) DEFAULT_CACHE_TTL));
+	}
+
+	/**
+	 * Creates a cache for the given store
+	 *
+	 * @param store the store to wrap
+	 * @param maxEntries the maximum number of cached results
+	 * @param ttl the time in ms after which a result expires; 0 for no expiry
+	 */
+	public CachingStoreWrapper(IStoreWrapper store, int maxEntries, long ttl) {
+		super();
+
+		this.store = store;
+		this.maxEntries = maxEntries;
+		this.ttl = ttl;
+		this.props = store.getProperties() != null ? store.getProperties() : new Properties();
+		unionDefaultGraph = Boolean.parseBoolean(props.getProperty(CACHE_UNION_DEFAULT_GRAPH, "true").trim());
+
+		cache = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+				if (size() > CachingStoreWrapper.this.maxEntries) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	// Cached queries /////////////////////////////////////////////////////////////////////////////
+	@Override
+	public boolean graphExists(String graphURI) {
+		return cached("EXISTS " + graphURI, graphTags(graphURI), () -> store.graphExists(graphURI));
+	}
+
+	@Override
+	public int getCount(String graphURI) {
+		return cached("COUNT " + graphURI, graphTags(graphURI), () -> store.getCount(graphURI));
+	}
+
+	@Override
+	public Object querySelect(String sparql) {
+		String query = normalise(sparql);
+		return cached("SELECT " + query, queryTags(query), () -> store.querySelect(sparql));
+	}
+
+	@Override
+	public boolean queryAsk(String sparql) {
+		String query = normalise(sparql);
+		return cached("ASK " + query, queryTags(query), () -> store.queryAsk(sparql));
+	}
+
+	@Override
+	public Object querySelect(PreparedStatement statement) {
+		String query = normalise(statement.getSparql());
+		return cached("SELECT " + query, queryTags(query), () -> store.querySelect(statement));
+	}
+
+	@Override
+	public boolean queryAsk(PreparedStatement statement) {
+		String query = normalise(statement.getSparql());
+		return cached("ASK " + query, queryTags(query), () -> store.queryAsk(statement));
+	}
+
+	// Uncached queries ///////////////////////////////////////////////////////////////////////////
+	@Override
+	public boolean querySelect(String sparql, ISelectResultHandler handler) {
+		return store.querySelect(sparql, handler);
+	}
+
+	@Override
+	public Object queryConstruct(String sparql) {
+		return store.queryConstruct(sparql);
+	}
+
+	@Override
+	public Object queryDescribe(String sparql) {
+		return store.queryDescribe(sparql);
+	}
+
+	@Override
+	public boolean querySelect(PreparedStatement statement, ISelectResultHandler handler) {
+		return store.querySelect(statement, handler);
+	}
+
+	@Override
+	public Object queryConstruct(PreparedStatement statement) {
+		return store.queryConstruct(statement);
+	}
+
+	@Override
+	public Object queryDescribe(PreparedStatement statement) {
+		return store.queryDescribe(statement);
+	}
+
+	/**
+	 * Prepare a statement using the wrapped store, so that it is parsed with the store's prefixes
+	 *
+	 * @param sparql the query or update
+	 * @return a new statement without any values
+	 */
+	@Override
+	public PreparedStatement prepare(String sparql) {
+		return store.prepare(sparql);
+	}
+
+	@Override
+	public List<Map<String, String>> translateSelectResult(Object results) {
+		return store.translateSelectResult(results);
+	}
+
+	@Override
+	public String getRDF(String graphURI) {
+		return store.getRDF(graphURI);
+	}
+
+	@Override
+	public boolean exportGraph(String graphURI, String filter, Graph sink) {
+		return store.exportGraph(graphURI, filter, sink);
+	}
+
+	// Changes ////////////////////////////////////////////////////////////////////////////////////
+	@Override
+	public void createGraph(String graphURI) {
+		store.createGraph(graphURI);
+		invalidate(graphURI);
+	}
+
+	@Override
+	public void clearGraph(String graphURI) {
+		store.clearGraph(graphURI);
+		invalidate(graphURI);
+	}
+
+	@Override
+	public void deleteGraph(String graphURI) {
+		store.deleteGraph(graphURI);
+		invalidate(graphURI);
+	}
+
+	@Override
+	public void update(String sparql) {
+		store.update(sparql);
+		invalidateUpdate(normalise(sparql));
+	}
+
+	@Override
+	public void update(PreparedStatement statement) {
+		store.update(statement);
+		invalidateUpdate(normalise(statement.getSparql()));
+	}
+
+	@Override
+	public void importDocumentToGraph(String ontologypath, String baseURI, String graphURI, RDFFormat format) {
+		store.importDocumentToGraph(ontologypath, baseURI, graphURI, format);
+		invalidate(graphURI);
+	}
+
+	@Override
+	public void storeTriple(Triple t, String graphURI) {
+		store.storeTriple(t, graphURI);
+		invalidate(graphURI);
+	}
+
+	@Override
+	public void removeTriple(Triple t, String graphURI) {
+		store.removeTriple(t, graphURI);
+		invalidate(graphURI);
+	}
+
+	@Override
+	public void storeTriples(Set<Triple> triples, String graphURI) {
+		store.storeTriples(triples, graphURI);
+		invalidate(graphURI);
+	}
+
+	@Override
+	public void removeTriples(Set<Triple> triples, String graphURI) {
+		store.removeTriples(triples, graphURI);
+		invalidate(graphURI);
+	}
+
+	@Override
+	public void storeModel(Model m, String graphURI) {
+		store.storeModel(m, graphURI);
+		invalidate(graphURI);
+	}
+
+	@Override
+	public void removeModel(Model m, String graphURI) {
+		store.removeModel(m, graphURI);
+		invalidate(graphURI);
+	}
+
+	@Override
+	public void storeRDF(String rdf, String graphURI) {
+		store.storeRDF(rdf, graphURI);
+		invalidate(graphURI);
+	}
+
+	@Override
+	public void removeRDF(String rdf, String graphURI) {
+		store.removeRDF(rdf, graphURI);
+		invalidate(graphURI);
+	}
+
+	// Connection /////////////////////////////////////////////////////////////////////////////////
+	@Override
+	public void connect() {
+		store.connect();
+	}
+
+	@Override
+	public void disconnect() {
+		store.disconnect();
+		invalidateAll();
+	}
+
+	@Override
+	public void loadNamespaces() {
+		store.loadNamespaces();
+	}
+
+	// Cache management ///////////////////////////////////////////////////////////////////////////
+	/**
+	 * Remove all entries from the cache
+	 */
+	public synchronized void invalidateAll() {
+		generation++;
+		cache.clear();
+	}
+
+	/**
+	 * Remove all entries which depend on the given graph
+	 *
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 */
+	public synchronized void invalidate(String graphURI) {
+
+		generation++;
+		String tag = graphURI != null ? graphURI : DEFAULT_GRAPH;
+		//with a union default graph, every change also changes the default graph
+		boolean defaultGraph = graphURI == null || unionDefaultGraph;
+		Iterator<CacheEntry> it = cache.values().iterator();
+		while (it.hasNext()) {
+			Set<String> tags = it.next().tags;
+			if (tags.contains(tag) || tags.contains(ANY_GRAPH) || (defaultGraph && tags.contains(DEFAULT_GRAPH))) {
+				it.remove();
+			}
+		}
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Get a result from the cache or compute and cache it
+	 *
+	 * @param key the cache key
+	 * @param tags the graphs the result depends on
+	 * @param query computes the result
+	 * @return the result
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T cached(String key, Set<String> tags, Supplier<T> query) {
+
+		long queryGeneration;
+		synchronized (this) {
+			CacheEntry entry = cache.get(key);
+			if (entry != null) {
+				if (entry.expires > System.currentTimeMillis()) {
+					hits.incrementAndGet();
+					return (T) entry.value;
+				}
+				cache.remove(key);
+				evictions.incrementAndGet();
+			}
+			queryGeneration = generation;
+		}
+
+		misses.incrementAndGet();
+		T value = query.get();
+
+		//don't cache failed queries or anything that might have been changed while running the query
+		if (value != null && maxEntries > 0) {
+			synchronized (this) {
+				if (queryGeneration == generation) {
+					long expires = ttl > 0 ? System.currentTimeMillis() + ttl : Long.MAX_VALUE;
+					cache.put(key, new CacheEntry(value, tags, expires));
+				}
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Invalidate all entries which might be affected by an update
+	 *
+	 * @param sparql the normalised update
+	 */
+	private void invalidateUpdate(String sparql) {
+
+		Set<String> graphs = queryTags(sparql);
+		if (graphs.contains(ANY_GRAPH) || UPDATE_ALL.matcher(sparql).find()) {
+			invalidateAll();
+			return;
+		}
+		//parts of the update outside a GRAPH block change the default graph
+		invalidate(null);
+		for (String graph : graphs) {
+			if (!graph.equals(DEFAULT_GRAPH)) {
+				invalidate(graph);
+			}
+		}
+	}
+
+	/**
+	 * Get the graphs a query depends on. If the dataset is given with FROM clauses, these are the only graphs.
+	 * Otherwise the query depends on the default graph and all graphs mentioned in GRAPH clauses, or any graph
+	 * if a GRAPH clause uses a variable or prefixed name.
+	 *
+	 * @param sparql the normalised query
+	 * @return the graph URIs, DEFAULT_GRAPH and/or ANY_GRAPH
+	 */
+	private static Set<String> queryTags(String sparql) {
+
+		Set<String> tags = new HashSet<>();
+		Matcher from = FROM.matcher(sparql);
+		while (from.find()) {
+			tags.add(from.group(2));
+		}
+		if (!tags.isEmpty()) {
+			return tags;
+		}
+
+		tags.add(DEFAULT_GRAPH);
+		Matcher graph = GRAPH.matcher(sparql);
+		while (graph.find()) {
+			tags.add(graph.group(3) != null ? graph.group(3) : ANY_GRAPH);
+		}
+		return tags;
+	}
+
+	/**
+	 * Get the tags for a result which only depends on one graph
+	 *
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 * @return the tags
+	 */
+	private static Set<String> graphTags(String graphURI) {
+		return Collections.singleton(graphURI != null ? graphURI : DEFAULT_GRAPH);
+	}
+
+	/**
+	 * Normalise a SPARQL string so that queries which only differ in whitespace share the same cache entry.
+	 * Whitespace in string literals is kept.
+	 *
+	 * @param sparql the query
+	 * @return the query with all other whitespace collapsed into single spaces
+	 */
+	static String normalise(String sparql) {
+
+		StringBuilder sb = new StringBuilder(sparql.length());
+		char quote = 0;
+		boolean space = false;
+		for (int i = 0; i < sparql.length(); i++) {
+			char c = sparql.charAt(i);
+			if (quote != 0) {
+				sb.append(c);
+				if (c == '\\' && i + 1 < sparql.length()) {
+					sb.append(sparql.charAt(++i));
+				} else if (c == quote) {
+					quote = 0;
+				}
+			} else if (Character.isWhitespace(c)) {
+				space = sb.length() > 0;
+			} else {
+				if (space) {
+					sb.append(' ');
+					space = false;
+				}
+				if (c == '"' || c == '\'') {
+					quote = c;
+				}
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Get a numeric property
+	 *
+	 * @param props the properties
+	 * @param key the name of the property
+	 * @param defaultValue the value to use if the property is not set or invalid
+	 * @return the value
+	 */
+	private static int getIntProperty(Properties props, String key, int defaultValue) {
+
+		if (props == null || props.getProperty(key, "").trim().isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(props.getProperty(key).trim());
+		} catch (NumberFormatException e) {
+			logger.warn("Invalid value {} for property {}, using {}", props.getProperty(key), key, defaultValue);
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * A cached result
+	 */
+	private static class CacheEntry {
+
+		private final Object value;
+		private final Set<String> tags;
+		private final long expires;
+
+		CacheEntry(Object value, Set<String> tags, long expires) {
+			this.value = value;
+			this.tags = tags;
+			this.expires = expires;
+		}
+	}
+
+	// Getters/Setters ////////////////////////////////////////////////////////////////////////////
+	public IStoreWrapper getStore() {
+		return store;
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Get the number of entries removed because the cache was full or they had expired.
+	 * Invalidated entries are not counted.
+	 *
+	 * @return the number of evictions
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	public synchronized int getSize() {
+		return cache.size();
+	}
+
+	/**
+	 * Reset the hit, miss and eviction counters
+	 */
+	public void resetStatistics() {
+		hits.set(0);
+		misses.set(0);
+		evictions.set(0);
+	}
+
+	@Override
+	public String getSPARQLPrefixes() {
+		return store.getSPARQLPrefixes();
+	}
+
+	@Override
+	public boolean isConnected() {
+		return store.isConnected();
+	}
+
+	@Override
+	public Map<String, String> getPrefixURIMap() {
+		return store.getPrefixURIMap();
+	}
+
+	@Override
+	public boolean hasGeoSupport() {
+		return store.hasGeoSupport();
+	}
+
+}
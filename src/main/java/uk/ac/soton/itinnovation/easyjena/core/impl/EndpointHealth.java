@@ -0,0 +1,180 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+/**
+ * Tracks the health of a single endpoint and acts as a circuit breaker: after a number of consecutive failures
+ * the endpoint is considered unavailable and requests are refused straight away instead of waiting for it.
+ * After a while, a single trial request is let through; the endpoint is available again if it succeeds.
+ */
+public class EndpointHealth {
+
+	/**
+	 * The state of the circuit breaker
+	 */
+	public enum State {
+
+		//requests are sent as usual
+		CLOSED,
+		//the endpoint is considered unavailable; requests are refused
+		OPEN,
+		//a trial request is under way to find out whether the endpoint has recovered
+		HALF_OPEN
+	}
+
+	private final String endpoint;
+	private final int failureThreshold;
+	private final long openTime;
+
+	private State state = State.CLOSED;
+	private boolean trialRunning;
+	private int consecutiveFailures;
+	private long openedAt;
+	private long lastFailure;
+	private long lastSuccess;
+	private long failures;
+	private long successes;
+
+	/**
+	 * Create the health tracker for an endpoint
+	 *
+	 * @param endpoint the URL of the endpoint
+	 * @param failureThreshold the number of consecutive failures after which the endpoint is considered unavailable
+	 * @param openTime the time in ms after which an unavailable endpoint is tried again
+	 */
+	public EndpointHealth(String endpoint, int failureThreshold, long openTime) {
+		this.endpoint = endpoint;
+		this.failureThreshold = Integer.max(1, failureThreshold);
+		this.openTime = openTime;
+	}
+
+	/**
+	 * Find out whether a request may be sent to the endpoint now. If this returns true, the outcome of the request
+	 * must be reported using recordSuccess or recordFailure.
+	 *
+	 * @return false if the request should not be sent
+	 */
+	public synchronized boolean allowRequest() {
+
+		switch (state) {
+			case OPEN:
+				if (System.currentTimeMillis() - openedAt < openTime) {
+					return false;
+				}
+				state = State.HALF_OPEN;
+				trialRunning = true;
+				return true;
+			case HALF_OPEN:
+				//only one trial at a time
+				if (trialRunning) {
+					return false;
+				}
+				trialRunning = true;
+				return true;
+			default:
+				return true;
+		}
+	}
+
+	/**
+	 * Report that the endpoint answered a request
+	 */
+	public synchronized void recordSuccess() {
+		successes++;
+		lastSuccess = System.currentTimeMillis();
+		consecutiveFailures = 0;
+		trialRunning = false;
+		state = State.CLOSED;
+	}
+
+	/**
+	 * Report that the endpoint could not be reached or failed to process a request
+	 */
+	public synchronized void recordFailure() {
+		failures++;
+		lastFailure = System.currentTimeMillis();
+		consecutiveFailures++;
+		trialRunning = false;
+		if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+			state = State.OPEN;
+			openedAt = lastFailure;
+		}
+	}
+
+	/**
+	 * Find out whether requests would currently be sent to the endpoint. Callers can use this to reject work early
+	 * rather than waiting for the store.
+	 *
+	 * @return false if the endpoint is considered unavailable
+	 */
+	public synchronized boolean isAvailable() {
+		return state == State.CLOSED
+				|| (state == State.OPEN && System.currentTimeMillis() - openedAt >= openTime);
+	}
+
+	// Getters ////////////////////////////////////////////////////////////////////////////////////
+	public String getEndpoint() {
+		return endpoint;
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+	public synchronized int getConsecutiveFailures() {
+		return consecutiveFailures;
+	}
+
+	public synchronized long getFailures() {
+		return failures;
+	}
+
+	public synchronized long getSuccesses() {
+		return successes;
+	}
+
+	/**
+	 * Get the time of the last failure
+	 *
+	 * @return the time in ms since the epoch or 0 if there hasn't been a failure
+	 */
+	public synchronized long getLastFailure() {
+		return lastFailure;
+	}
+
+	/**
+	 * Get the time of the last successful request
+	 *
+	 * @return the time in ms since the epoch or 0 if there hasn't been a successful request
+	 */
+	public synchronized long getLastSuccess() {
+		return lastSuccess;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return endpoint + ": " + state + " (" + consecutiveFailures + " consecutive failures)";
+	}
+}
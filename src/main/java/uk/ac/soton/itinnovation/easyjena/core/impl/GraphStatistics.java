@@ -0,0 +1,93 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+/**
+ * Statistics about a single graph in a store.
+ */
+public class GraphStatistics {
+
+	private final String graphURI;
+	private final long triples;
+	private final boolean estimate;
+	private final long timestamp;
+
+	/**
+	 * Create statistics for a graph
+	 *
+	 * @param graphURI the URI of the graph; null for the default graph
+	 * @param triples the number of triples in the graph
+	 * @param estimate whether the number has been taken from published statistics (e.g. VoID) rather than counted
+	 */
+	public GraphStatistics(String graphURI, long triples, boolean estimate) {
+		this.graphURI = graphURI;
+		this.triples = triples;
+		this.estimate = estimate;
+		this.timestamp = System.currentTimeMillis();
+	}
+
+	/**
+	 * Get the URI of the graph
+	 *
+	 * @return the URI or null for the default graph
+	 */
+	public String getGraphURI() {
+		return graphURI;
+	}
+
+	/**
+	 * Get the number of triples in the graph
+	 *
+	 * @return the number of triples
+	 */
+	public long getTriples() {
+		return triples;
+	}
+
+	/**
+	 * Find out whether the number of triples has been published by the store rather than counted.
+	 * Published statistics might be out of date.
+	 *
+	 * @return true if the statistics are an estimate
+	 */
+	public boolean isEstimate() {
+		return estimate;
+	}
+
+	/**
+	 * Get the time at which the statistics were retrieved from the store
+	 *
+	 * @return the time in ms since the epoch
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	@Override
+	public String toString() {
+		return (graphURI != null ? "<" + graphURI + ">" : "default graph") + ": " + triples + " triples"
+				+ (estimate ? " (estimate)" : "");
+	}
+}
@@ -24,35 +24,56 @@
 /////////////////////////////////////////////////////////////////////////
 package uk.ac.soton.itinnovation.easyjena.core.impl;
 
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
 import com.hp.hpl.jena.query.Query;
 import com.hp.hpl.jena.query.QueryFactory;
-import com.hp.hpl.jena.query.QuerySolution;
 import com.hp.hpl.jena.query.ResultSet;
-import com.hp.hpl.jena.query.ResultSetFactory;
 import com.hp.hpl.jena.rdf.model.Model;
-import com.hp.hpl.jena.rdf.model.Statement;
-import com.hp.hpl.jena.rdf.model.StmtIterator;
-import com.hp.hpl.jena.sparql.engine.http.QueryEngineHTTP;
 import com.hp.hpl.jena.sparql.resultset.ResultSetException;
-import java.io.BufferedReader;
-import java.io.DataOutputStream;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.zip.GZIPOutputStream;
+import org.apache.http.pool.PoolStats;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
 import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.topbraid.spin.util.JenaUtil;
-import uk.ac.soton.itinnovation.easyjena.core.impl.Triple.TripleType;
 import uk.ac.soton.itinnovation.easyjena.core.spec.AStoreWrapper;
+import uk.ac.soton.itinnovation.easyjena.core.spec.IHttpTransport;
+import uk.ac.soton.itinnovation.easyjena.core.spec.ISelectResultHandler;
+import uk.ac.soton.itinnovation.easyjena.core.spec.IStoreMetrics;
 
 /**
  * This class provides an interface to a triple store's SPARQL HTTP endpoint.
@@ -61,6 +82,53 @@ public class HttpStoreWrapper extends AStoreWrapper {
 
 	private static final Logger logger = LoggerFactory.getLogger(HttpStoreWrapper.class);
 
+	//for properties documentation see src/main/resources/easyjena.properties
+	public static final String NAMED_GRAPHS = "easyjena.sparqlendpoint.namedGraphs";
+	public static final String RESULT_FORMAT = "easyjena.sparqlendpoint.select.resultFormat";
+	public static final String BATCH_TRIPLES = "easyjena.sparqlendpoint.batch.triples";
+	public static final String BATCH_BYTES = "easyjena.sparqlendpoint.batch.bytes";
+	public static final String DATA_ENDPOINT = "easyjena.sparqlendpoint.data";
+	public static final String DATA_FORMAT = "easyjena.sparqlendpoint.data.format";
+	public static final String DATA_GZIP = "easyjena.sparqlendpoint.data.gzip";
+	public static final String STATISTICS = "easyjena.sparqlendpoint.statistics";
+	public static final String RETRIES = "easyjena.sparqlendpoint.retries";
+	public static final String RETRY_BACKOFF = "easyjena.sparqlendpoint.retryBackoff";
+	public static final String BREAKER_FAILURES = "easyjena.sparqlendpoint.breaker.failures";
+	public static final String BREAKER_OPEN_TIME = "easyjena.sparqlendpoint.breaker.openTime";
+	public static final String FAIL_FAST = "easyjena.sparqlendpoint.failFast";
+	public static final String SELECT_ROUTING = "easyjena.sparqlendpoint.select.routing";
+	public static final String SELECT_PRIMARY = "easyjena.sparqlendpoint.select.primary";
+	public static final String SELECT_READ_YOUR_WRITES = "easyjena.sparqlendpoint.select.readYourWrites";
+	public static final String REQUEST_COMPRESSION = "easyjena.sparqlendpoint.requestCompression";
+	public static final String REQUEST_COMPRESSION_THRESHOLD = "easyjena.sparqlendpoint.requestCompression.threshold";
+	public static final String REQUEST_ENCODING = "easyjena.sparqlendpoint.requestEncoding";
+	public static final String CHUNK_THRESHOLD = "easyjena.sparqlendpoint.chunkThreshold";
+	public static final String PREFIXES = "easyjena.sparqlendpoint.prefixes";
+
+	private static final int DEFAULT_BATCH_TRIPLES = 10000;
+	private static final int DEFAULT_BATCH_BYTES = 2 * 1024 * 1024;
+
+	private static final int HTTP_NOT_ACCEPTABLE = 406;
+	private static final int HTTP_UNSUPPORTED_MEDIA_TYPE = 415;
+
+	private static final int DEFAULT_REQUEST_COMPRESSION_THRESHOLD = 8192;
+	private static final int DEFAULT_CHUNK_THRESHOLD = 65536;
+
+	private static final int DEFAULT_RETRIES = 2;
+	private static final int DEFAULT_RETRY_BACKOFF = 200;
+	private static final long MAX_RETRY_BACKOFF = 10000;
+	private static final int DEFAULT_BREAKER_FAILURES = 5;
+	private static final int DEFAULT_BREAKER_OPEN_TIME = 30000;
+
+	//vocabularies for published statistics
+	private static final String VOID = "http://rdfs.org/ns/void#";
+	private static final String SD = "http://www.w3.org/ns/sparql-service-description#";
+	//key for the statistics of the default graph
+	private static final String DEFAULT_GRAPH = "";
+
+	//RDF syntaxes to accept for graphs, cheapest to parse first
+	private static final String RDF_ACCEPT = "application/n-triples, text/turtle;q=0.9, application/rdf+xml;q=0.8";
+
 	//this is needed to generate the PREFIX statements at the beginning of a SPARQL statement for convenience
 	private SemanticFactory semFac;
 
@@ -71,8 +139,62 @@ public class HttpStoreWrapper extends AStoreWrapper {
 
 	//a HTTP SPARQL endpoint might have different endpoints to execute different actions.
 	private String sparqlSelectEndpoint;
+	//all replicas queries are distributed over; the first one is the sparqlSelectEndpoint
+	private final List<String> selectEndpoints = new ArrayList<>();
 	private String sparqlUpdateEndpoint;
 	private String sparqlClearEndpoint;
+	//whether the store has named graphs or only a default graph
+	private boolean namedGraphs;
+	//optional SPARQL 1.1 Graph Store HTTP Protocol endpoint to upload and download whole documents
+	private String dataEndpoint;
+
+	//the connection pool shared by all queries and updates sent by this wrapper
+	private IHttpTransport transport;
+
+	//the format to request query results in; null to negotiate the cheapest format the endpoint supports
+	private ResultFormat resultFormat;
+	//endpoint and fallback content type for every negotiation an endpoint has refused before
+	private final Set<String> refusedNegotiations = ConcurrentHashMap.newKeySet();
+
+	//upper limits for a single request when sending large amounts of triples
+	private int maxBatchTriples = DEFAULT_BATCH_TRIPLES;
+	private int maxBatchBytes = DEFAULT_BATCH_BYTES;
+
+	//how documents are sent to the data endpoint
+	private RDFFormat dataFormat = RDFFormat.NTRIPLES;
+	private boolean gzipData;
+
+	//content encoding (gzip or deflate) for query and update requests of at least the threshold size in bytes;
+	//null if requests are sent uncompressed
+	private volatile String requestCompression;
+	private int requestCompressionThreshold;
+	//whether statements are sent as the request body rather than as a form variable
+	private volatile boolean directBodies;
+	//statements of more characters than this are sent in chunks
+	private int chunkThreshold;
+
+	//cached statistics per graph, invalidated by changes made through this wrapper
+	private final Map<String, GraphStatistics> statistics = new ConcurrentHashMap<>();
+	//whether to look for VoID statistics before counting
+	private boolean useVoid;
+
+	//resilience settings
+	private int maxRetries;
+	private long retryBackoff;
+	private long deadline;
+	private int breakerFailures;
+	private long breakerOpenTime;
+	private boolean failFast;
+	//health of each endpoint (without query string)
+	private final Map<String, EndpointHealth> endpointHealth = new ConcurrentHashMap<>();
+
+	//distributes queries over the replicas
+	private SelectEndpointRouter.Routing routing = SelectEndpointRouter.Routing.ROUND_ROBIN;
+	private SelectEndpointRouter router;
+	//the replica which sees writes first and how long (in ms) to send a thread's queries to it after it has written
+	private String primarySelectEndpoint;
+	private long readYourWrites;
+	private final ThreadLocal<Long> lastWrite = new ThreadLocal<>();
 
 	/**
 	 * Creates a HTTP store wrapper to access a triple store via its SPARQL endpoint.
@@ -90,7 +212,17 @@ public class HttpStoreWrapper extends AStoreWrapper {
 			throw new RuntimeException("Could not create HttpStoreWrapper, please specify the easyjena.sparqlendpoint"
 					+ " property in the properties file.");
 		} else {
-			sparqlSelectEndpoint = props.getProperty("easyjena.sparqlendpoint.select");
+			//several replicas can be given as a comma separated list
+			for (String endpoint : props.getProperty("easyjena.sparqlendpoint.select").split(",")) {
+				if (!endpoint.trim().isEmpty()) {
+					selectEndpoints.add(endpoint.trim());
+				}
+			}
+			if (selectEndpoints.isEmpty()) {
+				throw new RuntimeException("Could not create HttpStoreWrapper, the easyjena.sparqlendpoint.select"
+						+ " property is empty.");
+			}
+			sparqlSelectEndpoint = selectEndpoints.get(0);
 		}
 		//optional, i.e. can be null
 		if (props.containsKey("easyjena.sparqlendpoint.update")) {
@@ -103,6 +235,71 @@ public class HttpStoreWrapper extends AStoreWrapper {
 		} else {
 			sparqlClearEndpoint = sparqlUpdateEndpoint;
 		}
+		namedGraphs = Boolean.parseBoolean(props.getProperty(NAMED_GRAPHS, "true").trim());
+		transport = new PooledHttpTransport(props);
+
+		//result format
+		try {
+			resultFormat = ResultFormat.fromName(props.getProperty(RESULT_FORMAT));
+		} catch (IllegalArgumentException e) {
+			logger.warn("Unknown result format {}, negotiating the format with the endpoint instead",
+					props.getProperty(RESULT_FORMAT));
+		}
+
+		//batch sizes
+		try {
+			maxBatchTriples = Integer.parseInt(props.getProperty(BATCH_TRIPLES, String.valueOf(DEFAULT_BATCH_TRIPLES)));
+			maxBatchBytes = Integer.parseInt(props.getProperty(BATCH_BYTES, String.valueOf(DEFAULT_BATCH_BYTES)));
+		} catch (NumberFormatException e) {
+			logger.warn("Invalid batch size, using defaults of {} triples and {} bytes per request",
+					DEFAULT_BATCH_TRIPLES, DEFAULT_BATCH_BYTES, e);
+			maxBatchTriples = DEFAULT_BATCH_TRIPLES;
+			maxBatchBytes = DEFAULT_BATCH_BYTES;
+		}
+
+		//graph store protocol
+		if (props.getProperty(DATA_ENDPOINT, "").trim().length() > 0) {
+			dataEndpoint = props.getProperty(DATA_ENDPOINT).trim();
+		}
+		if ("turtle".equalsIgnoreCase(props.getProperty(DATA_FORMAT, "").trim())) {
+			//written in blocks so large models can still be streamed
+			dataFormat = RDFFormat.TURTLE_BLOCKS;
+		}
+		gzipData = Boolean.parseBoolean(props.getProperty(DATA_GZIP, "false").trim());
+
+		//compression of queries and updates
+		setRequestCompression(props.getProperty(REQUEST_COMPRESSION));
+		requestCompressionThreshold = getIntProperty(REQUEST_COMPRESSION_THRESHOLD,
+				DEFAULT_REQUEST_COMPRESSION_THRESHOLD);
+		directBodies = "direct".equalsIgnoreCase(props.getProperty(REQUEST_ENCODING, "form").trim());
+		chunkThreshold = getIntProperty(CHUNK_THRESHOLD, DEFAULT_CHUNK_THRESHOLD);
+		useVoid = "void".equalsIgnoreCase(props.getProperty(STATISTICS, "").trim());
+		try {
+			prefixMode = PrefixRewriter.Mode.fromName(props.getProperty(PREFIXES));
+		} catch (IllegalArgumentException e) {
+			logger.warn("Unknown prefix mode {}, only declaring the prefixes which are used",
+					props.getProperty(PREFIXES));
+		}
+
+		//resilience
+		maxRetries = getIntProperty(RETRIES, DEFAULT_RETRIES);
+		retryBackoff = getIntProperty(RETRY_BACKOFF, DEFAULT_RETRY_BACKOFF);
+		deadline = getIntProperty(PooledHttpTransport.DEADLINE, 0);
+		breakerFailures = getIntProperty(BREAKER_FAILURES, DEFAULT_BREAKER_FAILURES);
+		breakerOpenTime = getIntProperty(BREAKER_OPEN_TIME, DEFAULT_BREAKER_OPEN_TIME);
+		failFast = Boolean.parseBoolean(props.getProperty(FAIL_FAST, "false").trim());
+
+		//replicas
+		try {
+			routing = SelectEndpointRouter.Routing.fromName(props.getProperty(SELECT_ROUTING));
+		} catch (IllegalArgumentException e) {
+			logger.warn("Unknown routing {}, using round robin", props.getProperty(SELECT_ROUTING));
+		}
+		router = new SelectEndpointRouter(selectEndpoints, routing, this::getEndpointHealth);
+		primarySelectEndpoint = props.getProperty(SELECT_PRIMARY, "").trim().isEmpty() ? sparqlSelectEndpoint
+				: props.getProperty(SELECT_PRIMARY).trim();
+		readYourWrites = getIntProperty(SELECT_READ_YOUR_WRITES, 0);
+
 		//auth
 		if (props.contains("easyjena.sparqlendpoint.user") || props.containsKey("easyjena.sparqlendpoint.password")) {
 			//TODO: implement
@@ -116,18 +313,15 @@ public class HttpStoreWrapper extends AStoreWrapper {
 		logger.debug("Checking for the existence of graph {} on server {}", graphURI, sparqlSelectEndpoint);
 		//stores are not required to record existence of empty graphs
 		//see http://www.w3.org/TR/sparql11-update/#graphManagement
-		Query query = QueryFactory.create("ASK { GRAPH <" + graphURI + "> {?s ?p ?o} }");
-		QueryEngineHTTP httpQuery = new QueryEngineHTTP(sparqlSelectEndpoint, query);
-
-		//assuming true because the notion of empty graphs is optional, see above
-		boolean result = true;
-		try {
-			//problem in strabon: small ask query is executed as GET but store requires POST
-			result = httpQuery.execAsk();
-		} catch (Exception e) {
-			logger.warn("Could not check for graph existence: {}. Assuming it exists but might be empty.");
+		//problem in strabon: small ask query is executed as GET but store requires POST, so always POST
+		Boolean result = doAsk(sparqlSelectEndpoint, "ASK { GRAPH <" + graphURI + "> {?s ?p ?o} }");
+
+		if (result == null && failFast) {
+			throw new StoreUnavailableException("Could not check for graph existence: " + graphURI);
+		} else if (result == null) {
+			logger.error("Could not check for graph existence: {}", graphURI);
+			return false;
 		}
-
 		return result;
 	}
 
@@ -146,14 +340,21 @@ public class HttpStoreWrapper extends AStoreWrapper {
 		//see http://www.w3.org/TR/sparql11-update/#graphManagement
 		//This means it is the same as deleting a graph for some stores.
 		logger.debug("Clearing graph <{}>", graphURI);
-		update("CLEAR GRAPH <" + graphURI + ">");
-
-		//check if repo is empty and delete all triples if not
-		if (getCount(graphURI) > 0) {
-			logger.warn("Clearing the graph failed, deleting all triples instead");
-			//for stores that don't support named graphs...
-			update("DELETE WHERE {?s ?p ?o}");
-			//...and for those that do
+		//a graph the store doesn't know about is already empty
+		int status = executeUpdate("CLEAR SILENT GRAPH <" + graphURI + ">");
+		invalidateStatistics(graphURI);
+
+		if (status <= 0) {
+			return;
+		}
+		if (!namedGraphs) {
+			if (status >= 400) {
+				//the default graph is all there is, so it stands in for every graph
+				logger.warn("Clearing graph {} failed, deleting all triples in the store instead", graphURI);
+				update("DELETE WHERE {?s ?p ?o}");
+			}
+		} else if (!isGraphEmpty(graphURI)) {
+			logger.warn("Clearing graph {} failed, deleting its triples instead", graphURI);
 			update("DELETE {?s ?p ?o} WHERE {GRAPH <" + graphURI + "> {?s ?p ?o}}");
 		}
 	}
@@ -163,63 +364,115 @@ public class HttpStoreWrapper extends AStoreWrapper {
 		//stores are not required to record existence of empty graphs
 		//see http://www.w3.org/TR/sparql11-update/#graphManagement
 		logger.debug("Deleting graph <{}>", graphURI);
-		update("DROP GRAPH <" + graphURI + ">");
+		int status = executeUpdate("DROP GRAPH <" + graphURI + ">");
+		invalidateStatistics(graphURI);
 
-		if (getCount(graphURI) > 0) {
+		if (status >= 400 || (status > 0 && !isGraphEmpty(graphURI))) {
 			logger.warn("Deleting graph {} failed, clearing graph instead", graphURI);
 			clearGraph(graphURI);
 		}
 	}
 
+	/**
+	 * Get the number of triples in a graph. The number is cached until the graph is changed through this wrapper.
+	 *
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 * @return the number of triples or 0 if it could not be determined
+	 * @see #getStatistics(String)
+	 */
 	@Override
 	public int getCount(String graphURI) {
+		GraphStatistics stats = getStatistics(graphURI);
+		return stats != null ? (int) Long.min(Integer.MAX_VALUE, stats.getTriples()) : 0;
+	}
 
-		//Different store implementations might support one way or another of determining the amount of triples
-		//These two variables collect all information with only the reasonable result being used eventually
-		List<Map<String, String>> result1;
-		List<Map<String, String>> result2 = null;
+	/**
+	 * Get statistics about a graph. If easyjena.sparqlendpoint.statistics is set to void, statistics published by
+	 * the store using the VoID and service description vocabularies are used if there are any. Otherwise the
+	 * triples are counted with a single query. The statistics are cached until the graph is changed through this
+	 * wrapper.
+	 *
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 * @return the statistics or null if the store couldn't answer
+	 */
+	public GraphStatistics getStatistics(String graphURI) {
 
-		//for stores that don't support named graphs...
-		result1 = querySelect("SELECT (COUNT(*) as ?count) WHERE {?s ?p ?o}");
-		if (graphURI != null) {
-			//...and for those that do
-			result2 = querySelect("SELECT (COUNT(*) as ?count) WHERE {GRAPH <" + graphURI + "> {?s ?p ?o}}");
+		String key = graphURI != null ? graphURI : DEFAULT_GRAPH;
+		GraphStatistics stats = statistics.get(key);
+		if (stats != null) {
+			return stats;
 		}
 
-		//evaluate the results
-		final String count = "count";
-		int count1 = 0;
-		if (result1 != null && !result1.isEmpty() && result1.get(0).containsKey(count)) {
-			String s = result1.get(0).get(count);
-			s = s.substring(1, s.indexOf("^^"));
-			if (!s.isEmpty()) {
-				count1 = Integer.valueOf(s);
+		Long triples = null;
+		if (useVoid && graphURI != null) {
+			triples = selectCount("SELECT ?count WHERE {\n"
+					+ "\t{ ?d <" + SD + "name> <" + graphURI + "> ; <" + SD + "graph> ?g . ?g <" + VOID
+					+ "triples> ?count }\n"
+					+ "\tUNION { GRAPH ?vg { ?d <" + SD + "name> <" + graphURI + "> ; <" + SD + "graph> ?g . ?g <"
+					+ VOID + "triples> ?count } }\n"
+					+ "\tUNION { <" + graphURI + "> <" + VOID + "triples> ?count }\n"
+					+ "} LIMIT 1");
+			if (triples != null) {
+				stats = new GraphStatistics(graphURI, triples, true);
 			}
 		}
-		int count2 = 0;
-		if (result2 != null && !result2.isEmpty() && result2.get(0).containsKey(count)) {
-			String s = result2.get(0).get(count);
-			s = s.substring(1, s.indexOf("^^"));
-			if (!s.isEmpty()) {
-				count2 = Integer.valueOf(s);
+		if (stats == null) {
+			if (graphURI != null) {
+				triples = selectCount("SELECT (COUNT(*) AS ?count) WHERE { GRAPH <" + graphURI + "> { ?s ?p ?o } }");
+			}
+			if (triples == null) {
+				//the default graph, or a store that doesn't support named graphs
+				triples = selectCount("SELECT (COUNT(*) AS ?count) WHERE { ?s ?p ?o }");
 			}
+			if (triples != null) {
+				stats = new GraphStatistics(graphURI, triples, false);
+			}
+		}
+
+		if (stats != null) {
+			statistics.put(key, stats);
 		}
+		return stats;
+	}
+
+	/**
+	 * Get the number of triples for every named graph in the store using a single query.
+	 * The statistics of all graphs are cached.
+	 *
+	 * @return the statistics for each graph, by URI
+	 */
+	public Map<String, GraphStatistics> getGraphStatistics() {
 
-		//use the bigger number since it might be possible that one of the queries wrongly returns 0
-		return Integer.max(count1, count2);
+		Map<String, GraphStatistics> result = new HashMap<>();
+		querySelect("SELECT ?g (COUNT(*) AS ?count) WHERE { GRAPH ?g { ?s ?p ?o } } GROUP BY ?g", solution -> {
+			if (solution.contains("g") && solution.get("g").isURIResource() && solution.contains("count")) {
+				String graph = solution.getResource("g").getURI();
+				result.put(graph, new GraphStatistics(graph, solution.getLiteral("count").getLong(), false));
+			}
+			return true;
+		});
+		statistics.putAll(result);
+		return result;
 	}
 
 	// General actions ////////////////////////////////////////////////////////////////////////////
 	@Override
 	public void connect() {
-		//not needed; this method is only overridden here because other store connectors require this
+		//connections are opened on demand; this only recreates the pool after a disconnect
 		logger.debug("Explicitly connecting to a store is unnecessary when using a SPARQL endpoint");
+		getTransport();
 	}
 
 	@Override
 	public void disconnect() {
-		//not needed; this method is only overridden here because other store connectors require this
-		logger.debug("Explicitly dicconnecting from a store is unnecessary when using a SPARQL endpoint");
+		//close all pooled connections. A new pool will be created if the wrapper is used again.
+		logger.debug("Closing all connections to SPARQL endpoint {}", sparqlSelectEndpoint);
+		synchronized (this) {
+			if (transport != null) {
+				transport.shutdown();
+				transport = null;
+			}
+		}
 	}
 
 	@Override
@@ -232,57 +485,63 @@ public class HttpStoreWrapper extends AStoreWrapper {
 	public List<Map<String, String>> querySelect(String sparql) {
 
 		List<Map<String, String>> results = new LinkedList<>();
-		ResultSet rs = null;
-		try {
-			//set the POST parameters:
-			Map<String, String> params = new HashMap<>();
-			//only accept SPARQL results
-			params.put("Accept", "application/sparql-results+xml");
-			params.put("Content-Type", "application/sparql-query");
-			String response = doPOST(sparqlSelectEndpoint, selectPostVar + "="
-					+ URLEncoder.encode(sparql, "UTF-8"), params);
-
-			if (response != null) {
-				logger.debug("RESPONSE: {}", response);
-				//deserialise XML
-				rs = ResultSetFactory.fromXML(response);
-			}
-		} catch (ResultSetException e) {
-			//Empty result retrieved from endpoint: create empty result set from new empty model
-			rs = ResultSetFactory.makeResults(JenaUtil.createDefaultModel());
-			logger.debug("Exception encountered during HTTP SPARQL query", e);
-		} catch (Exception e) {
-			logger.error("Could not HTTP encode SPARQL query", sparqlSelectEndpoint, e);
-			//not throwing here; failes query will be logged and return an empty result set
-		}
-
-		//prepare hashmap
-		if (rs != null) {
-			while (rs.hasNext()) {
-				//for each solution create a hashmap
-				QuerySolution row = rs.next();
-				Map<String, String> r = new HashMap<>();
-				//add all the variables found in the solution
-				for (String var : rs.getResultVars()) {
-					r.put(var, row.get(var).toString());
-				}
-				results.add(r);
-			}
-		}
-
+		querySelect(sparql, row -> {
+			//for each solution create a hashmap containing all the variables bound in the solution
+			Map<String, String> r = new HashMap<>();
+			row.varNames().forEachRemaining(var -> r.put(var, row.get(var).toString()));
+			results.add(r);
+			return true;
+		});
 		return results;
 	}
 
+	@Override
+	public boolean querySelect(String sparql, ISelectResultHandler handler) {
+
+		long start = System.nanoTime();
+		//only accept SPARQL results, preferably in a cheaper format than XML unless a format has been set
+		String accept = resultFormat != null ? resultFormat.getContentType() : ResultFormat.getAcceptHeader(false);
+		Long rows = doQuery(sparqlSelectEndpoint, sparql, accept, ResultFormat.XML.getContentType(),
+				response -> {
+					long count = 0;
+					//the endpoint may ignore the Accept header, so always go by what it actually sent
+					ResultFormat format = ResultFormat.fromContentType(response.getHeader("Content-Type"));
+					if (format == null) {
+						format = ResultFormat.XML;
+					}
+					try {
+						//deserialise the results while they are being received
+						ResultSet rs = format.parse(response.getContent());
+						while (rs.hasNext()) {
+							count++;
+							if (!handler.handleSolution(rs.next())) {
+								logger.debug("Result handler stopped after {} solutions", count);
+								break;
+							}
+						}
+					} catch (ResultSetException e) {
+						//Empty result retrieved from endpoint
+						logger.debug("Exception encountered during HTTP SPARQL query", e);
+					}
+					return count;
+				});
+		//not throwing here; a failed query will be logged and return an empty result set
+		logger.debug("{} solutions received", rows);
+		recordOperation(IStoreMetrics.SELECT, start, rows != null, sparql);
+		if (rows != null) {
+			metrics.recordRows(IStoreMetrics.SELECT, rows);
+		}
+		return rows != null;
+	}
+
 	@Override
 	public Model queryConstruct(String sparql) {
 
 		Query query = QueryFactory.create(sparql);
-		QueryEngineHTTP httpQuery = new QueryEngineHTTP(sparqlUpdateEndpoint, query);
 
 		Model result = null;
-		if (query.getQueryType() == 222) {
-			logger.debug("Executing CONSTRUCT query");
-			result = httpQuery.execConstruct();
+		if (query.isConstructType()) {
+			result = construct(sparql);
 		} else {
 			logger.debug("Invalid CONSTRUCT query:\n{}", sparql);
 		}
@@ -290,18 +549,26 @@ public class HttpStoreWrapper extends AStoreWrapper {
 		return result;
 	}
 
+	/**
+	 * Runs a prepared CONSTRUCT query. The query has already been parsed, so it is sent straight to the endpoint.
+	 *
+	 * @param statement the query with its values
+	 * @return the constructed triples or null if the query failed
+	 */
+	@Override
+	public Model queryConstruct(PreparedStatement statement) {
+		return checkType(statement, SparqlTemplate.Type.CONSTRUCT) ? construct(statement.getSparql()) : null;
+	}
+
 	@Override
 	public Model queryDescribe(String sparql) {
 
 		Model m = null;
 
 		Query query = QueryFactory.create(sparql);
-		//execute DESCRIBE query on read-only endpoint
-		QueryEngineHTTP httpQuery = new QueryEngineHTTP(sparqlSelectEndpoint, query);
 
-		if (query.getQueryType() == 222) {
-			logger.debug("Executing DESCRIBE query");
-			m = httpQuery.execConstruct();
+		if (query.isDescribeType()) {
+			m = describe(sparql);
 		} else {
 			logger.error("Invalid DESCRIBE query:\n{}", sparql);
 			//don't throw here; only return empty result set and log error
@@ -309,18 +576,26 @@ public class HttpStoreWrapper extends AStoreWrapper {
 		return m;
 	}
 
+	/**
+	 * Runs a prepared DESCRIBE query. The query has already been parsed, so it is sent straight to the endpoint.
+	 *
+	 * @param statement the query with its values
+	 * @return the results of the query or null if it failed
+	 */
+	@Override
+	public Model queryDescribe(PreparedStatement statement) {
+		return checkType(statement, SparqlTemplate.Type.DESCRIBE) ? describe(statement.getSparql()) : null;
+	}
+
 	@Override
 	public boolean queryAsk(String sparql) {
 
 		boolean result = false;
 
 		Query query = QueryFactory.create(sparql);
-		//execute ASK query on read-only endpoint
-		QueryEngineHTTP httpQuery = new QueryEngineHTTP(sparqlSelectEndpoint, query);
 
-		if (query.getQueryType() == 444) {
-			logger.debug("Executing ASK query");
-			result = httpQuery.execAsk();
+		if (query.isAskType()) {
+			result = ask(sparql);
 		} else {
 			logger.error("Invalid ASK query:\n{}", sparql);
 			//don't throw here; return "false" log error
@@ -328,258 +603,1626 @@ public class HttpStoreWrapper extends AStoreWrapper {
 		return result;
 	}
 
+	/**
+	 * Runs a prepared ASK query. The query has already been parsed, so it is sent straight to the endpoint.
+	 *
+	 * @param statement the query with its values
+	 * @return the results of the query; false if it failed
+	 */
+	@Override
+	public boolean queryAsk(PreparedStatement statement) {
+		return checkType(statement, SparqlTemplate.Type.ASK) && ask(statement.getSparql());
+	}
+
 	@Override
 	public void update(String sparql) {
 		//logger.info("Updating endpoint {} with query {}", sparqlUpdateEndpoint, sparql);
-		try {
-			Map<String, String> params = new HashMap<>();
-			//accept server response only as rdf/xml. More options might be implemented in the future
-			params.put("Accept", "application/rdf+xml");
-			params.put("Content-Type", "application/sparql-query");
-			doPOST(sparqlUpdateEndpoint, updatePostvar + "=" + URLEncoder.encode(sparql, "UTF-8"), params);
-		} catch (UnsupportedEncodingException e) {
-			//don't throw here, only notify user
-			logger.error("Could not HTTP encode SPARQL update {} for execution on endpoint {}",
-					sparql, sparqlUpdateEndpoint, e);
-		}
+		long start = System.nanoTime();
+		int status = executeUpdate(sparql);
+		recordOperation(IStoreMetrics.UPDATE, start, status >= 200 && status < 400, sparql);
+		//the update might have changed any graph
+		statistics.clear();
 	}
 
 	// Actions that might be executed on a particular graph ///////////////////////////////////////
+	/**
+	 * Imports a document into the store. If a data endpoint is configured, the document is streamed to it using the
+	 * SPARQL 1.1 Graph Store HTTP Protocol, otherwise it is parsed and sent as a series of SPARQL updates.
+	 *
+	 * @param ontologypath where to find the ontology document. This can be a URL or a path on disk.
+	 * @param baseURI the baseURI of the ontology - none if it is null
+	 * @param graphURI which graph to save it into - default graph is this is null
+	 * @param format the format the document is in; guessed from the file extension if this is null
+	 */
 	@Override
 	public void importDocumentToGraph(String ontologypath, String baseURI, String graphURI, RDFFormat format) {
-		//TODO: implement
-		throw new java.lang.UnsupportedOperationException("Not supported yet.");
+
+		logger.debug("Importing document {} into graph <{}>", ontologypath, graphURI);
+		Lang lang = format != null ? format.getLang() : RDFLanguages.filenameToLang(ontologypath, Lang.RDFXML);
+
+		//without a data endpoint, the document is parsed and sent as SPARQL updates
+		if (dataEndpoint == null) {
+			try {
+				Model m = JenaUtil.createDefaultModel();
+				RDFDataMgr.read(m, ontologypath, baseURI, lang);
+				storeModel(m, graphURI);
+			} catch (RuntimeException e) {
+				logger.error("Could not import document {} into graph <{}>", ontologypath, graphURI, e);
+			}
+			return;
+		}
+
+		long start = System.nanoTime();
+		boolean success;
+		File file = new File(ontologypath);
+		if (baseURI == null && file.isFile()
+				&& (RDFLanguages.sameLang(lang, Lang.NTRIPLES) || RDFLanguages.sameLang(lang, Lang.TURTLE))) {
+			//the store understands the document as it is
+			success = sendData("POST", graphURI, lang, out -> Files.copy(file.toPath(), out));
+		} else {
+			//translate to N-Triples while sending so relative URIs are resolved against the given base URI
+			success = sendData("POST", graphURI, Lang.NTRIPLES, out -> {
+				StreamRDF sink = StreamRDFLib.writer(out);
+				RDFDataMgr.parse(sink, ontologypath, baseURI, lang);
+				//make sure everything has been written even if the parser didn't finish the stream
+				sink.finish();
+			});
+		}
+		recordOperation(IStoreMetrics.IMPORT, start, success, null);
 	}
 
+	/**
+	 * Get the contents of a graph. If a data endpoint is configured, the graph is downloaded as a document using
+	 * the SPARQL 1.1 Graph Store HTTP Protocol, otherwise it is retrieved using a CONSTRUCT query.
+	 *
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 * @return the graph in Turtle or N-Triples or null if it could not be retrieved
+	 */
 	@Override
 	public String getRDF(String graphURI) {
-		//TODO: implement
-		throw new java.lang.UnsupportedOperationException("Not supported yet.");
-	}
 
-	@Override
-	public void storeTriple(Triple t, String graphURI) {
-		logger.debug("Storing triple {}", t.toString());
-		String obj;
-		//for all data properties...
-		if (t.getType().equals(TripleType.DATA_PROPERTY)) {
-			//attach quotes in case they don't exist and remove newlines
-			if (!t.getObject().startsWith("\"")) {
-				obj = "\"" + t.getObject().replaceAll("\"", "'").replaceAll("\n", " ") + "\"";
-			} else {
-				obj = t.getObject().replaceAll("\"", "'").replaceAll("\n", " ");
+		if (dataEndpoint != null) {
+			Map<String, String> headers = new HashMap<>();
+			headers.put("Accept", "text/turtle, application/n-triples;q=0.9");
+			try {
+				return doRequest("GET", getGraphLocation(graphURI), headers, null,
+						response -> readString(response.getContent()), true);
+			} catch (HttpStatusException e) {
+				logger.error("Could not get graph <{}> from data endpoint {}: HTTP status {}", graphURI,
+						dataEndpoint, e.getStatus());
+				return null;
 			}
-		} else {
-			//TODO: annotation props
-			obj = "<" + t.getObject() + ">";
 		}
 
-		//build SPARQL insert with or without graph
-		String sparql = sparqlPrefixes + "\nINSERT DATA {\n";
-		if (graphURI != null) {
-			sparql += "\tGRAPH <" + graphURI + "> {\n";
+		Model m = queryConstruct(graphURI != null
+				? "CONSTRUCT { ?s ?p ?o } WHERE { GRAPH <" + graphURI + "> { ?s ?p ?o } }"
+				: "CONSTRUCT { ?s ?p ?o } WHERE { ?s ?p ?o }");
+		if (m == null) {
+			return null;
 		}
-		sparql += "\t<" + t.getSubject() + "> <" + t.getPredicate() + "> " + obj + "\n";
-		if (graphURI != null) {
-			sparql += "\t}\n";
+		StringWriter writer = new StringWriter();
+		RDFDataMgr.write(writer, m, Lang.TURTLE);
+		return writer.toString();
+	}
+
+	/**
+	 * Export a graph into a Jena graph. If a data endpoint is configured, whole graphs are downloaded using the
+	 * SPARQL 1.1 Graph Store HTTP Protocol, otherwise (and for filtered exports) a CONSTRUCT query is used.
+	 * Triples are requested as N-Triples if the store supports it. RDF Thrift would be cheaper still but is not
+	 * available in the Jena version used.
+	 *
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 * @param filter additional SPARQL graph pattern restricting ?s ?p ?o; the whole graph if this is null
+	 * @param sink the graph to add the triples to
+	 * @return whether the export succeeded
+	 */
+	@Override
+	public boolean exportGraph(String graphURI, String filter, Graph sink) {
+
+		long start = System.nanoTime();
+		boolean success;
+		if (dataEndpoint != null && graphURI != null && filter == null) {
+			Map<String, String> headers = new HashMap<>();
+			headers.put("Accept", RDF_ACCEPT);
+			try {
+				Boolean result = doRequest("GET", getGraphLocation(graphURI), headers, null,
+						response -> readRDF(response, sink), true);
+				success = result != null && result;
+			} catch (HttpStatusException e) {
+				logger.error("Could not get graph <{}> from data endpoint {}: HTTP status {}", graphURI,
+						dataEndpoint, e.getStatus());
+				success = false;
+			}
+		} else {
+			String pattern = "?s ?p ?o ." + (filter != null ? "\n\t" + filter : "");
+			success = doGraphQuery(sparqlSelectEndpoint, "CONSTRUCT { ?s ?p ?o } WHERE {\n\t"
+					+ (graphURI != null ? "GRAPH <" + graphURI + "> {\n\t" + pattern + "\n\t}" : pattern) + "\n}",
+					sink);
 		}
-		sparql += "}\n";
+		logger.debug("Exported graph <{}> in {}ms", graphURI, (System.nanoTime() - start) / 1000000);
+		recordOperation(IStoreMetrics.EXPORT, start, success, filter);
+		return success;
+	}
 
-		//execute
-		update(sparql);
+	@Override
+	public void storeTriple(Triple t, String graphURI) {
+		logger.debug("Storing triple {}", t.toString());
+		storeTriples(Collections.singleton(t), graphURI);
 	}
 
 	@Override
 	public void removeTriple(Triple t, String graphURI) {
-		//TODO: implement
-		throw new java.lang.UnsupportedOperationException("Not supported yet.");
+		logger.debug("Removing triple {}", t.toString());
+		removeTriples(Collections.singleton(t), graphURI);
 	}
 
+	/**
+	 * Stores the triples using as few INSERT DATA requests as possible. Large sets are split into batches, each
+	 * of which is a separate transaction on the store.
+	 *
+	 * @param triples the triples to store
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 */
 	@Override
 	public void storeTriples(Set<Triple> triples, String graphURI) {
-		//TODO: implement
-		throw new java.lang.UnsupportedOperationException("Not supported yet.");
+		long start = System.nanoTime();
+		BatchReport report = sendInBatches("INSERT DATA", graphURI, true, triples.iterator(),
+				SparqlSerialiser::appendTriple);
+		recordOperation(IStoreMetrics.STORE, start, report.isSuccessful(), null);
+		if (!report.isSuccessful()) {
+			logger.error("Storing triples in graph <{}> failed for {} of {} batches", graphURI,
+					report.getFailedBatches(), report.getBatches());
+		}
 	}
 
+	/**
+	 * Removes the triples using as few DELETE DATA requests as possible. Large sets are split into batches, each
+	 * of which is a separate transaction on the store.
+	 *
+	 * @param triples the triples to remove
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 */
 	@Override
 	public void removeTriples(Set<Triple> triples, String graphURI) {
-		//TODO: implement
-		throw new java.lang.UnsupportedOperationException("Not supported yet.");
+		long start = System.nanoTime();
+		BatchReport report = sendInBatches("DELETE DATA", graphURI, true, triples.iterator(),
+				SparqlSerialiser::appendTriple);
+		recordOperation(IStoreMetrics.REMOVE, start, report.isSuccessful(), null);
+		if (!report.isSuccessful()) {
+			logger.error("Removing triples from graph <{}> failed for {} of {} batches", graphURI,
+					report.getFailedBatches(), report.getBatches());
+		}
 	}
 
+	/**
+	 * Stores a model in the store. If a data endpoint is configured, the model is streamed to it in one request
+	 * using the SPARQL 1.1 Graph Store HTTP Protocol, otherwise it is sent as a series of SPARQL updates.
+	 *
+	 * @param m the model to store
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 */
 	@Override
 	public void storeModel(Model m, String graphURI) {
 
+		long start = System.nanoTime();
+		if (dataEndpoint != null) {
+			boolean success = sendData("POST", graphURI, dataFormat.getLang(),
+					out -> RDFDataMgr.write(out, m, dataFormat));
+			recordOperation(IStoreMetrics.STORE, start, success, null);
+			if (success) {
+				logger.debug("Stored {} triples in graph <{}> in {}ms", m.size(), graphURI,
+						(System.nanoTime() - start) / 1000000);
+			}
+			return;
+		}
 
+		BatchReport report = storeModelInBatches(m, graphURI);
+		recordOperation(IStoreMetrics.STORE, start, report.isSuccessful(), null);
+		if (!report.isSuccessful()) {
+			logger.error("Storing model in graph <{}> failed for {} of {} batches", graphURI,
+					report.getFailedBatches(), report.getBatches());
+		}
+	}
 
-		//get all triples from the given model
-		StmtIterator it = m.listStatements();
-		StringBuilder sparql = new StringBuilder("INSERT DATA {\n");
-		if (graphURI != null) {
-			sparql.append(String.join("\tGRAPH <", graphURI, "> {\n"));
-		}
-
-		//build giant insert query
-		//TODO: split from certain size onwards?
-		while (it.hasNext()) {
-			Statement stmt = it.next();
-			String obj;
-			String sparqlObj;
-			TripleType type;
-			//TODO: annotation properties?!
-			//wrap URIs in angle brackets
-			if (stmt.getObject().isURIResource()) {
-				obj = stmt.getObject().toString();
-				sparqlObj = "<" + obj + ">";
-				type = TripleType.OBJECT_PROPERTY;
-			} else if (stmt.getObject().isLiteral()) {
-				obj = stmt.getObject().asLiteral().getString();
-				String xsdtype = stmt.getObject().asLiteral().getDatatypeURI();
-				//remove quotes if they exist
-				if (obj.startsWith("\"") && obj.endsWith("\"")) {
-					sparqlObj = obj.substring(1, obj.length() - 1);
-				} else {
-					sparqlObj = obj;
-				}
-				//add triple quotes and datatype if applicable
-				final String tripleQuotes = "\"\"\"";
-				if (xsdtype != null) {
-					sparqlObj = tripleQuotes + sparqlObj + tripleQuotes + "^^" + semFac.toShortURI(xsdtype);
-				} else {
-					sparqlObj = tripleQuotes + sparqlObj + tripleQuotes;
+	/**
+	 * Stores a model in the store using as many INSERT DATA requests as necessary to keep each request within the
+	 * limits set by the easyjena.sparqlendpoint.batch.* properties.
+	 *
+	 * A blank node label only identifies the same node within one request, so all triples connected through blank
+	 * nodes (e.g. an OWL restriction or an RDF list) are always sent in the same batch, even if that makes the batch
+	 * larger than the limits. Models with large structures of connected blank nodes should be stored through a data
+	 * endpoint instead.
+	 *
+	 * @param m the model to store
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 * @return the number of batches and triples sent
+	 */
+	public BatchReport storeModelInBatches(Model m, String graphURI) {
+
+		long start = System.currentTimeMillis();
+		BatchUpload<com.hp.hpl.jena.graph.Triple> upload = new BatchUpload<>("INSERT DATA", graphURI, false,
+				SparqlSerialiser::appendTriple);
+		BlankNodeGroups groups = new BlankNodeGroups();
+		ExtendedIterator<com.hp.hpl.jena.graph.Triple> it = m.getGraph().find(Node.ANY, Node.ANY, Node.ANY);
+		try {
+			while (it.hasNext()) {
+				com.hp.hpl.jena.graph.Triple t = it.next();
+				//triples without blank nodes can be sent straight away
+				if (!groups.add(t)) {
+					upload.add(t);
 				}
-				type = TripleType.DATA_PROPERTY;
-			} else if (stmt.getObject().isAnon()) {
-				obj = stmt.getObject().toString();
-				sparqlObj = obj;
-				type = TripleType.OBJECT_PROPERTY;
-			} else {
-				obj = stmt.getObject().toString();
-				sparqlObj = obj;
-				type = TripleType.UNKNOWN;
 			}
-			//build triple
-			Triple t = new Triple(stmt.getSubject().getURI(), stmt.getPredicate().getURI(), obj, type);
-			sparql.append(String.join("\t\t<", t.getSubject(), "> <", t.getPredicate(), "> ", sparqlObj, " .\n"));
+		} finally {
+			it.close();
 		}
-		if (graphURI != null) {
-			sparql.append("\t}\n");
+		for (List<com.hp.hpl.jena.graph.Triple> group : groups.getGroups()) {
+			upload.addGroup(group);
 		}
-		sparql.append("}");
-
-		//execute
-		update(sparql.toString());
+		BatchReport report = upload.finish();
+		logger.debug("Stored {} in graph <{}> in {}ms", report, graphURI, System.currentTimeMillis() - start);
+		return report;
 	}
 
+	/**
+	 * Removes all triples of the model from the store using as few DELETE DATA requests as possible.
+	 * DELETE DATA can't match blank nodes, so triples containing blank nodes are skipped.
+	 *
+	 * @param m the model containing the triples to remove
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 */
 	@Override
 	public void removeModel(Model m, String graphURI) {
-		//TODO: implement
-		throw new java.lang.UnsupportedOperationException("Not supported yet.");
+
+		long start = System.nanoTime();
+		BatchUpload<com.hp.hpl.jena.graph.Triple> upload = new BatchUpload<>("DELETE DATA", graphURI, false,
+				SparqlSerialiser::appendTriple);
+		long skipped = 0;
+		ExtendedIterator<com.hp.hpl.jena.graph.Triple> it = m.getGraph().find(Node.ANY, Node.ANY, Node.ANY);
+		try {
+			while (it.hasNext()) {
+				com.hp.hpl.jena.graph.Triple t = it.next();
+				if (t.getSubject().isBlank() || t.getObject().isBlank()) {
+					skipped++;
+				} else {
+					upload.add(t);
+				}
+			}
+		} finally {
+			it.close();
+		}
+		BatchReport report = upload.finish();
+		recordOperation(IStoreMetrics.REMOVE, start, report.isSuccessful(), null);
+
+		if (skipped > 0) {
+			logger.warn("Skipped {} triples containing blank nodes when removing model from graph <{}>", skipped,
+					graphURI);
+		}
+		if (!report.isSuccessful()) {
+			logger.error("Removing model from graph <{}> failed for {} of {} batches", graphURI,
+					report.getFailedBatches(), report.getBatches());
+		}
+	}
+
+	/**
+	 * Replaces the contents of a graph with the given model. If a data endpoint is configured, this is a single
+	 * Graph Store HTTP Protocol PUT request, otherwise the graph is cleared before the model is stored.
+	 *
+	 * @param m the new contents of the graph
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 */
+	public void replaceGraph(Model m, String graphURI) {
+
+		if (dataEndpoint != null) {
+			sendData("PUT", graphURI, dataFormat.getLang(), out -> RDFDataMgr.write(out, m, dataFormat));
+		} else {
+			if (graphURI != null) {
+				clearGraph(graphURI);
+			} else {
+				update("CLEAR DEFAULT");
+			}
+			storeModel(m, graphURI);
+		}
 	}
 
+	/**
+	 * Stores serialised RDF in the store. The syntax is guessed from the beginning of the string: RDF/XML, JSON-LD
+	 * or Turtle, which includes N-Triples.
+	 *
+	 * @param rdf the rdf to store
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 */
 	@Override
 	public void storeRDF(String rdf, String graphURI) {
-		//TODO: implement
-		throw new java.lang.UnsupportedOperationException("Not supported yet.");
+
+		Lang lang = guessLang(rdf);
+		if (dataEndpoint != null) {
+			byte[] bytes = rdf.getBytes(StandardCharsets.UTF_8);
+			sendData("POST", graphURI, lang, out -> out.write(bytes));
+		} else {
+			Model m = parseRDF(rdf, lang);
+			if (m != null) {
+				storeModel(m, graphURI);
+			}
+		}
 	}
 
+	/**
+	 * Removes serialised RDF from the store. The syntax is guessed as for storeRDF.
+	 *
+	 * @param rdf the RDF to remove
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 */
 	@Override
 	public void removeRDF(String rdf, String graphURI) {
-		//TODO: implement
-		throw new java.lang.UnsupportedOperationException("Not supported yet.");
+
+		Model m = parseRDF(rdf, guessLang(rdf));
+		if (m != null) {
+			removeModel(m, graphURI);
+		}
 	}
 
 	// Private Methods ////////////////////////////////////////////////////////////////////////////
 	/**
-	 * Execute a HTTP POST request on the store
+	 * Sends a SPARQL data operation (INSERT DATA or DELETE DATA) for a large number of triples as a series of
+	 * requests.
 	 *
-	 * @param endpoint the SPARQL HTTP endpoint
-	 * @param payload the actual payload of the query
-	 * @param parameters the HTTP parameters
-	 * @return the result retrieved back from the endpoint
+	 * @param operation the data operation
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 * @param prefixes whether the data needs the store's PREFIX declarations
+	 * @param items the items to write into the data block
+	 * @param writer writes a single item into the buffer
+	 * @return the number of batches and triples sent
 	 */
-	private String doPOST(String endpoint, String payload, Map<String, String> parameters) {
+	private <T> BatchReport sendInBatches(String operation, String graphURI, boolean prefixes, Iterator<T> items,
+			BiConsumer<StringBuilder, T> writer) {
+
+		BatchUpload<T> upload = new BatchUpload<>(operation, graphURI, prefixes, writer);
+		while (items.hasNext()) {
+			upload.add(items.next());
+		}
+		return upload.finish();
+	}
 
-		String r = null;
+	/**
+	 * Sends a document to the data endpoint using the SPARQL 1.1 Graph Store HTTP Protocol. The document is written
+	 * straight into the request body while it is being sent and compressed if configured.
+	 *
+	 * @param method POST to add the data to the graph or PUT to replace the graph
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 * @param lang the syntax of the document
+	 * @param writer writes the document
+	 * @return whether the store accepted the document
+	 */
+	private boolean sendData(String method, String graphURI, Lang lang, BodyWriter writer) {
 
-		try {
-			//open connection to the endpoint
-			URL obj = new URL(endpoint);
-			HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-
-			//set request properties
-			con.setRequestMethod("POST");
-			if (parameters != null) {
-				parameters.entrySet().stream().forEach(param
-						-> con.setRequestProperty(param.getKey(), param.getValue())
-				);
-			}
-
-			// Send post request
-			con.setDoOutput(true);
-			try (DataOutputStream wr = new DataOutputStream(con.getOutputStream())) {
-				wr.writeBytes(payload);
-				wr.flush();
-			}
-
-			//get response
-			int responseCode = con.getResponseCode();
-			logger.debug("Response code for POST query on endpoint {}: {}", endpoint, responseCode);
-			StringBuilder response;
-			try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()))) {
-				response = new StringBuilder();
-				String inputLine;
-				while ((inputLine = in.readLine()) != null) {
-					response.append(inputLine);
+		invalidateStatistics(graphURI);
+		Map<String, String> headers = new HashMap<>();
+		headers.put("Content-Type", lang.getContentType().getContentType());
+		if (gzipData) {
+			headers.put("Content-Encoding", "gzip");
+		}
+		IHttpTransport.RequestBody body = new IHttpTransport.RequestBody() {
+			@Override
+			public void writeTo(OutputStream out) throws IOException {
+				if (gzipData) {
+					GZIPOutputStream gzip = new GZIPOutputStream(out, 65536);
+					writer.write(gzip);
+					gzip.finish();
+				} else {
+					writer.write(out);
 				}
+				out.flush();
+			}
+
+			@Override
+			public long getContentLength() {
+				//the size is not known before the document has been written
+				return -1;
 			}
-			r = response.toString();
+		};
 
-		} catch (Exception e) {
-			logger.error("Could not send HTTP request to URL {}", endpoint, e);
+		try {
+			return doRequest(method, getGraphLocation(graphURI), headers, body, response -> Boolean.TRUE, false)
+					!= null;
+		} catch (HttpStatusException e) {
+			logger.error("Data endpoint {} refused {} of graph <{}>: HTTP status {}", dataEndpoint, method, graphURI,
+					e.getStatus());
+			return false;
+		} finally {
+			lastWrite.set(System.currentTimeMillis());
 		}
-		return r;
 	}
 
-	// Getters/Setters ////////////////////////////////////////////////////////////////////////////
-	public String getSelectPostVar() {
-		return selectPostVar;
-	}
+	/**
+	 * Get the URL of a graph on the data endpoint
+	 *
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 * @return the URL
+	 */
+	private String getGraphLocation(String graphURI) {
 
-	public void setSelectPostVar(String selectPostVar) {
-		this.selectPostVar = selectPostVar;
+		String separator = dataEndpoint.contains("?") ? "&" : "?";
+		if (graphURI == null) {
+			return dataEndpoint + separator + "default";
+		}
+		try {
+			return dataEndpoint + separator + "graph=" + URLEncoder.encode(graphURI, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			//UTF-8 is always supported
+			throw new IllegalStateException(e);
+		}
 	}
 
-	public String getUpdatePostvar() {
-		return updatePostvar;
-	}
+	/**
+	 * Guess the syntax of serialised RDF from its first characters
+	 *
+	 * @param rdf the RDF
+	 * @return RDF/XML, JSON-LD or Turtle
+	 */
+	static Lang guessLang(String rdf) {
 
-	public void setUpdatePostvar(String updatePostvar) {
-		this.updatePostvar = updatePostvar;
+		int i = 0;
+		while (i < rdf.length() && Character.isWhitespace(rdf.charAt(i))) {
+			i++;
+		}
+		if (rdf.startsWith("<?xml", i) || rdf.startsWith("<rdf:RDF", i)) {
+			return Lang.RDFXML;
+		} else if (rdf.startsWith("{", i) || rdf.startsWith("[", i)) {
+			return Lang.JSONLD;
+		}
+		//N-Triples is a subset of Turtle
+		return Lang.TURTLE;
 	}
 
-	public String getSparqlSelectEndpoint() {
-		return sparqlSelectEndpoint;
-	}
+	/**
+	 * Parse serialised RDF into a new model
+	 *
+	 * @param rdf the RDF
+	 * @param lang the syntax
+	 * @return the model or null if the RDF could not be parsed
+	 */
+	private static Model parseRDF(String rdf, Lang lang) {
 
-	public void setSparqlSelectEndpoint(String sparqlSelectEndpoint) {
-		this.sparqlSelectEndpoint = sparqlSelectEndpoint;
+		Model m = JenaUtil.createDefaultModel();
+		try {
+			RDFDataMgr.read(m, new StringReader(rdf), null, lang);
+		} catch (RuntimeException e) {
+			logger.error("Could not parse RDF as {}", lang.getLabel(), e);
+			return null;
+		}
+		return m;
 	}
 
-	public String getSparqlUpdateEndpoint() {
-		return sparqlUpdateEndpoint;
+	/**
+	 * Read a UTF-8 response body into a string
+	 *
+	 * @param in the response body
+	 * @return the body
+	 * @throws IOException if reading fails
+	 */
+	private static String readString(InputStream in) throws IOException {
+
+		StringBuilder sb = new StringBuilder();
+		try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+			char[] buffer = new char[8192];
+			int read;
+			while ((read = reader.read(buffer)) != -1) {
+				sb.append(buffer, 0, read);
+			}
+		}
+		return sb.toString();
 	}
 
-	public void setSparqlUpdateEndpoint(String sparqlUpdateEndpoint) {
-		this.sparqlUpdateEndpoint = sparqlUpdateEndpoint;
+	/**
+	 * Run a query which returns a number in the variable ?count
+	 *
+	 * @param sparql the query
+	 * @return the number or null if the query failed or returned no number
+	 */
+	private Long selectCount(String sparql) {
+
+		Long[] count = {null};
+		querySelect(sparql, solution -> {
+			if (solution.contains("count") && solution.get("count").isLiteral()) {
+				try {
+					count[0] = solution.getLiteral("count").getLong();
+				} catch (RuntimeException e) {
+					logger.debug("Invalid count {}", solution.get("count"), e);
+				}
+			}
+			return false;
+		});
+		return count[0];
 	}
 
-	public String getSparqlClearEndpoint() {
-		return sparqlClearEndpoint;
+	/**
+	 * Check whether a graph contains any triples after it has been cleared or dropped. The primary select endpoint
+	 * is asked rather than any replica, as the replicas may not have received the change yet.
+	 *
+	 * @param graphURI the URI of the graph
+	 * @return false if the graph contains triples; true if it is empty or the store didn't answer
+	 */
+	private boolean isGraphEmpty(String graphURI) {
+		Boolean result = sendQuery(primarySelectEndpoint, "ASK { GRAPH <" + graphURI + "> {?s ?p ?o} }",
+				getAskAccept(), ResultFormat.XML.getContentType(), this::readBoolean);
+		return result == null || !result;
 	}
 
-	public void setSparqlClearEndpoint(String sparqlClearEndpoint) {
-		this.sparqlClearEndpoint = sparqlClearEndpoint;
+	/**
+	 * Forget the statistics of a graph after it has been changed
+	 *
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 */
+	private void invalidateStatistics(String graphURI) {
+		if (graphURI == null) {
+			//stores without named graphs count the default graph for every graph
+			statistics.clear();
+		} else {
+			statistics.remove(graphURI);
+			//the default graph might be the union of all graphs
+			statistics.remove(DEFAULT_GRAPH);
+		}
+	}
+
+	/**
+	 * Run a CONSTRUCT query which is known to be valid
+	 *
+	 * @param sparql the query
+	 * @return the constructed triples or null if the query failed
+	 */
+	private Model construct(String sparql) {
+
+		logger.debug("Executing CONSTRUCT query");
+		//execute CONSTRUCT query on read-only endpoint
+		long start = System.nanoTime();
+		Model result = doGraphQuery(sparqlSelectEndpoint, sparql);
+		recordOperation(IStoreMetrics.CONSTRUCT, start, result != null, sparql);
+		if (result != null) {
+			metrics.recordRows(IStoreMetrics.CONSTRUCT, result.size());
+		}
+		return result;
+	}
+
+	/**
+	 * Run a DESCRIBE query which is known to be valid
+	 *
+	 * @param sparql the query
+	 * @return the results of the query or null if it failed
+	 */
+	private Model describe(String sparql) {
+
+		logger.debug("Executing DESCRIBE query");
+		//execute DESCRIBE query on read-only endpoint
+		long start = System.nanoTime();
+		Model m = doGraphQuery(sparqlSelectEndpoint, sparql);
+		recordOperation(IStoreMetrics.DESCRIBE, start, m != null, sparql);
+		if (m != null) {
+			metrics.recordRows(IStoreMetrics.DESCRIBE, m.size());
+		}
+		return m;
+	}
+
+	/**
+	 * Run an ASK query which is known to be valid
+	 *
+	 * @param sparql the query
+	 * @return the results of the query; false if it failed
+	 */
+	private boolean ask(String sparql) {
+
+		logger.debug("Executing ASK query");
+		//execute ASK query on read-only endpoint
+		long start = System.nanoTime();
+		Boolean answer = doAsk(sparqlSelectEndpoint, sparql);
+		recordOperation(IStoreMetrics.ASK, start, answer != null, sparql);
+		return answer != null && answer;
+	}
+
+	/**
+	 * Runs an update on the update endpoint
+	 *
+	 * @param sparql the update to run; it is encoded while being sent and must not change until this returns
+	 * @return the HTTP status code of the response or -1 if the request could not be sent
+	 */
+	private int executeUpdate(CharSequence sparql) {
+
+		try {
+			Map<String, String> params = new HashMap<>();
+			//accept server response only as rdf/xml. More options might be implemented in the future
+			params.put("Accept", "application/rdf+xml");
+			Integer status = doPOST(sparqlUpdateEndpoint, sparql, true, params, IHttpTransport.Response::getStatusCode,
+					false);
+			lastWrite.set(System.currentTimeMillis());
+			return status != null ? status : -1;
+		} catch (HttpStatusException e) {
+			logger.error("HTTP request to URL {} failed with response code {}", sparqlUpdateEndpoint, e.getStatus());
+			lastWrite.set(System.currentTimeMillis());
+			return e.getStatus();
+		}
+	}
+
+	/**
+	 * Get a numeric property
+	 *
+	 * @param key the name of the property
+	 * @param defaultValue the value to use if the property is not set or invalid
+	 * @return the value
+	 */
+	private int getIntProperty(String key, int defaultValue) {
+
+		String value = props.getProperty(key);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			logger.warn("Invalid value {} for property {}, using {}", value, key, defaultValue);
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Get the transport used to talk to the endpoints, creating a new pool if it has been shut down
+	 *
+	 * @return the transport
+	 */
+	private synchronized IHttpTransport getTransport() {
+		if (transport == null) {
+			transport = new PooledHttpTransport(props);
+		}
+		return transport;
+	}
+
+	/**
+	 * Execute a SPARQL ASK query on the given endpoint
+	 *
+	 * @param endpoint the SPARQL HTTP endpoint
+	 * @param sparql the ASK query
+	 * @return the answer or null if the query failed
+	 */
+	private Boolean doAsk(String endpoint, String sparql) {
+		return doQuery(endpoint, sparql, getAskAccept(), ResultFormat.XML.getContentType(), this::readBoolean);
+	}
+
+	/**
+	 * Get the Accept header for ASK queries
+	 *
+	 * @return the configured result format if it supports ASK results, otherwise all formats which do
+	 */
+	private String getAskAccept() {
+		return resultFormat != null && resultFormat.isBooleanSupported() ? resultFormat.getContentType()
+				: ResultFormat.getAcceptHeader(true);
+	}
+
+	/**
+	 * Read the result of an ASK query in whatever format the endpoint sent it
+	 *
+	 * @param response the response
+	 * @return the answer
+	 * @throws IOException if reading the response fails
+	 */
+	private Boolean readBoolean(IHttpTransport.Response response) throws IOException {
+		ResultFormat format = ResultFormat.fromContentType(response.getHeader("Content-Type"));
+		if (format == null || !format.isBooleanSupported()) {
+			format = ResultFormat.XML;
+		}
+		return format.parseBoolean(response.getContent());
+	}
+
+	/**
+	 * Execute a SPARQL query which returns triples (CONSTRUCT or DESCRIBE) on the given endpoint
+	 *
+	 * @param endpoint the SPARQL HTTP endpoint
+	 * @param sparql the query
+	 * @return the resulting model or null if the query failed
+	 */
+	private Model doGraphQuery(String endpoint, String sparql) {
+
+		Model m = JenaUtil.createDefaultModel();
+		return doGraphQuery(endpoint, sparql, m.getGraph()) ? m : null;
+	}
+
+	/**
+	 * Execute a SPARQL query which returns triples (CONSTRUCT or DESCRIBE) on the given endpoint, adding the
+	 * triples to the given graph as they are received
+	 *
+	 * @param endpoint the SPARQL HTTP endpoint
+	 * @param sparql the query
+	 * @param sink the graph to add the triples to
+	 * @return whether the query succeeded
+	 */
+	private boolean doGraphQuery(String endpoint, String sparql, Graph sink) {
+
+		Boolean result = doQuery(endpoint, sparql, RDF_ACCEPT, "application/rdf+xml",
+				response -> readRDF(response, sink));
+		return result != null && result;
+	}
+
+	/**
+	 * Parse RDF from a response body into a graph, using the syntax given by the response's content type
+	 *
+	 * @param response the response
+	 * @param sink the graph to add the triples to
+	 * @return true
+	 * @throws IOException if reading the response fails
+	 */
+	private static Boolean readRDF(IHttpTransport.Response response, Graph sink) throws IOException {
+
+		String contentType = response.getHeader("Content-Type");
+		Lang lang = contentType != null ? RDFLanguages.contentTypeToLang(contentType) : null;
+		if (lang == null && contentType != null && contentType.startsWith("text/plain")) {
+			//the old content type for N-Triples
+			lang = Lang.NTRIPLES;
+		}
+		RDFDataMgr.parse(StreamRDFLib.graph(sink), response.getContent(), lang != null ? lang : Lang.RDFXML);
+		return Boolean.TRUE;
+	}
+
+	/**
+	 * Execute a SPARQL query on the given endpoint. If the endpoint refuses to return any of the accepted formats,
+	 * the query is sent again accepting only the fallback format, which will be used for all further queries.
+	 * Queries for the select endpoint are distributed over all of its replicas.
+	 *
+	 * @param endpoint the SPARQL HTTP endpoint
+	 * @param sparql the query
+	 * @param accept the value of the Accept header
+	 * @param fallbackAccept the Accept header to use if the endpoint refuses the first one
+	 * @param reader reads the response body
+	 * @return the result of the reader or null if the query failed
+	 */
+	private <T> T doQuery(String endpoint, String sparql, String accept, String fallbackAccept,
+			ResponseReader<T> reader) {
+
+		SelectEndpointRouter r = router;
+		if (!endpoint.equals(sparqlSelectEndpoint) || r.getEndpoints().size() < 2) {
+			return sendQuery(endpoint, sparql, accept, fallbackAccept, reader);
+		}
+
+		//read your own writes
+		Long written = lastWrite.get();
+		if (written != null && System.currentTimeMillis() - written < readYourWrites) {
+			logger.debug("Sending query to primary endpoint {} after a recent write", primarySelectEndpoint);
+			return sendQuery(primarySelectEndpoint, sparql, accept, fallbackAccept, reader);
+		}
+
+		String replica = r.choose();
+		logger.debug("Sending query to replica {}", replica);
+		long start = System.currentTimeMillis();
+		try {
+			return sendQuery(replica, sparql, accept, fallbackAccept, reader);
+		} finally {
+			r.finished(replica, System.currentTimeMillis() - start);
+		}
+	}
+
+	/**
+	 * Send a SPARQL query to an endpoint, negotiating the result format as described for doQuery
+	 *
+	 * @param endpoint the SPARQL HTTP endpoint
+	 * @param sparql the query
+	 * @param accept the value of the Accept header
+	 * @param fallbackAccept the Accept header to use if the endpoint refuses the first one
+	 * @param reader reads the response body
+	 * @return the result of the reader or null if the query failed
+	 */
+	private <T> T sendQuery(String endpoint, String sparql, String accept, String fallbackAccept,
+			ResponseReader<T> reader) {
+
+		Map<String, String> params = new HashMap<>();
+		String negotiationKey = endpoint + " " + fallbackAccept;
+		try {
+			if (!refusedNegotiations.contains(negotiationKey)) {
+				params.put("Accept", accept);
+				try {
+					return doPOST(endpoint, sparql, false, params, reader, true);
+				} catch (HttpStatusException e) {
+					if (e.getStatus() != HTTP_NOT_ACCEPTABLE) {
+						throw e;
+					}
+					logger.info("Endpoint {} can't return any of {}, using {} from now on", endpoint, accept,
+							fallbackAccept);
+					refusedNegotiations.add(negotiationKey);
+				}
+			}
+			params.put("Accept", fallbackAccept);
+			return doPOST(endpoint, sparql, false, params, reader, true);
+		} catch (HttpStatusException e) {
+			logger.error("HTTP request to URL {} failed with response code {}", endpoint, e.getStatus());
+			return null;
+		}
+	}
+
+	/**
+	 * Execute a SPARQL protocol POST request on the store and process the response as it is received. The statement
+	 * is encoded while it is written to the connection, either directly or as a form variable. Large statements are
+	 * compressed if request compression is enabled. If the endpoint rejects the encoding of the request, it is sent
+	 * again without compression or as a form variable, and that encoding is used for all further requests.
+	 *
+	 * @param endpoint the SPARQL HTTP endpoint
+	 * @param sparql the SPARQL statement
+	 * @param update whether the statement is an update rather than a query
+	 * @param parameters the HTTP parameters
+	 * @param reader reads the response
+	 * @param idempotent whether the request may be sent again if it fails
+	 * @return the result of the reader or null if the request could not be sent
+	 * @throws HttpStatusException if the endpoint responds with an error code
+	 */
+	private <T> T doPOST(String endpoint, CharSequence sparql, boolean update, Map<String, String> parameters,
+			ResponseReader<T> reader, boolean idempotent) {
+
+		while (true) {
+			String encoding = sparql.length() >= requestCompressionThreshold ? requestCompression : null;
+			boolean direct = directBodies;
+			SparqlRequestBody body = new SparqlRequestBody(sparql, direct ? null : (update ? updatePostvar
+					: selectPostVar), update, encoding, chunkThreshold);
+			Map<String, String> headers = new HashMap<>(parameters);
+			headers.put("Content-Type", body.getContentType());
+			if (encoding != null) {
+				headers.put("Content-Encoding", encoding);
+			}
+
+			try {
+				return doRequest("POST", endpoint, headers, body, reader, idempotent);
+			} catch (HttpStatusException e) {
+				if (e.getStatus() != HTTP_UNSUPPORTED_MEDIA_TYPE || (encoding == null && !direct)) {
+					throw e;
+				}
+				//the request has been rejected without being processed, so it's safe to send it again
+				if (encoding != null) {
+					logger.warn("Endpoint {} does not accept {} compressed requests, turning request compression off",
+							endpoint, encoding);
+					requestCompression = null;
+				} else {
+					logger.warn("Endpoint {} does not accept {} requests, sending form encoded requests from now on",
+							endpoint, body.getContentType());
+					directBodies = false;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Execute a HTTP request on the store and process the response as it is received. Requests to endpoints which
+	 * are considered unavailable are not sent at all. Idempotent requests are retried with exponential backoff if
+	 * the endpoint can't be reached or is temporarily overloaded, as long as the response hasn't been read yet.
+	 *
+	 * @param method the HTTP method
+	 * @param url the URL to send the request to
+	 * @param parameters the HTTP parameters
+	 * @param body the request body; none if this is null
+	 * @param reader reads the response
+	 * @param idempotent whether the request may be sent again if it fails
+	 * @return the result of the reader or null if the request could not be sent
+	 * @throws HttpStatusException if the endpoint responds with an error code
+	 * @throws StoreUnavailableException if the endpoint can't be reached and failFast is set
+	 * @throws RuntimeException if the reader fails to process the response for any other reason than I/O
+	 */
+	private <T> T doRequest(String method, String url, Map<String, String> parameters,
+			IHttpTransport.RequestBody body, ResponseReader<T> reader, boolean idempotent) {
+
+		EndpointHealth health = getEndpointHealth(url);
+		IStoreMetrics m = metrics;
+		boolean measure = m != IStoreMetrics.NONE;
+		long start = System.currentTimeMillis();
+		for (int attempt = 0;; attempt++) {
+
+			if (!health.allowRequest()) {
+				return unavailable("Not sending HTTP request to unavailable endpoint " + health, null);
+			}
+			if (attempt > 0) {
+				m.recordRetry(health.getEndpoint());
+			}
+
+			boolean reading = false;
+			int responseCode = -1;
+			IOException failure = null;
+			CountingBody sent = measure && body != null ? new CountingBody(body) : null;
+			CountingResponse received = null;
+			long requestStart = System.nanoTime();
+			try (IHttpTransport.Response response = getTransport().execute(method, url, parameters,
+					sent != null ? sent : body)) {
+
+				//get response
+				responseCode = response.getStatusCode();
+				logger.debug("Response code for {} request on endpoint {}: {}", method, url, responseCode);
+				if (!isTemporaryFailure(responseCode)) {
+					//the endpoint is working, even if it didn't like this particular request
+					health.recordSuccess();
+					if (responseCode >= 400) {
+						throw new HttpStatusException(responseCode);
+					}
+					reading = true;
+					if (measure) {
+						received = new CountingResponse(response);
+						return reader.read(received);
+					}
+					return reader.read(response);
+				}
+				health.recordFailure();
+
+			} catch (IOException e) {
+				health.recordFailure();
+				failure = e;
+			} finally {
+				if (measure) {
+					recordRequest(m, health.getEndpoint(), requestStart, responseCode, sent, received);
+				}
+			}
+
+			//give up if a retry might repeat side effects or would exceed the deadline
+			long backoff = Long.min(MAX_RETRY_BACKOFF, retryBackoff << Integer.min(attempt, 16));
+			backoff = backoff / 2 + (long) (Math.random() * backoff / 2);
+			if (reading || !idempotent || attempt >= maxRetries
+					|| (deadline > 0 && System.currentTimeMillis() + backoff - start >= deadline)) {
+				if (failure == null) {
+					if (failFast) {
+						throw new StoreUnavailableException("Endpoint " + url + " responded with " + responseCode);
+					}
+					throw new HttpStatusException(responseCode);
+				}
+				return unavailable((reading ? "Could not read HTTP response from URL "
+						: "Could not send HTTP request to URL ") + url, failure);
+			}
+
+			logger.debug("HTTP request to URL {} failed, retrying in {}ms", url, backoff);
+			try {
+				Thread.sleep(backoff);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return unavailable("Interrupted while waiting to retry HTTP request to URL " + url, e);
+			}
+		}
+	}
+
+	/**
+	 * Record the measurements of a single request
+	 *
+	 * @param m the metrics to record them in
+	 * @param endpoint the URL of the endpoint (without query string)
+	 * @param start the value of System.nanoTime() when the request was sent
+	 * @param status the HTTP status code or -1 if there was no response
+	 * @param sent the request body; null if there was none
+	 * @param received the response body; null if it wasn't read
+	 */
+	private void recordRequest(IStoreMetrics m, String endpoint, long start, int status, CountingBody sent,
+			CountingResponse received) {
+
+		m.recordRequest(endpoint, System.nanoTime() - start, status);
+		m.recordBytes(endpoint, sent != null ? sent.count : 0, received != null ? received.count : 0);
+		IHttpTransport t = transport;
+		if (t instanceof PooledHttpTransport) {
+			PoolStats pool = ((PooledHttpTransport) t).getPoolStats();
+			m.recordPool(pool.getLeased(), pool.getAvailable(), pool.getPending(), pool.getMax());
+		}
+	}
+
+	/**
+	 * Find out whether a response code means the endpoint is overloaded or unavailable at the moment,
+	 * rather than rejecting the request itself
+	 *
+	 * @param responseCode the HTTP response code
+	 * @return true for 429 and all server errors (5xx)
+	 */
+	private static boolean isTemporaryFailure(int responseCode) {
+		return responseCode == 429 || responseCode >= 500;
+	}
+
+	/**
+	 * Handle a request which couldn't be completed because the endpoint is unavailable
+	 *
+	 * @param message the reason
+	 * @param cause the exception which caused the failure; may be null
+	 * @return null
+	 * @throws StoreUnavailableException if failFast is set
+	 */
+	private <T> T unavailable(String message, Exception cause) {
+		if (failFast) {
+			throw new StoreUnavailableException(message, cause);
+		}
+		logger.error(message, cause);
+		return null;
+	}
+
+	/**
+	 * Reads a successful HTTP response
+	 *
+	 * @param <T> the type of the result
+	 */
+	private interface ResponseReader<T> {
+
+		/**
+		 * Read the response
+		 *
+		 * @param response the response, including its body
+		 * @return the result
+		 * @throws IOException if reading fails
+		 */
+		T read(IHttpTransport.Response response) throws IOException;
+	}
+
+	/**
+	 * Counts the bytes of a request body while it is written
+	 */
+	private static final class CountingBody implements IHttpTransport.RequestBody {
+
+		private final IHttpTransport.RequestBody body;
+		private long count;
+
+		CountingBody(IHttpTransport.RequestBody body) {
+			this.body = body;
+		}
+
+		@Override
+		public void writeTo(OutputStream out) throws IOException {
+			body.writeTo(new FilterOutputStream(out) {
+				@Override
+				public void write(int b) throws IOException {
+					count++;
+					out.write(b);
+				}
+
+				@Override
+				public void write(byte[] b, int off, int len) throws IOException {
+					count += len;
+					out.write(b, off, len);
+				}
+			});
+		}
+
+		@Override
+		public long getContentLength() {
+			return body.getContentLength();
+		}
+	}
+
+	/**
+	 * Counts the bytes of a response body while it is read
+	 */
+	private static final class CountingResponse implements IHttpTransport.Response {
+
+		private final IHttpTransport.Response response;
+		private long count;
+
+		CountingResponse(IHttpTransport.Response response) {
+			this.response = response;
+		}
+
+		@Override
+		public int getStatusCode() {
+			return response.getStatusCode();
+		}
+
+		@Override
+		public String getHeader(String name) {
+			return response.getHeader(name);
+		}
+
+		@Override
+		public InputStream getContent() throws IOException {
+			return new FilterInputStream(response.getContent()) {
+				@Override
+				public int read() throws IOException {
+					int b = in.read();
+					if (b >= 0) {
+						count++;
+					}
+					return b;
+				}
+
+				@Override
+				public int read(byte[] b, int off, int len) throws IOException {
+					int read = in.read(b, off, len);
+					if (read > 0) {
+						count += read;
+					}
+					return read;
+				}
+			};
+		}
+
+		@Override
+		public void close() throws IOException {
+			response.close();
+		}
+	}
+
+	/**
+	 * Writes a document into a request body
+	 */
+	private interface BodyWriter {
+
+		/**
+		 * Write the document
+		 *
+		 * @param out the request body
+		 * @throws IOException if writing fails
+		 */
+		void write(OutputStream out) throws IOException;
+	}
+
+	/**
+	 * Signals that an endpoint responded with an error code
+	 */
+	private static class HttpStatusException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int status;
+
+		HttpStatusException(int status) {
+			super("HTTP status " + status);
+			this.status = status;
+		}
+
+		public int getStatus() {
+			return status;
+		}
+	}
+
+	/**
+	 * Collects the items of a SPARQL data operation into batches and sends each batch as soon as it is full.
+	 * If the store rejects a batch, it is split in half and both halves are sent again until only the offending
+	 * items fail. The batch size is then reduced for the remaining items and slowly grows back to the configured
+	 * maximum as long as the store keeps accepting batches.
+	 *
+	 * Items can be added in groups which are never split between batches.
+	 *
+	 * @param <T> the type of the items
+	 */
+	private final class BatchUpload<T> {
+
+		private final StringBuilder buffer = new StringBuilder();
+		private final int headerLength;
+		private final String footer;
+		private final BiConsumer<StringBuilder, T> writer;
+		private final String graphURI;
+		private final boolean prefixes;
+		//the groups of items which have been written into the buffer but not sent yet
+		private final List<List<T>> pending = new ArrayList<>();
+		private int pendingItems;
+
+		private int limit = maxBatchTriples;
+		private int batches;
+		private int failedBatches;
+		private long triples;
+
+		/**
+		 * Start a new upload
+		 *
+		 * @param operation the data operation
+		 * @param graphURI the URI of the graph; default graph if this is null
+		 * @param prefixes whether the data needs the store's PREFIX declarations
+		 * @param writer writes a single item into the buffer
+		 */
+		BatchUpload(String operation, String graphURI, boolean prefixes, BiConsumer<StringBuilder, T> writer) {
+			this.writer = writer;
+			this.graphURI = graphURI;
+			this.prefixes = prefixes;
+			buffer.append(operation).append(" {\n");
+			if (graphURI != null) {
+				buffer.append("\tGRAPH <").append(graphURI).append("> {\n");
+			}
+			headerLength = buffer.length();
+			footer = graphURI != null ? "\t}\n}\n" : "}\n";
+		}
+
+		/**
+		 * Add an item, sending the current batch if it is full
+		 *
+		 * @param item the item
+		 */
+		void add(T item) {
+			addGroup(Collections.singletonList(item));
+		}
+
+		/**
+		 * Add items which have to be sent in the same batch, sending the current batch if it is full
+		 *
+		 * @param group the items
+		 */
+		void addGroup(List<T> group) {
+			for (T item : group) {
+				writer.accept(buffer, item);
+			}
+			pending.add(group);
+			pendingItems += group.size();
+			if (pendingItems >= limit || buffer.length() >= maxBatchBytes) {
+				send(pending, true);
+				pending.clear();
+				pendingItems = 0;
+			}
+		}
+
+		/**
+		 * Send the last batch
+		 *
+		 * @return the number of batches and triples sent
+		 */
+		BatchReport finish() {
+			if (!pending.isEmpty()) {
+				send(pending, true);
+				pending.clear();
+				pendingItems = 0;
+			}
+			invalidateStatistics(graphURI);
+			return new BatchReport(batches, failedBatches, triples);
+		}
+
+		/**
+		 * Send a batch, splitting it up between groups if the store rejects it
+		 *
+		 * @param batch the groups of items to send
+		 * @param written whether the items are already in the buffer
+		 */
+		private void send(List<List<T>> batch, boolean written) {
+
+			if (!written) {
+				buffer.setLength(headerLength);
+				for (List<T> group : batch) {
+					for (T item : group) {
+						writer.accept(buffer, item);
+					}
+				}
+			}
+			int size = batch.stream().mapToInt(List::size).sum();
+			buffer.append(footer);
+			//the PREFIX declarations depend on the items, so they are only added now
+			int status = executeUpdate(prefixes ? getPrefixRewriter().rewrite(buffer, prefixMode) : buffer);
+			logger.debug("Sent batch of {} triples, {} characters: {}", size, buffer.length(), status);
+			buffer.setLength(headerLength);
+
+			if (status >= 200 && status < 400) {
+				batches++;
+				triples += size;
+				if (limit < maxBatchTriples) {
+					limit = Integer.min(maxBatchTriples, limit + Integer.max(1, limit / 4));
+				}
+			} else if (status > 0 && !isTemporaryFailure(status) && batch.size() > 1) {
+				//the store answered, so the batch may have been too large or contained a triple it didn't like
+				int half = batch.size() / 2;
+				limit = Integer.max(1, size / 2);
+				send(batch.subList(0, half), false);
+				send(batch.subList(half, batch.size()), false);
+			} else {
+				batches++;
+				failedBatches++;
+			}
+		}
+	}
+
+	/**
+	 * Sorts triples containing blank nodes into groups of triples which are connected through blank nodes
+	 */
+	private static final class BlankNodeGroups {
+
+		//union-find structure: the parent of each blank node, roots are their own parents
+		private final Map<Node, Node> parents = new HashMap<>();
+		private final List<com.hp.hpl.jena.graph.Triple> triples = new ArrayList<>();
+
+		/**
+		 * Add a triple if it contains a blank node
+		 *
+		 * @param t the triple
+		 * @return false if the triple doesn't contain any blank nodes and has not been added
+		 */
+		boolean add(com.hp.hpl.jena.graph.Triple t) {
+			boolean subject = t.getSubject().isBlank();
+			boolean object = t.getObject().isBlank();
+			if (!subject && !object) {
+				return false;
+			}
+			if (subject && object) {
+				Node s = find(t.getSubject());
+				Node o = find(t.getObject());
+				if (!s.equals(o)) {
+					parents.put(s, o);
+				}
+			} else {
+				find(subject ? t.getSubject() : t.getObject());
+			}
+			triples.add(t);
+			return true;
+		}
+
+		/**
+		 * Get the groups of connected triples
+		 *
+		 * @return the groups, in the order in which their first triples have been added
+		 */
+		Collection<List<com.hp.hpl.jena.graph.Triple>> getGroups() {
+			Map<Node, List<com.hp.hpl.jena.graph.Triple>> groups = new LinkedHashMap<>();
+			for (com.hp.hpl.jena.graph.Triple t : triples) {
+				Node root = find(t.getSubject().isBlank() ? t.getSubject() : t.getObject());
+				groups.computeIfAbsent(root, r -> new ArrayList<>()).add(t);
+			}
+			return groups.values();
+		}
+
+		private Node find(Node n) {
+			Node root = n;
+			Node parent;
+			while ((parent = parents.putIfAbsent(root, root)) != null && !parent.equals(root)) {
+				root = parent;
+			}
+			//shorten the path for the next lookup
+			Node current = n;
+			while (!current.equals(root)) {
+				Node next = parents.get(current);
+				parents.put(current, root);
+				current = next;
+			}
+			return root;
+		}
+	}
+
+	// Endpoint health ////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Get the health of an endpoint, which tells whether requests are currently sent to it
+	 *
+	 * @param endpoint the URL of the endpoint; any query string is ignored
+	 * @return the health of the endpoint
+	 */
+	public EndpointHealth getEndpointHealth(String endpoint) {
+		int query = endpoint.indexOf('?');
+		String key = query >= 0 ? endpoint.substring(0, query) : endpoint;
+		return endpointHealth.computeIfAbsent(key, k -> new EndpointHealth(k, breakerFailures, breakerOpenTime));
+	}
+
+	/**
+	 * Get the health of all endpoints this wrapper has sent requests to
+	 *
+	 * @return the health of each endpoint by URL (without query string)
+	 */
+	public Map<String, EndpointHealth> getAllEndpointHealth() {
+		return new HashMap<>(endpointHealth);
+	}
+
+	/**
+	 * Find out whether queries would currently be sent to any of the select endpoint's replicas. Callers can use
+	 * this to reject work straight away while the store is unavailable.
+	 *
+	 * @return false if all replicas are considered unavailable
+	 */
+	public boolean isAvailable() {
+		return router.getEndpoints().stream().anyMatch(e -> getEndpointHealth(e).isAvailable());
+	}
+
+	// Getters/Setters ////////////////////////////////////////////////////////////////////////////
+	public String getSelectPostVar() {
+		return selectPostVar;
+	}
+
+	public void setSelectPostVar(String selectPostVar) {
+		this.selectPostVar = selectPostVar;
+	}
+
+	public String getUpdatePostvar() {
+		return updatePostvar;
+	}
+
+	public void setUpdatePostvar(String updatePostvar) {
+		this.updatePostvar = updatePostvar;
+	}
+
+	public String getSparqlSelectEndpoint() {
+		return sparqlSelectEndpoint;
+	}
+
+	/**
+	 * Set a single select endpoint, replacing all replicas
+	 *
+	 * @param sparqlSelectEndpoint the endpoint
+	 */
+	public void setSparqlSelectEndpoint(String sparqlSelectEndpoint) {
+		setSelectEndpoints(Collections.singletonList(sparqlSelectEndpoint));
+	}
+
+	public List<String> getSelectEndpoints() {
+		return router.getEndpoints();
+	}
+
+	/**
+	 * Set the select endpoints of all replicas queries are distributed over
+	 *
+	 * @param selectEndpoints the endpoints; the first one is used as the sparqlSelectEndpoint
+	 */
+	public synchronized void setSelectEndpoints(List<String> selectEndpoints) {
+		if (primarySelectEndpoint == null || primarySelectEndpoint.equals(sparqlSelectEndpoint)) {
+			primarySelectEndpoint = selectEndpoints.get(0);
+		}
+		this.selectEndpoints.clear();
+		this.selectEndpoints.addAll(selectEndpoints);
+		sparqlSelectEndpoint = selectEndpoints.get(0);
+		router = new SelectEndpointRouter(selectEndpoints, routing, this::getEndpointHealth);
+	}
+
+	public SelectEndpointRouter getRouter() {
+		return router;
+	}
+
+	public String getPrimarySelectEndpoint() {
+		return primarySelectEndpoint;
+	}
+
+	public void setPrimarySelectEndpoint(String primarySelectEndpoint) {
+		this.primarySelectEndpoint = primarySelectEndpoint;
+	}
+
+	public long getReadYourWrites() {
+		return readYourWrites;
+	}
+
+	/**
+	 * Send all queries of a thread to the primary replica for a while after it has changed the store
+	 *
+	 * @param readYourWrites the time in ms; 0 to turn this off
+	 */
+	public void setReadYourWrites(long readYourWrites) {
+		this.readYourWrites = readYourWrites;
+	}
+
+	public String getSparqlUpdateEndpoint() {
+		return sparqlUpdateEndpoint;
+	}
+
+	public void setSparqlUpdateEndpoint(String sparqlUpdateEndpoint) {
+		this.sparqlUpdateEndpoint = sparqlUpdateEndpoint;
+	}
+
+	public boolean isNamedGraphs() {
+		return namedGraphs;
+	}
+
+	public void setNamedGraphs(boolean namedGraphs) {
+		this.namedGraphs = namedGraphs;
+	}
+
+	public String getSparqlClearEndpoint() {
+		return sparqlClearEndpoint;
+	}
+
+	public void setSparqlClearEndpoint(String sparqlClearEndpoint) {
+		this.sparqlClearEndpoint = sparqlClearEndpoint;
+	}
+
+	public String getDataEndpoint() {
+		return dataEndpoint;
+	}
+
+	/**
+	 * Set the SPARQL 1.1 Graph Store HTTP Protocol endpoint used to upload and download documents
+	 *
+	 * @param dataEndpoint the endpoint or null to send all data as SPARQL updates
+	 */
+	public void setDataEndpoint(String dataEndpoint) {
+		this.dataEndpoint = dataEndpoint;
+	}
+
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+
+	public void setMaxRetries(int maxRetries) {
+		this.maxRetries = maxRetries;
+	}
+
+	public boolean isFailFast() {
+		return failFast;
+	}
+
+	/**
+	 * Set whether to throw a StoreUnavailableException if the store can't be reached rather than logging the error
+	 * and returning an empty result
+	 *
+	 * @param failFast true to throw
+	 */
+	public void setFailFast(boolean failFast) {
+		this.failFast = failFast;
+	}
+
+	public boolean isGzipData() {
+		return gzipData;
+	}
+
+	public void setGzipData(boolean gzipData) {
+		this.gzipData = gzipData;
+	}
+
+	public String getRequestCompression() {
+		return requestCompression;
+	}
+
+	/**
+	 * Set how queries and updates are compressed
+	 *
+	 * @param requestCompression gzip or deflate; null or none to send requests uncompressed
+	 */
+	public void setRequestCompression(String requestCompression) {
+
+		String encoding = requestCompression == null ? "none" : requestCompression.trim().toLowerCase();
+		switch (encoding) {
+			case "gzip":
+			case "deflate":
+				this.requestCompression = encoding;
+				break;
+			case "":
+			case "none":
+				this.requestCompression = null;
+				break;
+			default:
+				logger.warn("Unknown request compression {}, sending requests uncompressed", requestCompression);
+				this.requestCompression = null;
+		}
+	}
+
+	public boolean isDirectBodies() {
+		return directBodies;
+	}
+
+	/**
+	 * Set how statements are sent to the endpoints
+	 *
+	 * @param directBodies true to send statements as application/sparql-query and application/sparql-update
+	 * request bodies, false to send them as form variables
+	 */
+	public void setDirectBodies(boolean directBodies) {
+		this.directBodies = directBodies;
+	}
+
+	public int getRequestCompressionThreshold() {
+		return requestCompressionThreshold;
+	}
+
+	/**
+	 * Set the minimum size of requests to compress
+	 *
+	 * @param requestCompressionThreshold the number of characters
+	 */
+	public void setRequestCompressionThreshold(int requestCompressionThreshold) {
+		this.requestCompressionThreshold = requestCompressionThreshold;
+	}
+
+	public int getMaxBatchTriples() {
+		return maxBatchTriples;
+	}
+
+	public void setMaxBatchTriples(int maxBatchTriples) {
+		this.maxBatchTriples = maxBatchTriples;
+	}
+
+	public int getMaxBatchBytes() {
+		return maxBatchBytes;
+	}
+
+	public void setMaxBatchBytes(int maxBatchBytes) {
+		this.maxBatchBytes = maxBatchBytes;
+	}
+
+	public ResultFormat getResultFormat() {
+		return resultFormat;
+	}
+
+	/**
+	 * Pin the format in which query results are requested from the endpoint
+	 *
+	 * @param resultFormat the format or null to negotiate the cheapest format supported by the endpoint
+	 */
+	public void setResultFormat(ResultFormat resultFormat) {
+		this.resultFormat = resultFormat;
+	}
+
+	/**
+	 * Replace the transport used to send requests, e.g. to use a differently configured connection pool.
+	 * The previous transport will be shut down.
+	 *
+	 * @param transport the new transport
+	 */
+	public synchronized void setTransport(IHttpTransport transport) {
+		if (this.transport != null && this.transport != transport) {
+			this.transport.shutdown();
+		}
+		this.transport = transport;
 	}
 
 }
@@ -0,0 +1,540 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFLanguages;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A directory in which ontology imports are kept after they have been parsed, so they don't have to be downloaded
+ * and parsed again the next time an ontology is loaded.
+ *
+ * Each import has an index entry (named after the hash of its URI) recording where it was loaded from, its
+ * validators (ETag and Last-Modified for documents on the web, modification time and size for files) and its
+ * prefixes. The triples are stored as N-Triples in a data file named after the hash of URI and validators, so a
+ * changed document never overwrites the data of an older version which might still be being read. Data files which
+ * are no longer referred to are left in place and deleted by a later sweep, once they have not been used for a while.
+ *
+ * Entries of web documents are used without contacting the server until they are older than the maximum age; then
+ * a conditional GET is sent. Files are checked against their modification time and size every time.
+ */
+public class ImportCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(ImportCache.class);
+
+	//for properties documentation see src/main/resources/easyjena.properties
+	public static final String DIRECTORY = "easyjena.imports.cache.directory";
+	public static final String MAX_AGE = "easyjena.imports.cache.maxAge";
+
+	private static final int CONNECT_TIMEOUT = 10000;
+	private static final int READ_TIMEOUT = 60000;
+	//time in ms after which data files no entry refers to any more are deleted when the cache is created
+	private static final long UNUSED_DATA_AGE = 3600000;
+	private static final String ACCEPT = "application/rdf+xml, text/turtle;q=0.9, application/n-triples;q=0.8, "
+			+ "text/n3;q=0.7, */*;q=0.1";
+
+	//keys in the index entries
+	private static final String KEY_URI = "uri";
+	private static final String KEY_LOCATION = "location";
+	private static final String KEY_VALIDATOR = "validator";
+	private static final String KEY_ETAG = "etag";
+	private static final String KEY_LAST_MODIFIED = "lastModified";
+	private static final String KEY_CHECKED = "checked";
+	private static final String KEY_DATA = "data";
+	private static final String PREFIX = "prefix.";
+
+	private final File directory;
+	private final long maxAge;
+
+	/**
+	 * Creates a cache in the given directory, which is created if it doesn't exist
+	 *
+	 * @param directory the directory
+	 * @param maxAge the time in ms after which documents on the web are checked for changes; 0 never to check
+	 */
+	public ImportCache(File directory, long maxAge) {
+
+		this.directory = directory;
+		this.maxAge = maxAge;
+		if (!new File(directory, "index").mkdirs() && !new File(directory, "index").isDirectory()) {
+			logger.warn("Could not create import cache directory {}", directory);
+		}
+		new File(directory, "data").mkdirs();
+		sweep(UNUSED_DATA_AGE);
+	}
+
+	/**
+	 * Creates a cache as configured in the properties
+	 *
+	 * @param props the properties
+	 * @return the cache or null if no directory has been configured
+	 */
+	public static ImportCache fromProperties(Properties props) {
+
+		String dir = props.getProperty(DIRECTORY, "").trim();
+		if (dir.isEmpty()) {
+			return null;
+		}
+		long maxAge = 0;
+		try {
+			maxAge = Long.parseLong(props.getProperty(MAX_AGE, "0").trim());
+		} catch (NumberFormatException e) {
+			logger.warn("Invalid value {} for property {}, never checking cached imports for changes",
+					props.getProperty(MAX_AGE), MAX_AGE);
+		}
+		return new ImportCache(new File(dir), maxAge);
+	}
+
+	// Cache access ///////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Find out whether an import can be loaded from the cache without contacting the server
+	 *
+	 * @param uri the URI of the import
+	 * @return true if there is an entry which is still fresh
+	 */
+	public boolean isFresh(String uri) {
+
+		Properties entry = readEntry(uri);
+		return entry != null && isFresh(entry) && getDataFile(entry).isFile();
+	}
+
+	/**
+	 * Load an import, from the cache if possible. Otherwise the document is read from its location, parsed and
+	 * added to the cache.
+	 *
+	 * @param uri the URI of the import
+	 * @param location where to load it from: a file or a URL. This is usually the URI, unless it has been mapped.
+	 * @return the parsed document or null if it could not be loaded
+	 */
+	public Model load(String uri, String location) {
+
+		Properties entry = readEntry(uri);
+		if (entry != null && !location.equals(entry.getProperty(KEY_LOCATION))) {
+			//the import has been mapped somewhere else since
+			entry = null;
+		}
+
+		File file = new File(location);
+		if (file.isFile()) {
+			String validator = "file:" + file.lastModified() + ":" + file.length();
+			if (entry != null && validator.equals(entry.getProperty(KEY_VALIDATOR))) {
+				Model m = readData(entry);
+				if (m != null) {
+					logger.debug("Loaded import <{}> from cache, {} is unchanged", uri, location);
+					return m;
+				}
+			}
+			Model m = ModelFactory.createDefaultModel();
+			try {
+				RDFDataMgr.read(m, file.getPath(), uri, RDFLanguages.filenameToLang(file.getName(), Lang.RDFXML));
+			} catch (RuntimeException e) {
+				logger.warn("Could not parse import <{}> from {}", uri, location, e);
+				return null;
+			}
+			Properties newEntry = newEntry(uri, location, validator);
+			writeEntry(newEntry, m, entry);
+			return m;
+		}
+
+		if (!location.startsWith("http://") && !location.startsWith("https://")) {
+			logger.debug("Import <{}> can't be cached, {} is neither a file nor a URL", uri, location);
+			return null;
+		}
+		if (entry != null && isFresh(entry)) {
+			Model m = readData(entry);
+			if (m != null) {
+				logger.debug("Loaded import <{}> from cache", uri);
+				return m;
+			}
+			entry = null;
+		}
+		return fetch(uri, location, entry);
+	}
+
+	/**
+	 * Remove an import from the cache
+	 *
+	 * @param uri the URI of the import
+	 */
+	public void invalidate(String uri) {
+
+		Properties entry = readEntry(uri);
+		deleteQuietly(getIndexFile(uri));
+		if (entry != null) {
+			markUnused(getDataFile(entry));
+		}
+	}
+
+	/**
+	 * Delete the data files which no entry refers to any more, including those of incomplete writes. Files are only
+	 * deleted once they have not been used for the given time, so imports which were being read when they were
+	 * replaced can still be read.
+	 *
+	 * @param unusedFor the time in ms since the files were last used
+	 */
+	public void sweep(long unusedFor) {
+
+		File[] indexFiles = new File(directory, "index").listFiles((dir, name) -> name.endsWith(".properties"));
+		File[] dataFiles = new File(directory, "data").listFiles();
+		if (indexFiles == null || dataFiles == null) {
+			return;
+		}
+		Set<String> used = new HashSet<>();
+		for (File index : indexFiles) {
+			Properties entry = new Properties();
+			try (Reader in = Files.newBufferedReader(index.toPath(), StandardCharsets.UTF_8)) {
+				entry.load(in);
+			} catch (IOException e) {
+				//it's unknown which data file this entry refers to, so keep all of them
+				logger.debug("Could not read import cache entry {}, not sweeping {}", index, directory, e);
+				return;
+			}
+			if (entry.getProperty(KEY_DATA) != null) {
+				used.add(entry.getProperty(KEY_DATA));
+			}
+		}
+
+		long unusedSince = System.currentTimeMillis() - unusedFor;
+		for (File data : dataFiles) {
+			if (!used.contains(data.getName()) && data.lastModified() <= unusedSince) {
+				logger.debug("Deleting unused import cache data {}", data);
+				deleteQuietly(data);
+			}
+		}
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	public long getMaxAge() {
+		return maxAge;
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Download a document, sending its validators if there is an older version in the cache
+	 *
+	 * @param uri the URI of the import
+	 * @param location the URL to download it from
+	 * @param entry the existing entry; may be null
+	 * @return the parsed document or null if it could not be loaded
+	 */
+	private Model fetch(String uri, String location, Properties entry) {
+
+		HttpURLConnection connection = null;
+		try {
+			connection = openConnection(location);
+			if (entry != null && getDataFile(entry).isFile()) {
+				if (entry.getProperty(KEY_ETAG) != null) {
+					connection.setRequestProperty("If-None-Match", entry.getProperty(KEY_ETAG));
+				}
+				if (entry.getProperty(KEY_LAST_MODIFIED) != null) {
+					connection.setRequestProperty("If-Modified-Since", entry.getProperty(KEY_LAST_MODIFIED));
+				}
+			}
+
+			int status = connection.getResponseCode();
+			if (status == HttpURLConnection.HTTP_NOT_MODIFIED && entry != null) {
+				Model m = readData(entry);
+				if (m != null) {
+					logger.debug("Import <{}> is unchanged, loaded from cache", uri);
+					entry.setProperty(KEY_CHECKED, String.valueOf(System.currentTimeMillis()));
+					try {
+						writeIndex(uri, entry);
+					} catch (IOException e) {
+						logger.debug("Could not update import cache entry for <{}>", uri, e);
+					}
+					return m;
+				}
+				//the data has gone, so download it again without validators
+				return fetch(uri, location, null);
+			} else if (status != HttpURLConnection.HTTP_OK) {
+				logger.debug("Could not load import <{}> from {}: HTTP status {}", uri, location, status);
+				return null;
+			}
+
+			Model m = readModel(connection, uri, location);
+			String etag = connection.getHeaderField("ETag");
+			String lastModified = connection.getHeaderField("Last-Modified");
+			Properties newEntry = newEntry(uri, location, "http:" + (etag != null ? etag : "") + ":"
+					+ (lastModified != null ? lastModified : ""));
+			if (etag != null) {
+				newEntry.setProperty(KEY_ETAG, etag);
+			}
+			if (lastModified != null) {
+				newEntry.setProperty(KEY_LAST_MODIFIED, lastModified);
+			}
+			writeEntry(newEntry, m, entry);
+			logger.debug("Downloaded import <{}> from {}, {} triples", uri, location, m.size());
+			return m;
+
+		} catch (IOException | RuntimeException e) {
+			logger.debug("Could not load import <{}> from {}", uri, location, e);
+			return null;
+		} finally {
+			if (connection != null) {
+				connection.disconnect();
+			}
+		}
+	}
+
+	/**
+	 * Download and parse a document without caching it, with the same timeouts as for cached imports
+	 *
+	 * @param uri the URI of the import, used as the base URI
+	 * @param location the URL to download it from
+	 * @return the parsed document or null if it could not be loaded
+	 */
+	static Model download(String uri, String location) {
+
+		HttpURLConnection connection = null;
+		try {
+			connection = openConnection(location);
+			int status = connection.getResponseCode();
+			if (status != HttpURLConnection.HTTP_OK) {
+				logger.debug("Could not load import <{}> from {}: HTTP status {}", uri, location, status);
+				return null;
+			}
+			return readModel(connection, uri, location);
+		} catch (IOException | RuntimeException e) {
+			logger.debug("Could not load import <{}> from {}", uri, location, e);
+			return null;
+		} finally {
+			if (connection != null) {
+				connection.disconnect();
+			}
+		}
+	}
+
+	/**
+	 * Open a connection for downloading an import
+	 *
+	 * @param location the URL of the import
+	 * @return the connection, which has not been sent yet
+	 * @throws IOException if the URL is invalid
+	 */
+	private static HttpURLConnection openConnection(String location) throws IOException {
+
+		HttpURLConnection connection = (HttpURLConnection) new URL(location).openConnection();
+		connection.setConnectTimeout(CONNECT_TIMEOUT);
+		connection.setReadTimeout(READ_TIMEOUT);
+		connection.setRequestProperty("Accept", ACCEPT);
+		return connection;
+	}
+
+	/**
+	 * Parse a downloaded document in the syntax given by its content type or, failing that, its file extension
+	 *
+	 * @param connection the connection with a successful response
+	 * @param uri the URI of the import, used as the base URI
+	 * @param location the URL it was downloaded from
+	 * @return the parsed document
+	 * @throws IOException if the response can't be read
+	 */
+	private static Model readModel(HttpURLConnection connection, String uri, String location) throws IOException {
+
+		String contentType = connection.getContentType();
+		Lang lang = contentType != null ? RDFLanguages.contentTypeToLang(contentType.split(";")[0].trim()) : null;
+		if (lang == null) {
+			lang = RDFLanguages.filenameToLang(location, Lang.RDFXML);
+		}
+		Model m = ModelFactory.createDefaultModel();
+		try (InputStream in = connection.getInputStream()) {
+			RDFDataMgr.read(m, in, uri, lang);
+		}
+		return m;
+	}
+
+	private boolean isFresh(Properties entry) {
+
+		if (!entry.getProperty(KEY_LOCATION, "").startsWith("http")) {
+			//files are checked every time
+			return false;
+		}
+		long checked = Long.parseLong(entry.getProperty(KEY_CHECKED, "0"));
+		return maxAge <= 0 || System.currentTimeMillis() - checked < maxAge;
+	}
+
+	private Properties newEntry(String uri, String location, String validator) {
+
+		Properties entry = new Properties();
+		entry.setProperty(KEY_URI, uri);
+		entry.setProperty(KEY_LOCATION, location);
+		entry.setProperty(KEY_VALIDATOR, validator);
+		entry.setProperty(KEY_CHECKED, String.valueOf(System.currentTimeMillis()));
+		entry.setProperty(KEY_DATA, hash(uri + "\n" + validator) + ".nt");
+		return entry;
+	}
+
+	/**
+	 * Read the triples and prefixes of a cached import
+	 *
+	 * @param entry the index entry
+	 * @return the model or null if the data could not be read
+	 */
+	private Model readData(Properties entry) {
+
+		Model m = ModelFactory.createDefaultModel();
+		try (InputStream in = Files.newInputStream(getDataFile(entry).toPath())) {
+			RDFDataMgr.read(m, in, Lang.NTRIPLES);
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Could not read cached import <{}>", entry.getProperty(KEY_URI), e);
+			return null;
+		}
+		Map<String, String> prefixes = new HashMap<>();
+		entry.stringPropertyNames().stream().filter(k -> k.startsWith(PREFIX)).forEach(k
+				-> prefixes.put(k.substring(PREFIX.length()), entry.getProperty(k)));
+		m.setNsPrefixes(prefixes);
+		return m;
+	}
+
+	/**
+	 * Store a parsed import. The data is written first, so the index never points to incomplete data.
+	 *
+	 * @param entry the new index entry
+	 * @param m the parsed document
+	 * @param oldEntry the entry which is replaced; may be null
+	 */
+	private void writeEntry(Properties entry, Model m, Properties oldEntry) {
+
+		m.getNsPrefixMap().forEach((prefix, namespace) -> entry.setProperty(PREFIX + prefix, namespace));
+		File data = getDataFile(entry);
+		File tmp = new File(data.getPath() + ".tmp");
+		try {
+			try (OutputStream out = Files.newOutputStream(tmp.toPath())) {
+				RDFDataMgr.write(out, m, Lang.NTRIPLES);
+			}
+			Files.move(tmp.toPath(), data.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			writeIndex(entry.getProperty(KEY_URI), entry);
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Could not cache import <{}> in {}", entry.getProperty(KEY_URI), directory, e);
+			deleteQuietly(tmp);
+			return;
+		}
+		if (oldEntry != null && !getDataFile(oldEntry).equals(data)) {
+			//readers might still be using the old data, so it is left for a later sweep
+			markUnused(getDataFile(oldEntry));
+		}
+	}
+
+	private Properties readEntry(String uri) {
+
+		File index = getIndexFile(uri);
+		if (!index.isFile()) {
+			return null;
+		}
+		Properties entry = new Properties();
+		try (Reader in = Files.newBufferedReader(index.toPath(), StandardCharsets.UTF_8)) {
+			entry.load(in);
+		} catch (IOException e) {
+			logger.warn("Could not read import cache entry {}", index, e);
+			return null;
+		}
+		//guard against hash collisions
+		return uri.equals(entry.getProperty(KEY_URI)) && entry.getProperty(KEY_DATA) != null ? entry : null;
+	}
+
+	private void writeIndex(String uri, Properties entry) throws IOException {
+
+		File index = getIndexFile(uri);
+		File tmp = new File(index.getPath() + ".tmp");
+		try (Writer out = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+			entry.store(out, uri);
+		}
+		Files.move(tmp.toPath(), index.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private File getIndexFile(String uri) {
+		return new File(new File(directory, "index"), hash(uri) + ".properties");
+	}
+
+	private File getDataFile(Properties entry) {
+		return new File(new File(directory, "data"), entry.getProperty(KEY_DATA));
+	}
+
+	/**
+	 * Record when a data file stopped being referred to by its entry, which is when sweeping starts counting
+	 *
+	 * @param data the data file
+	 */
+	private static void markUnused(File data) {
+		if (data.exists() && !data.setLastModified(System.currentTimeMillis())) {
+			logger.debug("Could not mark {} as unused", data);
+		}
+	}
+
+	private static void deleteQuietly(File f) {
+		if (f.exists() && !f.delete()) {
+			logger.debug("Could not delete {}", f);
+		}
+	}
+
+	/**
+	 * Get the SHA-256 hash of a string
+	 *
+	 * @param s the string
+	 * @return the hash in hex
+	 */
+	private static String hash(String s) {
+
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+			StringBuilder sb = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+			}
+			return sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			//every JVM has to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,404 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+import com.hp.hpl.jena.ontology.OntDocumentManager;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.NodeIterator;
+import com.hp.hpl.jena.rdf.model.RDFNode;
+import com.hp.hpl.jena.rdf.model.impl.PropertyImpl;
+import com.hp.hpl.jena.util.FileManager;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.jena.riot.RDFDataMgr;
+import uk.ac.soton.itinnovation.easyjena.core.impl.JenaOntologyManager.LoadingLocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves the imports of an ontology. Every import document is parsed once: its prefixes are added to the
+ * semantic factory, its own imports are followed and the parsed model is kept, so it can be handed to Jena's
+ * document manager instead of being downloaded and parsed again when the imports are loaded.
+ *
+ * Imports are fetched and parsed concurrently on a fixed number of threads; each document is only requested once,
+ * no matter how often (or how cyclically) it is imported. The prefixes are only added to the semantic factory once
+ * all documents have been loaded, walking the import tree in prefix order, so the result doesn't depend on which
+ * download finished first. Documents are downloaded with connect and read timeouts, and imports which are still
+ * being loaded when the resolver's timeout has passed are treated like imports which could not be opened.
+ */
+public class ImportResolver {
+
+	private static final Logger logger = LoggerFactory.getLogger(ImportResolver.class);
+
+	private static final String OWL_IMPORTS = "http://www.w3.org/2002/07/owl#imports";
+	private static final long DEFAULT_TIMEOUT = 300000;
+
+	private final SemanticFactory semanticFactory;
+	private final Map<String, ImportMapping> importLocationMap;
+	private final ImportCache importCache;
+	private final UrlProbe urlProbe;
+	private final LoadingLocation location;
+	private final int threads;
+	//time in ms to wait for all imports to be loaded
+	private long timeout = DEFAULT_TIMEOUT;
+
+	//all imports which have been requested by URI, including those still being loaded
+	private final Map<String, CompletableFuture<Import>> imports = new ConcurrentHashMap<>();
+	//the parsed import documents by URI
+	private final Map<String, Model> documents = new LinkedHashMap<>();
+
+	/**
+	 * Create a new resolver
+	 *
+	 * @param semanticFactory the semantic factory to add the imports' prefixes to
+	 * @param importLocationMap the mappings of import URIs to their locations
+	 * @param importCache the cache to load imports through, may be null
+	 * @param urlProbe the probe which knows about the URLs which can't be loaded
+	 * @param location the loading type for import statements
+	 * @param threads the maximum number of imports to load at the same time
+	 */
+	public ImportResolver(SemanticFactory semanticFactory, Map<String, ImportMapping> importLocationMap,
+			ImportCache importCache, UrlProbe urlProbe, LoadingLocation location, int threads) {
+		this.semanticFactory = semanticFactory;
+		this.importLocationMap = importLocationMap;
+		this.importCache = importCache;
+		this.urlProbe = urlProbe;
+		this.location = location;
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Recursively load the given imports and their imports, adding all their prefixes to the semantic factory.
+	 *
+	 * @param uriMap the imports to start from, mapping their prefixes to their URIs
+	 * @return the parsed import documents by URI
+	 */
+	public Map<String, Model> resolve(Map<String, String> uriMap) {
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		//keeps track of the imports still being loaded, the resolving thread is the initial party
+		Phaser pending = new Phaser(1);
+		try {
+			submitAll(uriMap, Collections.emptyList(), executor, pending);
+			try {
+				pending.awaitAdvanceInterruptibly(pending.arrive(), timeout, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				logger.warn("Imports still not loaded after {}ms, continuing without them", timeout);
+			}
+			//the semantic factory is only changed here so the imports see the same prefixes while being loaded
+			merge(uriMap, new HashSet<>());
+		} catch (InterruptedException e) {
+			logger.error("Interrupted while resolving imports", e);
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			logger.error("Error resolving imports", e);
+		} finally {
+			executor.shutdownNow();
+		}
+		return Collections.unmodifiableMap(documents);
+	}
+
+	/**
+	 * Set the time to wait for the imports to be loaded. Imports which are still being loaded after this time are
+	 * skipped, as if they could not be opened.
+	 *
+	 * @param timeout the time in ms
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Hand all parsed documents to the document manager so loading the imports doesn't fetch them again.
+	 * The documents are registered under their URIs as well as under the URIs without a trailing separator,
+	 * as that is how they are usually referenced in owl:imports statements.
+	 *
+	 * @param dm the document manager of the ontology model the imports will be loaded into. Model caching is turned
+	 * on for it, so it must not be the global document manager or use the global file manager.
+	 */
+	public void addDocuments(OntDocumentManager dm) {
+		if (documents.isEmpty()) {
+			return;
+		}
+		dm.setCacheModels(true);
+		documents.forEach((uri, doc) -> {
+			dm.addModel(uri, doc, true);
+			if (uri.endsWith("#") || uri.endsWith("/")) {
+				dm.addModel(uri.substring(0, uri.length() - 1), doc, true);
+			}
+		});
+	}
+
+	/**
+	 * Retrieve a list of all the imports from the given model, which have a defined prefix
+	 *
+	 * @param m the model to scan
+	 * @param semanticFactory the factory holding the prefixes which are known already
+	 * @param newOnly return all imports or only new ones (that don't exist in the semantic factory yet)
+	 * @return a map of new imports and their prefixes
+	 */
+	public static Map<String, String> getImports(Model m, SemanticFactory semanticFactory, boolean newOnly) {
+		Map<String, String> importMap = new HashMap<>();
+		Map<String, String> fullMap = m.getNsPrefixMap();
+		NodeIterator imports = m.listObjectsOfProperty(new PropertyImpl(OWL_IMPORTS));
+		while (imports.hasNext()) {
+			RDFNode imp = imports.next();
+			logger.debug("Import found: {}", imp);
+			for (Map.Entry<String, String> entry: fullMap.entrySet()) {
+				//find the import's prefix in the model's mapping...
+				if (entry.getValue().startsWith(imp.toString())
+						//...but only proceed if this import issupposed to be loaded
+						&& (!newOnly || !semanticFactory.containsPrefix(entry.getKey()))) {
+					logger.debug("Using prefix {} for import <{}>", entry.getKey(), entry.getValue());
+					importMap.put(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+		return importMap;
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Start loading the given imports unless they have been requested already
+	 *
+	 * @param uriMap the imports, mapping their prefixes to their URIs
+	 * @param ancestors the URIs of the documents importing these, from the root downwards
+	 * @param executor the executor to load the imports on
+	 * @param pending the phaser to register the loading tasks with
+	 */
+	private void submitAll(Map<String, String> uriMap, List<String> ancestors, ExecutorService executor,
+			Phaser pending) {
+
+		for (Map.Entry<String, String> e: new TreeMap<>(uriMap).entrySet()) {
+
+			String prefix = e.getKey();
+			String uri = e.getValue();
+
+			if (isSkipped(prefix, uri)) {
+				continue;
+			}
+			if (ancestors.contains(uri)) {
+				logger.debug("Cyclic import of <{}> via {}", uri, ancestors);
+				continue;
+			}
+
+			//every document is only requested once, even if it is imported several times
+			CompletableFuture<Import> future = new CompletableFuture<>();
+			if (imports.putIfAbsent(uri, future) != null) {
+				continue;
+			}
+
+			List<String> path = new ArrayList<>(ancestors);
+			path.add(uri);
+			pending.register();
+			executor.execute(() -> {
+				try {
+					Import imp = load(prefix, uri);
+					future.complete(imp);
+					//recurse to retrieve the full tree of namespaces
+					if (imp.model != null && !imp.imports.isEmpty()) {
+						submitAll(imp.imports, path, executor, pending);
+					}
+				} catch (RuntimeException ex) {
+					future.completeExceptionally(ex);
+				} finally {
+					pending.arriveAndDeregister();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Add the prefixes of the loaded imports to the semantic factory, walking the import tree in prefix order
+	 *
+	 * @param uriMap the imports, mapping their prefixes to their URIs
+	 * @param visited the URIs of the imports which have been merged already
+	 */
+	private void merge(Map<String, String> uriMap, Set<String> visited) {
+
+		for (Map.Entry<String, String> e: new TreeMap<>(uriMap).entrySet()) {
+
+			String prefix = e.getKey();
+			String uri = e.getValue();
+
+			if (isSkipped(prefix, uri)) {
+				continue;
+			}
+
+			//imports which are still being loaded have timed out
+			CompletableFuture<Import> future = imports.get(uri);
+			Import imp = future != null && future.isDone() && !future.isCompletedExceptionally()
+					? future.getNow(null) : null;
+			if (imp == null || imp.model == null) {
+				logger.debug("Skipping {}: <{}> can not be opened", prefix, uri);
+				//only add this prefix and ignore its imports
+				semanticFactory.addPrefixURIMapping(prefix, uri);
+				continue;
+			}
+			if (!visited.add(uri)) {
+				continue;
+			}
+			documents.put(uri, imp.model);
+
+			//skip prefixes already processed in an earlier import
+			for (Map.Entry<String, String> e2: new TreeMap<>(imp.model.getNsPrefixMap()).entrySet()) {
+				if (!semanticFactory.containsPrefix(e2.getKey()) && !e2.getKey().isEmpty()) {
+					//add this import's prefixes to the collection
+					//note that one URI can have multiple prefixes but not the other way round.
+					logger.debug("Adding new prefix {}", e2);
+					semanticFactory.addPrefixURIMapping(e2.getKey(), e2.getValue());
+				}
+			}
+
+			merge(imp.imports, visited);
+		}
+	}
+
+	/**
+	 * Whether the import should never be loaded
+	 *
+	 * @param prefix the prefix of the import
+	 * @param uri the URI of the import
+	 * @return whether to skip it
+	 */
+	private boolean isSkipped(String prefix, String uri) {
+		//unloadable imports (e.g. because of timeouts) are configured in the probe's negative cache
+		if (urlProbe.isUnreachable(uri)) {
+			logger.debug("Skipping {}: <{}> is configured as unreachable", prefix, uri);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Parse an import document and find its imports
+	 *
+	 * @param prefix the prefix of the import
+	 * @param uri the URI of the import
+	 * @return the import, without a model if the document could not be found or parsed
+	 */
+	private Import load(String prefix, String uri) {
+
+		logger.debug("Add namespaces from import {}={}", prefix, uri);
+		//is there a mapping for this import? Otherwise use the web address
+		String path = importLocationMap.containsKey(uri) ? importLocationMap.get(uri).getLocation() : uri;
+		Model m = parse(uri, path);
+		if (m == null) {
+			return new Import(null, Collections.emptyMap());
+		}
+		//only recurse into true imports here, not defined prefixes
+		return new Import(m, getImports(m, semanticFactory, true));
+	}
+
+	/**
+	 * Parse an import document from disk or (if allowed) from the web, using the import cache if there is one.
+	 *
+	 * @param uri the URI of the import
+	 * @param path the location to load it from
+	 * @return the parsed model or null if the document could not be found or parsed
+	 */
+	private Model parse(String uri, String path) {
+
+		boolean web = !(new File(path)).exists();
+		if (web && location.getNumVal()%2==0) {
+			logger.debug("<{}> is not on disk and loading from the web is not allowed", path);
+			return null;
+		}
+		//don't try again if the document couldn't be found recently, unless the cache has got a fresh copy
+		if (web && urlProbe.isKnownMissing(path) && (importCache == null || !importCache.isFresh(uri))) {
+			logger.debug("<{}> could not be found recently, not requesting it again", path);
+			return null;
+		}
+		Model m = parseDocument(uri, path);
+		if (web) {
+			urlProbe.record(path, m != null);
+		}
+		return m;
+	}
+
+	/**
+	 * Parse an import document through the import cache or, if there is none, Jena's file manager cache. Documents
+	 * on the web are downloaded with the import cache's timeouts either way.
+	 *
+	 * @param uri the URI of the import
+	 * @param path the location to load it from
+	 * @return the parsed model or null if the document could not be found or parsed
+	 */
+	private Model parseDocument(String uri, String path) {
+		try {
+			if (importCache != null) {
+				return importCache.load(uri, path);
+			}
+			//the file manager's model cache is not thread safe, so only look up the cache through it
+			FileManager fm = FileManager.get();
+			synchronized (fm) {
+				if (fm.hasCachedModel(path)) {
+					return fm.getFromCache(path);
+				}
+			}
+			if (path.startsWith("http://") || path.startsWith("https://")) {
+				return ImportCache.download(uri, path);
+			}
+			return RDFDataMgr.loadModel(path);
+		} catch (RuntimeException ex) {
+			logger.debug("Error loading import <{}> from {}", uri, path, ex);
+			return null;
+		}
+	}
+
+	/**
+	 * A loaded import document together with the imports it declares
+	 */
+	private static class Import {
+
+		private final Model model;
+		private final Map<String, String> imports;
+
+		Import(Model model, Map<String, String> imports) {
+			this.model = model;
+			this.imports = imports;
+		}
+	}
+}
@@ -24,8 +24,9 @@
 /////////////////////////////////////////////////////////////////////////
 package uk.ac.soton.itinnovation.easyjena.core.impl;
 
-import com.hp.hpl.jena.graph.NodeFactory;
+import com.hp.hpl.jena.graph.Graph;
 import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.graph.compose.Difference;
 import com.hp.hpl.jena.ontology.OntDocumentManager;
 import com.hp.hpl.jena.ontology.OntModel;
 import com.hp.hpl.jena.ontology.OntModelSpec;
@@ -37,21 +38,15 @@ import com.hp.hpl.jena.query.QueryFactory;
 import com.hp.hpl.jena.query.QuerySolution;
 import com.hp.hpl.jena.query.QuerySolutionMap;
 import com.hp.hpl.jena.query.ResultSet;
-import com.hp.hpl.jena.rdf.model.AnonId;
 import com.hp.hpl.jena.rdf.model.InfModel;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.ModelFactory;
-import com.hp.hpl.jena.rdf.model.NodeIterator;
 import com.hp.hpl.jena.rdf.model.RDFNode;
 import com.hp.hpl.jena.rdf.model.RDFWriter;
 import com.hp.hpl.jena.rdf.model.ResourceRequiredException;
 import com.hp.hpl.jena.rdf.model.Statement;
 import com.hp.hpl.jena.rdf.model.StmtIterator;
-import com.hp.hpl.jena.rdf.model.impl.LiteralImpl;
-import com.hp.hpl.jena.rdf.model.impl.ModelCom;
-import com.hp.hpl.jena.rdf.model.impl.PropertyImpl;
 import com.hp.hpl.jena.rdf.model.impl.ResourceImpl;
-import com.hp.hpl.jena.rdf.model.impl.StatementImpl;
 import com.hp.hpl.jena.reasoner.Reasoner;
 import com.hp.hpl.jena.reasoner.ReasonerRegistry;
 import com.hp.hpl.jena.reasoner.ValidityReport;
@@ -71,8 +66,6 @@ import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
-import java.net.HttpURLConnection;
-import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
@@ -85,6 +78,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -128,6 +125,16 @@ public class JenaOntologyManager {
 
 	//constant for the source location option
 	private static final String SOURCE_PATH = "easyjena.sourcePath";
+	//constants for loading from a store
+	private static final String STORE_PAGE_SIZE = "easyjena.store.pageSize";
+	private static final String STORE_LOAD_THREADS = "easyjena.store.loadThreads";
+	private static final int DEFAULT_STORE_PAGE_SIZE = 10000;
+	private static final int DEFAULT_STORE_LOAD_THREADS = 4;
+	private static final String IMPORT_THREADS = "easyjena.imports.threads";
+	private static final int DEFAULT_IMPORT_THREADS = 4;
+	private static final String IMPORT_TIMEOUT = "easyjena.imports.timeout";
+	private static final int DEFAULT_IMPORT_TIMEOUT = 300000;
+	private static final String IMPORT_VIEW = "easyjena.imports.view";
 	//constant for owl:imports URI
 	private static final String OWL_IMPORTS = "http://www.w3.org/2002/07/owl#imports";
 	//max number of spin classification re-runs before stopping to prevent an endless loop
@@ -140,6 +147,9 @@ public class JenaOntologyManager {
 	protected Model tmpModel;
 	//keeps track of all the import mappings where the ontology type differs from the URI
 	protected Map<String, ImportMapping> importLocationMap;
+	//parsed imports kept on disk between runs; null if no cache directory has been configured
+	protected ImportCache importCache;
+	protected UrlProbe urlProbe;
 
 	/**
 	 * Creates an "empty" JenaOntologyManager.
@@ -149,6 +159,7 @@ public class JenaOntologyManager {
 		clear();
 		props = new Properties();
 		props.setProperty(SOURCE_PATH, "");
+		urlProbe = UrlProbe.fromProperties(props);
 	}
 
 	/**
@@ -220,7 +231,7 @@ public class JenaOntologyManager {
 
 		//web
 		if (!found && (type.getNumVal()%2)!=0) {
-			found = urlExists(location);
+			found = urlProbe.exists(location);
 			if (found) {
 				absolutePath = location;
 				logger.debug("Alternative URI <{}> specified for ontology <{}>", location, uri);
@@ -600,47 +611,187 @@ public class JenaOntologyManager {
 		store.loadNamespaces();
 		logger.debug("prefix map from store: {}", store.getPrefixURIMap().entrySet());
 
-		//TODO: too slow - takes about 4 minutes for ~40k triples
-		//String rdf = store.getRDF();
-		//logger.debug(rdf);
-		//loadOntology(rdf, baseURI, LoadingLocation.NONE);
-		List<Map<String, String>> result = store.translateSelectResult(
-			store.querySelect("SELECT * WHERE { ?s ?p ?o }")
-		);
-		if (result == null) {
-			logger.error("The result for this SELECT query was null");
+		long start = System.currentTimeMillis();
+		if (store.exportGraph(null, null, m.getGraph())) {
+			logger.debug("Exported {} triples from the store in {}ms", m.size(), System.currentTimeMillis() - start);
+			return loadOntologyModel(m, null, location);
+		}
+		//the store couldn't export the triples directly, so select them page by page
+		m.removeAll();
+
+		int pageSize = getIntProperty(STORE_PAGE_SIZE, DEFAULT_STORE_PAGE_SIZE);
+		long expected = countStoreTriples(store);
+		long loaded;
+		if (pageSize <= 0) {
+			loaded = loadStorePage(store, "SELECT ?s ?p ?o WHERE { ?s ?p ?o }", m.getGraph());
+		} else {
+			loaded = loadStorePages(store, pageSize, m.getGraph());
+		}
+
+		if (loaded < 0) {
+			logger.error("Could not load the ontology from the store");
 			return null;
+		} else if (expected >= 0 && loaded != expected) {
+			//all queries succeeded, so the store has been changed in the meantime
+			logger.warn("Loaded {} triples but the store reported {}", loaded, expected);
 		}
-		Iterator<Map<String, String>> it = result.iterator();
-		while (it.hasNext()) {
-			Map<String, String> row = it.next();
-
-			//might be URI or blank
-			String subject = row.get("s");
-			ResourceImpl subj;
-			if (subject.startsWith("_")) {
-				subj = new ResourceImpl(new AnonId(subject));
-			} else {
-				subj = new ResourceImpl(subject);
+		logger.debug("Loaded {} triples from the store in {}ms", loaded, System.currentTimeMillis() - start);
+
+		return loadOntologyModel(m, null, location);
+	}
+
+	/**
+	 * Load all triples from the store, a fixed number of subjects at a time. The subjects of each page are selected
+	 * in the store's own order, starting after the last subject of the previous page, so the store doesn't have to
+	 * skip the subjects it has already returned. While the next page's subjects are being selected, the triples of
+	 * the previous pages are loaded concurrently. Blank node subjects can't be paged like this and are loaded with a
+	 * single query.
+	 *
+	 * @param store the store to load from
+	 * @param pageSize the number of subjects per page
+	 * @param graph the graph to add the triples to
+	 * @return the number of triples received or -1 if any of the queries failed
+	 */
+	private long loadStorePages(IStoreWrapper store, int pageSize, Graph graph) {
+
+		int threads = Math.max(1, getIntProperty(STORE_LOAD_THREADS, DEFAULT_STORE_LOAD_THREADS));
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Long>> pages = new ArrayList<>();
+		try {
+			pages.add(executor.submit(() -> loadStorePage(store,
+					"SELECT ?s ?p ?o WHERE { ?s ?p ?o FILTER(isBlank(?s)) }", graph)));
+
+			String last = null;
+			int subjects;
+			do {
+				//the last row of the ordered subjects is where the next page starts
+				StringBuilder sparql = new StringBuilder("SELECT DISTINCT ?s WHERE { ?s ?p ?o FILTER(isIRI(?s)");
+				appendSubjectBound(sparql, " > ", last);
+				sparql.append(") } ORDER BY STR(?s) LIMIT ").append(pageSize);
+				String[] bound = {null};
+				int[] count = {0};
+				if (!store.querySelect(sparql.toString(), solution -> {
+					bound[0] = solution.getResource("s").getURI();
+					count[0]++;
+					return true;
+				})) {
+					logger.error("Could not select the subjects to load from the store using query {}", sparql);
+					return -1;
+				}
+				subjects = count[0];
+
+				if (subjects > 0) {
+					StringBuilder page = new StringBuilder("SELECT ?s ?p ?o WHERE { ?s ?p ?o FILTER(isIRI(?s)");
+					appendSubjectBound(page, " > ", last);
+					appendSubjectBound(page, " <= ", bound[0]);
+					page.append(") }");
+					pages.add(executor.submit(() -> loadStorePage(store, page.toString(), graph)));
+					last = bound[0];
+				}
+			} while (subjects >= pageSize);
+
+			long loaded = 0;
+			for (Future<Long> page : pages) {
+				long triples = page.get();
+				if (triples < 0) {
+					return -1;
+				}
+				loaded += triples;
 			}
-			//always URI
-			String predicate = row.get("p");
-			//might be URI, blank or literal
-			String object = row.get("o");
-			RDFNode obj;
-			if (object.startsWith("_")) {
-				obj = new ResourceImpl(new AnonId(object));
-				//TODO: find a better solution
-			} else if (object.contains("^^") || (object.trim().startsWith("\"") && object.trim().endsWith("\""))) {
-				obj = new LiteralImpl(NodeFactory.createLiteral(object), new ModelCom(m.getGraph()));
-			} else {
-				obj = new ResourceImpl(object);
+			return loaded;
+		} catch (InterruptedException e) {
+			logger.error("Interrupted while loading from the store", e);
+			Thread.currentThread().interrupt();
+			return -1;
+		} catch (ExecutionException e) {
+			logger.error("Could not load from the store", e.getCause());
+			return -1;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Append a comparison of the subject's URI to a filter. The comparison is done by the store, so it matches the
+	 * order the store returns the subjects in.
+	 *
+	 * @param sparql the query to append to
+	 * @param operator the comparison operator, surrounded by spaces
+	 * @param uri the URI to compare the subject to; nothing is appended if this is null
+	 */
+	private static void appendSubjectBound(StringBuilder sparql, String operator, String uri) {
+		if (uri != null) {
+			sparql.append(" && STR(?s)").append(operator);
+			SparqlSerialiser.appendLiteral(sparql, uri);
+		}
+	}
+
+	/**
+	 * Run a SELECT query for ?s ?p ?o and add the resulting triples to the graph. Several pages may be loaded
+	 * into the same graph at the same time.
+	 *
+	 * @param store the store to query
+	 * @param sparql the query
+	 * @param graph the graph to add the triples to
+	 * @return the number of triples received or -1 if the query failed
+	 */
+	private long loadStorePage(IStoreWrapper store, String sparql, Graph graph) {
+
+		long[] count = {0};
+		boolean success = store.querySelect(sparql, solution -> {
+			Triple t = Triple.create(solution.get("s").asNode(), solution.get("p").asNode(),
+					solution.get("o").asNode());
+			//graphs are not thread safe
+			synchronized (graph) {
+				graph.add(t);
 			}
+			count[0]++;
+			return true;
+		});
+		if (!success) {
+			logger.error("Could not load triples from the store using query {}", sparql);
+			return -1;
+		}
+		return count[0];
+	}
+
+	/**
+	 * Count the triples in the store
+	 *
+	 * @param store the store
+	 * @return the number of triples or -1 if the store didn't return a number
+	 */
+	private long countStoreTriples(IStoreWrapper store) {
+
+		long[] count = {-1};
+		store.querySelect("SELECT (COUNT(*) AS ?n) WHERE { ?s ?p ?o }", solution -> {
+			if (solution.contains("n") && solution.get("n").isLiteral()) {
+				count[0] = solution.getLiteral("n").getLong();
+			}
+			return false;
+		});
+		return count[0];
+	}
+
+	/**
+	 * Get a numeric property
+	 *
+	 * @param key the name of the property
+	 * @param defaultValue the value to use if the property is not set or invalid
+	 * @return the value
+	 */
+	private int getIntProperty(String key, int defaultValue) {
 
-			Statement s = new StatementImpl(subj, new PropertyImpl(predicate), obj);
-			m.add(s);
+		String value = props.getProperty(key);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			logger.warn("Invalid value {} for property {}, using {}", value, key, defaultValue);
+			return defaultValue;
 		}
-		return loadOntologyModel(m, null, location);
 	}
 
 	/**
@@ -682,58 +833,34 @@ public class JenaOntologyManager {
 			//collect imports
 			Map<String, String> startMap = new HashMap<>();
 
-			//iterate over all imports. key is the short prefix, value is the IRI, then recursively load imports.
-			Iterator<Map.Entry<String, String>> it = getImports(m, false).entrySet().iterator();
-			while (it.hasNext()) {
+			//iterate over all imports. key is the short prefix, value is the IRI
+			for (Map.Entry<String, String> s: ImportResolver.getImports(m, semanticFactory, false).entrySet()) {
 
-				Map.Entry<String, String> s = it.next();
 				logger.debug("Next namespace: " + s.toString());
 
-				//prepare variables
-				String prefix = s.getKey();
-				String iri = s.getValue();
-
 				//collect import in map
-				startMap.put(prefix, iri);
+				startMap.put(s.getKey(), s.getValue());
 
 				//already add to namespaces map (grab every namespace here we can get for a better factory)
-				semanticFactory.addPrefixURIMapping(prefix, iri);
-
-				//skip base ontology and ignore existing mappings
-				if (prefix.isEmpty() || importLocationMap.containsKey(iri)
-						//TODO: is there a better way to skip ontotext ontologies because of timeout?
-						|| ("pext".equals(prefix) && "http://proton.semanticweb.org/protonext#".equals(iri))
-						|| ("psys".equals(prefix) && "http://proton.semanticweb.org/protonsys#".equals(iri))) {
-					continue;
-				}
-
-				//if no mapping exists, use default location setting
-				if (!importLocationMap.containsKey(iri)) {
-
-					boolean found = false;
-
-					//the obvious choice: load from web if allowed
-					if (loc.getNumVal()%2!=0) {
-						logger.debug("Trying to load <{}> from web...", iri);
-						//Check URL exists. This is not a duplicate of the checking method in addImportLocationMapping()
-						//but a complement. This check is for ontologies, for which no mapping has been added.
-						found = urlExists(iri);
-					}
-
-					//unless the mapping has been specified prior to this method being called, we have no way of
-					//knowing where to load from.
-					if (!found) {
-						logger.debug("Import <{}> could not be found", iri);
-					}
-				}
+				semanticFactory.addPrefixURIMapping(s.getKey(), s.getValue());
 			}
 
-			//recursively add namespaces, starting with the original ontology's imports
-			addImportNamespaces(startMap, loc);
+			//recursively add namespaces, starting with the original ontology's imports. Each import is only parsed
+			//once here (several at a time), the parsed documents are then handed to the document manager for
+			//loading the imports
+			ImportResolver resolver = new ImportResolver(semanticFactory, importLocationMap, importCache, urlProbe,
+					loc, getIntProperty(IMPORT_THREADS, DEFAULT_IMPORT_THREADS));
+			resolver.setTimeout(getIntProperty(IMPORT_TIMEOUT, DEFAULT_IMPORT_TIMEOUT));
+			resolver.resolve(startMap);
 
 			//create temporary OntModel for access to document manager (needed for loading imports)
 			//OWL_MEM_RDFS_INF prevents SPIN rules from running
-			OntModel ontModel = JenaUtil.createOntologyModel(OntModelSpec.OWL_MEM, JenaUtil.createDefaultModel());
+			//the document manager and its file manager are private to this model, so the parsed imports handed to
+			//it are not cached for the whole JVM; the file manager copies the global locators and location mappings
+			OntModelSpec spec = new OntModelSpec(OntModelSpec.OWL_MEM);
+			spec.setDocumentManager(new OntDocumentManager(new FileManager(FileManager.get()),
+					OntDocumentManager.DEFAULT_METADATA_PATH));
+			OntModel ontModel = JenaUtil.createOntologyModel(spec, JenaUtil.createDefaultModel());
 			OntDocumentManager dm = ontModel.getDocumentManager();
 
 			//write mappings to Jena's document manager
@@ -760,6 +887,9 @@ public class JenaOntologyManager {
 				logger.debug("No import documents mapped to disk for this ontology");
 			}
 
+			//hand the parsed imports to the document manager so they aren't fetched and parsed again
+			resolver.addDocuments(dm);
+
 			//imports should be sorted now, so model can be put into ontmodel
 			ontModel.add(m);
 
@@ -786,20 +916,27 @@ public class JenaOntologyManager {
 					ontologies.add(o.getURI());
 				}
 			}
-			//--find all ontology statements
-			Set<Statement> ontStatements = new HashSet<>();
-			ontModel.listStatements().toList().stream().filter(s ->
-				ontologies.contains(s.getSubject().toString())).forEach(s -> ontStatements.add(s)
-			);
-			//--remove them
-			ontStatements.stream().filter(s -> ontModel.contains(s)).forEach(s -> {
-				logger.debug("Removing ontology statement {}", s.toString());
-				ontModel.remove(s);
-			});
-			ontModel.rebind();
-
-			//write contents of ontModel back to "normal" Jena model for return
-			loadedModel = JenaUtil.createDefaultModel().add(ontModel);
+			//--find all ontology statements (only the statements about them, without scanning the whole model)
+			Model ontStatements = JenaUtil.createDefaultModel();
+			ontologies.forEach(o -> ontStatements.add(ontModel.listStatements(ontModel.getResource(o), null,
+					(RDFNode) null)));
+
+			if (Boolean.parseBoolean(props.getProperty(IMPORT_VIEW, "false").trim())) {
+				//--hide them in a view of the ontology and its imports instead of copying all triples
+				logger.debug("Hiding {} ontology statements", ontStatements.size());
+				loadedModel = ModelFactory.createModelForGraph(new Difference(ontModel.getGraph(),
+						ontStatements.getGraph()));
+			} else {
+				//--remove them
+				ontStatements.listStatements().toList().stream().filter(s -> ontModel.contains(s)).forEach(s -> {
+					logger.debug("Removing ontology statement {}", s.toString());
+					ontModel.remove(s);
+				});
+				ontModel.rebind();
+
+				//write contents of ontModel back to "normal" Jena model for return
+				loadedModel = JenaUtil.createDefaultModel().add(ontModel);
+			}
 
 			//take care of prefixes separately as this doesn't happen automatically
 			loadedModel.setNsPrefixes(semanticFactory.getNamespaces());
@@ -1688,150 +1825,6 @@ public class JenaOntologyManager {
 		return newTriplesNum;
 	}
 
-	/**
-	 * Recursively searches all the prefixes and adds them to the internal map, using the mappings
-	 * to files on disk if they exist.
-	 *
-	 * @param uriMap the NSPrefixMap of the current ontology
-	 */
-	private void addImportNamespaces(Map<String, String> uriMap, LoadingLocation location) {
-
-		try {
-			Iterator<Map.Entry<String, String>> it = uriMap.entrySet().iterator();
-			while (it.hasNext()) {
-				Map.Entry<String, String> e = it.next();
-				//it.remove();
-				//skip unloadable prefixes (timeout)
-				//TODO: better solution for breaking off at an invalid XML document?
-				if ("xsd".equals(e.getKey()) || "fn".equals(e.getKey()) || "xml".equals(e.getKey())) {
-					continue;
-				}
-				logger.debug("Add namespaces from import {}", e.toString());
-				String path;
-				//is there a mapping for this import?
-				if (importLocationMap.containsKey(e.getValue())) {
-					//local location
-					path = importLocationMap.get(e.getValue()).getLocation();
-					//logger.debug("Key {} contained, location {}", e.getKey(), location);
-				} else {
-					//web address
-					path = e.getValue();
-					//logger.debug("Key {} not contained, location {}", e.getKey(), location);
-				}
-
-				//add to semantic factory if the file can be loaded locally or from URL (considering location!)
-				if ((new File(path)).exists() || (location.getNumVal()%2!=0 && urlExists(path))) {
-
-					//actually load the import to look at its defined prefixes and imports
-					Model m = FileManager.get().loadModel(path);
-
-					//skip prefixes already processed in an earlier import
-					for (Map.Entry<String, String> e2: m.getNsPrefixMap().entrySet()) {
-						if (!semanticFactory.containsPrefix(e2.getKey()) && !e2.getKey().isEmpty()) {
-							//add this import's prefixes to the collection
-							//note that one URI can have multiple prefixes but not the other way round.
-							logger.debug("Adding new prefix {}", e2);
-							semanticFactory.addPrefixURIMapping(e2.getKey(), e2.getValue());
-						}
-					}
-
-					//recurse to retrieve the full tree of namespaces
-					//only recurse into true imports here, not defined prefixes
-					Map<String, String> importMap = getImports(m, true);
-					if (!importMap.isEmpty()) {
-						addImportNamespaces(importMap, location);
-					}
-
-				} else {
-					logger.debug("Skipping {}: {} can not be opened", e.getKey(), path);
-					//only add this prefix and ignore its imports
-					semanticFactory.addPrefixURIMapping(e.getKey(), e.getValue());
-				}
-			}
-		} catch (Exception e) {
-			logger.error("Error adding import namespaces", e);
-		}
-	}
-
-	/**
-	 * Checks whether the given URL exists and represents a valid ontology file
-	 *
-	 * @param location the URL to test
-	 * @return whether it exists and is valid or not
-	 */
-	private boolean urlExists(String location) {
-
-		boolean found = false;
-		try {
-			//Check if the URL is valid, i.e. exists
-			URL url = new URL(location);
-			HttpURLConnection huc = (HttpURLConnection) url.openConnection();
-			huc.setRequestMethod("GET");
-			//don't actually load the file, only connect so the HTTP resonse code can be retrieved
-			huc.connect();
-			int responseCode = huc.getResponseCode();
-			String responseMsg = huc.getResponseMessage();
-
-			//if the URI exists
-			if (responseCode == 200) {
-
-				//load file and check whether it's in an allowed format
-				String contentType = huc.getContentType();
-				//logger.debug("Content type: {}", contentType);
-				String[] allowedContentTypes = {"application/rdf+xml;", "text/turtle", "text/plain", "text/html"};
-				for (String act : allowedContentTypes) {
-					if (contentType.contains(act)) {
-						found = true;
-						break;
-					}
-				}
-
-				//TODO: open file and do sanity check and if it fails set found to false again
-
-				if (!found) {
-					logger.debug("Wrong content type ({}): the document found at URL <{}> " +
-							"is not a valid ontology file", contentType, location);
-				}
-
-			//HTTP error encountered
-			} else {
-				logger.debug("Could not find ontology at given URL, HTTP error code: {} - {}", responseCode, responseMsg);
-			}
-
-		} catch (MalformedURLException e) {
-			logger.debug("URL <{}> is invalid", location, e);
-		} catch (IOException e) {
-			logger.debug("Error loading ontology from URL <{}>", location, e);
-		}
-		return found;
-	}
-
-	/**
-	 * Retrieve a list of all the imports from the given model, which have a defined prefix
-	 * @param m the model to scan
-	 * @param newOnly return all imports or only new ones (that don't exist in the semantic factory yet)
-	 * @return a map of new imports and their prefixes
-	 */
-	private Map<String, String> getImports(Model m, boolean newOnly) {
-		Map<String, String> importMap = new HashMap<>();
-		Map<String, String> fullMap = m.getNsPrefixMap();
-		NodeIterator imports = m.listObjectsOfProperty(new PropertyImpl(OWL_IMPORTS));
-		while (imports.hasNext()) {
-			RDFNode imp = imports.next();
-			logger.debug("Import found: {}", imp);
-			for (Map.Entry<String, String> entry: fullMap.entrySet()) {
-				//find the import's prefix in the model's mapping...
-				if (entry.getValue().startsWith(imp.toString())
-						//...but only proceed if this import issupposed to be loaded
-						&& (!newOnly || !semanticFactory.containsPrefix(entry.getKey()))) {
-					logger.debug("Using prefix {} for import <{}>", entry.getKey(), entry.getValue());
-					importMap.put(entry.getKey(), entry.getValue());
-				}
-			}
-		}
-		return importMap;
-	}
-
 	// GETTERS / SETTERS //////////////////////////////////////////////////////////////////////////
 	/**
 	 * Returns a mapping between URIs (long prefix) and the type on disk from which the ontology
@@ -1900,6 +1893,8 @@ public class JenaOntologyManager {
 			logger.info("No {} defined. Using default (empty) source path.", SOURCE_PATH);
 			props.setProperty(SOURCE_PATH, "");
 		}
+		importCache = ImportCache.fromProperties(props);
+		urlProbe = UrlProbe.fromProperties(props);
 	}
 
 	/**
@@ -1926,6 +1921,11 @@ public class JenaOntologyManager {
 			setProps(new Properties());
 		}
 		this.getProps().setProperty(key, value);
+		if (key.startsWith("easyjena.imports.cache.")) {
+			importCache = ImportCache.fromProperties(props);
+		} else if (key.startsWith("easyjena.urlprobe.")) {
+			urlProbe = UrlProbe.fromProperties(props);
+		}
 	}
 
 	/**
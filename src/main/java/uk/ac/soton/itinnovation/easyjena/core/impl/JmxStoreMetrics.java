@@ -0,0 +1,188 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.core.spec.IStoreMetricsMXBean;
+
+/**
+ * Publishes a metrics registry as an MXBean on the platform MBean server, so it can be watched with JConsole,
+ * VisualVM or any JMX based monitoring system. The bean is registered as
+ * uk.ac.soton.itinnovation.easyjena:type=StoreMetrics,name=...
+ */
+public class JmxStoreMetrics implements IStoreMetricsMXBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(JmxStoreMetrics.class);
+
+	public static final String DOMAIN = "uk.ac.soton.itinnovation.easyjena";
+
+	private final StoreMetrics metrics;
+	private final ObjectName objectName;
+
+	/**
+	 * Create the adapter for a registry. It has to be registered to be visible.
+	 *
+	 * @param metrics the registry to publish
+	 * @param name the name distinguishing this registry from others, e.g. the name of the store
+	 * @throws IllegalArgumentException if the name can't be used in a JMX object name
+	 */
+	public JmxStoreMetrics(StoreMetrics metrics, String name) {
+		this.metrics = metrics;
+		try {
+			objectName = new ObjectName(DOMAIN + ":type=StoreMetrics,name=" + ObjectName.quote(name));
+		} catch (JMException e) {
+			throw new IllegalArgumentException("Invalid name for store metrics: " + name, e);
+		}
+	}
+
+	/**
+	 * Publish a registry
+	 *
+	 * @param metrics the registry
+	 * @param name the name distinguishing this registry from others
+	 * @return the registered adapter
+	 */
+	public static JmxStoreMetrics register(StoreMetrics metrics, String name) {
+		JmxStoreMetrics jmx = new JmxStoreMetrics(metrics, name);
+		jmx.register();
+		return jmx;
+	}
+
+	/**
+	 * Register the bean on the platform MBean server, replacing any bean of the same name
+	 */
+	public void register() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+			server.registerMBean(this, objectName);
+			logger.debug("Registered store metrics as {}", objectName);
+		} catch (JMException e) {
+			logger.error("Could not register store metrics as {}", objectName, e);
+		}
+	}
+
+	/**
+	 * Remove the bean from the platform MBean server
+	 */
+	public void unregister() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+		} catch (JMException e) {
+			logger.error("Could not unregister store metrics {}", objectName, e);
+		}
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Summarise a set of histograms
+	 *
+	 * @param histograms the histograms
+	 * @return the summaries by key
+	 */
+	private static Map<String, OperationStatistics> summarise(Map<String, LatencyHistogram> histograms) {
+		Map<String, OperationStatistics> result = new HashMap<>();
+		histograms.entrySet().stream().forEach(e -> result.put(e.getKey(), OperationStatistics.of(e.getValue())));
+		return result;
+	}
+
+	// Getters ////////////////////////////////////////////////////////////////////////////////////
+	public ObjectName getObjectName() {
+		return objectName;
+	}
+
+	@Override
+	public Map<String, OperationStatistics> getOperations() {
+		return summarise(metrics.getOperations());
+	}
+
+	@Override
+	public Map<String, OperationStatistics> getRequests() {
+		return summarise(metrics.getRequests());
+	}
+
+	@Override
+	public Map<String, Long> getRows() {
+		return metrics.getRows();
+	}
+
+	@Override
+	public Map<String, Long> getBytesSent() {
+		return metrics.getBytesSent();
+	}
+
+	@Override
+	public Map<String, Long> getBytesReceived() {
+		return metrics.getBytesReceived();
+	}
+
+	@Override
+	public Map<String, Long> getRetries() {
+		return metrics.getRetries();
+	}
+
+	@Override
+	public List<String> getSlowStatements() {
+		return metrics.getSlowStatements();
+	}
+
+	@Override
+	public int getPoolLeased() {
+		return metrics.getPoolLeased();
+	}
+
+	@Override
+	public int getPoolAvailable() {
+		return metrics.getPoolAvailable();
+	}
+
+	@Override
+	public int getPoolPending() {
+		return metrics.getPoolPending();
+	}
+
+	@Override
+	public int getPoolMax() {
+		return metrics.getPoolMax();
+	}
+
+	@Override
+	public void reset() {
+		metrics.reset();
+	}
+}
@@ -0,0 +1,131 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free latency histogram with exponential buckets: bucket i counts durations of less than 2^i microseconds.
+ * Percentiles are therefore accurate to within a factor of two, which is enough to tell slow operations apart
+ * while costing only a few atomic increments per measurement.
+ */
+public class LatencyHistogram {
+
+	//2^40 us is more than 12 days
+	private static final int BUCKETS = 41;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder totalMicros = new LongAdder();
+	private final AtomicLong maxMicros = new AtomicLong();
+
+	/**
+	 * Record a measurement
+	 *
+	 * @param nanos the duration in ns
+	 * @param success false to count the measurement as an error as well
+	 */
+	public void record(long nanos, boolean success) {
+
+		long micros = Long.max(0, nanos / 1000);
+		int bucket = Integer.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+		buckets.incrementAndGet(bucket);
+		count.increment();
+		totalMicros.add(micros);
+		if (!success) {
+			errors.increment();
+		}
+		long max = maxMicros.get();
+		while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+			max = maxMicros.get();
+		}
+	}
+
+	/**
+	 * Estimate a percentile
+	 *
+	 * @param percentile the percentile between 0 and 100
+	 * @return the upper bound of the bucket containing the percentile in ms; 0 if nothing has been recorded
+	 */
+	public double getPercentile(double percentile) {
+
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(total * percentile / 100);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank && counts[i] > 0) {
+				//never report more than the actual maximum
+				return Double.min((1L << i) / 1000.0, getMax());
+			}
+		}
+		return getMax();
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	/**
+	 * Get the mean duration
+	 *
+	 * @return the mean in ms
+	 */
+	public double getMean() {
+		long n = count.sum();
+		return n > 0 ? totalMicros.sum() / 1000.0 / n : 0;
+	}
+
+	/**
+	 * Get the longest duration
+	 *
+	 * @return the maximum in ms
+	 */
+	public double getMax() {
+		return maxMicros.get() / 1000.0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d errors=%d mean=%.1fms p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms",
+				getCount(), getErrors(), getMean(), getPercentile(50), getPercentile(95), getPercentile(99),
+				getMax());
+	}
+}
@@ -0,0 +1,747 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.GraphUtil;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.NodeFactory;
+import com.hp.hpl.jena.query.Dataset;
+import com.hp.hpl.jena.query.DatasetFactory;
+import com.hp.hpl.jena.query.Query;
+import com.hp.hpl.jena.query.QueryExecution;
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.query.QueryFactory;
+import com.hp.hpl.jena.query.QuerySolution;
+import com.hp.hpl.jena.query.QuerySolutionMap;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.shared.Lock;
+import com.hp.hpl.jena.shared.PrefixMapping;
+import com.hp.hpl.jena.shared.impl.PrefixMappingImpl;
+import com.hp.hpl.jena.sparql.util.NodeFactoryExtra;
+import com.hp.hpl.jena.update.UpdateAction;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.RDFLanguages;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.core.spec.AStoreWrapper;
+import uk.ac.soton.itinnovation.easyjena.core.spec.ISelectResultHandler;
+import uk.ac.soton.itinnovation.easyjena.core.spec.IStoreMetrics;
+
+/**
+ * This class provides a store running in the same JVM, backed by a Jena dataset with named graphs. Queries and
+ * updates are executed directly on the dataset, so nothing is serialised. It can be used as an embedded store or
+ * as a stand-in for a remote store in tests and benchmarks.
+ *
+ * The dataset is protected by its multiple reader/single writer lock: any number of queries can run at the same
+ * time, while updates are exclusive. Subclasses can use transactions instead by overriding the begin/end methods.
+ */
+public class LocalStoreWrapper extends AStoreWrapper {
+
+	private static final Logger logger = LoggerFactory.getLogger(LocalStoreWrapper.class);
+
+	protected final Dataset dataset;
+
+	/**
+	 * Creates a store holding all data in memory
+	 */
+	public LocalStoreWrapper() {
+		this(DatasetFactory.createMem());
+	}
+
+	/**
+	 * Creates a store backed by the given dataset
+	 *
+	 * @param dataset the dataset containing the data
+	 */
+	public LocalStoreWrapper(Dataset dataset) {
+		super();
+		this.dataset = dataset;
+	}
+
+	// Graph management ///////////////////////////////////////////////////////////////////////////
+	@Override
+	public boolean graphExists(String graphURI) {
+		return read(() -> graphURI == null || dataset.containsNamedModel(graphURI));
+	}
+
+	@Override
+	public void createGraph(String graphURI) {
+		logger.debug("Creating graph <{}>", graphURI);
+		write(() -> {
+			if (!dataset.containsNamedModel(graphURI)) {
+				dataset.addNamedModel(graphURI, ModelFactory.createDefaultModel());
+			}
+		});
+	}
+
+	@Override
+	public void clearGraph(String graphURI) {
+		logger.debug("Clearing graph <{}>", graphURI);
+		write(() -> {
+			if (graphURI == null || dataset.containsNamedModel(graphURI)) {
+				getModel(graphURI).removeAll();
+			}
+		});
+	}
+
+	@Override
+	public void deleteGraph(String graphURI) {
+		logger.debug("Deleting graph <{}>", graphURI);
+		write(() -> {
+			if (graphURI == null) {
+				dataset.getDefaultModel().removeAll();
+			} else if (dataset.containsNamedModel(graphURI)) {
+				dataset.removeNamedModel(graphURI);
+			}
+		});
+	}
+
+	@Override
+	public int getCount(String graphURI) {
+		return read(() -> {
+			if (graphURI != null && !dataset.containsNamedModel(graphURI)) {
+				return 0;
+			}
+			return (int) Long.min(Integer.MAX_VALUE, getModel(graphURI).size());
+		});
+	}
+
+	// General actions ////////////////////////////////////////////////////////////////////////////
+	@Override
+	public void connect() {
+		//the dataset is always available
+		connected = true;
+	}
+
+	@Override
+	public void disconnect() {
+		//the data is kept so the store can be connected again
+		connected = false;
+	}
+
+	/**
+	 * Adds the prefixes declared in the dataset's default model to the prefixes used for querying
+	 */
+	@Override
+	public void loadNamespaces() {
+		Map<String, String> prefixes = read(() -> dataset.getDefaultModel().getNsPrefixMap());
+		prefixes.entrySet().stream().filter(e -> !prefixURIMap.containsKey(e.getKey())).forEach(e -> {
+			prefixURIMap.put(e.getKey(), e.getValue());
+			sparqlPrefixes += "PREFIX " + e.getKey() + ":<" + e.getValue() + ">\n";
+		});
+	}
+
+	@Override
+	public List<Map<String, String>> querySelect(String sparql) {
+
+		List<Map<String, String>> results = new LinkedList<>();
+		querySelect(sparql, row -> {
+			//for each solution create a hashmap containing all the variables bound in the solution
+			Map<String, String> r = new HashMap<>();
+			row.varNames().forEachRemaining(var -> r.put(var, row.get(var).toString()));
+			results.add(r);
+			return true;
+		});
+		return results;
+	}
+
+	/**
+	 * Runs a SELECT query, passing the solutions to the handler while they are being computed. The store is locked
+	 * for reading in the meantime, so the handler must not change the store.
+	 *
+	 * @param sparql the SPARQL SELECT query (doesn't need prefix statements if previously specified)
+	 * @param handler receives the solutions one by one
+	 * @return whether the query was executed
+	 */
+	@Override
+	public boolean querySelect(String sparql, ISelectResultHandler handler) {
+
+		Query query = parseQuery(sparql);
+		if (query == null || !query.isSelectType()) {
+			logger.error("Invalid SELECT query:\n{}", sparql);
+			return false;
+		}
+		return select(query, null, sparql, handler);
+	}
+
+	@Override
+	public Model queryConstruct(String sparql) {
+
+		Query query = parseQuery(sparql);
+		if (query == null || !query.isConstructType()) {
+			logger.error("Invalid CONSTRUCT query:\n{}", sparql);
+			return null;
+		}
+		return read(IStoreMetrics.CONSTRUCT, sparql, () -> {
+			QueryExecution qe = createExecution(query, null);
+			try {
+				return qe.execConstruct();
+			} finally {
+				qe.close();
+			}
+		});
+	}
+
+	@Override
+	public Model queryDescribe(String sparql) {
+
+		Query query = parseQuery(sparql);
+		if (query == null || !query.isDescribeType()) {
+			logger.error("Invalid DESCRIBE query:\n{}", sparql);
+			return null;
+		}
+		return read(IStoreMetrics.DESCRIBE, sparql, () -> {
+			QueryExecution qe = createExecution(query, null);
+			try {
+				return qe.execDescribe();
+			} finally {
+				qe.close();
+			}
+		});
+	}
+
+	@Override
+	public boolean queryAsk(String sparql) {
+
+		Query query = parseQuery(sparql);
+		if (query == null || !query.isAskType()) {
+			logger.error("Invalid ASK query:\n{}", sparql);
+			return false;
+		}
+		return read(IStoreMetrics.ASK, sparql, () -> {
+			QueryExecution qe = createExecution(query, null);
+			try {
+				return qe.execAsk();
+			} finally {
+				qe.close();
+			}
+		});
+	}
+
+	@Override
+	public void update(String sparql) {
+		try {
+			write(IStoreMetrics.UPDATE, sparql, () -> UpdateAction.parseExecute(sparqlPrefixes + sparql, dataset));
+		} catch (RuntimeException e) {
+			//don't throw here, only notify user
+			logger.error("Could not execute SPARQL update {}", sparql, e);
+		}
+	}
+
+	// Prepared statements ////////////////////////////////////////////////////////////////////////
+	//The values are passed to the query engine as initial bindings, so the parsed statement is used as it is.
+
+	@Override
+	public List<Map<String, String>> querySelect(PreparedStatement statement) {
+
+		List<Map<String, String>> results = new LinkedList<>();
+		querySelect(statement, row -> {
+			Map<String, String> r = new HashMap<>();
+			row.varNames().forEachRemaining(var -> r.put(var, row.get(var).toString()));
+			results.add(r);
+			return true;
+		});
+		return results;
+	}
+
+	@Override
+	public boolean querySelect(PreparedStatement statement, ISelectResultHandler handler) {
+		return checkType(statement, SparqlTemplate.Type.SELECT) && select(statement.getTemplate().getQuery(),
+				getInitialBinding(statement), statement.getTemplate().getSparql(), handler);
+	}
+
+	@Override
+	public Model queryConstruct(PreparedStatement statement) {
+
+		if (!checkType(statement, SparqlTemplate.Type.CONSTRUCT)) {
+			return null;
+		}
+		return read(IStoreMetrics.CONSTRUCT, statement.getTemplate().getSparql(), () -> {
+			QueryExecution qe = createExecution(statement.getTemplate().getQuery(), getInitialBinding(statement));
+			try {
+				return qe.execConstruct();
+			} finally {
+				qe.close();
+			}
+		});
+	}
+
+	@Override
+	public Model queryDescribe(PreparedStatement statement) {
+
+		if (!checkType(statement, SparqlTemplate.Type.DESCRIBE)) {
+			return null;
+		}
+		return read(IStoreMetrics.DESCRIBE, statement.getTemplate().getSparql(), () -> {
+			QueryExecution qe = createExecution(statement.getTemplate().getQuery(), getInitialBinding(statement));
+			try {
+				return qe.execDescribe();
+			} finally {
+				qe.close();
+			}
+		});
+	}
+
+	@Override
+	public boolean queryAsk(PreparedStatement statement) {
+
+		if (!checkType(statement, SparqlTemplate.Type.ASK)) {
+			return false;
+		}
+		return read(IStoreMetrics.ASK, statement.getTemplate().getSparql(), () -> {
+			QueryExecution qe = createExecution(statement.getTemplate().getQuery(), getInitialBinding(statement));
+			try {
+				return qe.execAsk();
+			} finally {
+				qe.close();
+			}
+		});
+	}
+
+	@Override
+	public void update(PreparedStatement statement) {
+
+		if (!checkType(statement, SparqlTemplate.Type.UPDATE)) {
+			return;
+		}
+		String sparql = statement.getTemplate().getSparql();
+		try {
+			write(IStoreMetrics.UPDATE, sparql, () -> UpdateAction.execute(statement.getTemplate().getUpdateRequest(),
+					dataset, getInitialBinding(statement)));
+		} catch (RuntimeException e) {
+			//don't throw here, only notify user
+			logger.error("Could not execute SPARQL update {}", sparql, e);
+		}
+	}
+
+	// Actions that might be executed on a particular graph ///////////////////////////////////////
+	/**
+	 * Imports an ontology from a document into the store. The document is parsed straight into the graph; unless
+	 * the dataset is transactional, the graph might contain part of the document if parsing fails.
+	 *
+	 * @param ontologypath where to find the ontology document. This can be a URL or a path on disk.
+	 * @param baseURI the baseURI of the ontology - none if it is null
+	 * @param graphURI which graph to save it into - default graph is this is null
+	 * @param format the format the document is in; guessed from the file extension if this is null
+	 */
+	@Override
+	public void importDocumentToGraph(String ontologypath, String baseURI, String graphURI, RDFFormat format) {
+
+		logger.debug("Importing document {} into graph <{}>", ontologypath, graphURI);
+		Lang lang = format != null ? format.getLang() : RDFLanguages.filenameToLang(ontologypath, Lang.RDFXML);
+		try {
+			write(IStoreMetrics.IMPORT, null, () -> RDFDataMgr.read(getModel(graphURI), ontologypath, baseURI, lang));
+		} catch (RuntimeException e) {
+			logger.error("Could not import document {} into graph <{}>", ontologypath, graphURI, e);
+		}
+	}
+
+	/**
+	 * Get the contents of a graph
+	 *
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 * @return the graph in Turtle
+	 */
+	@Override
+	public String getRDF(String graphURI) {
+		StringWriter writer = new StringWriter();
+		read(() -> {
+			if (graphURI == null || dataset.containsNamedModel(graphURI)) {
+				RDFDataMgr.write(writer, getModel(graphURI), Lang.TURTLE);
+			}
+			return null;
+		});
+		return writer.toString();
+	}
+
+	@Override
+	public boolean exportGraph(String graphURI, String filter, Graph sink) {
+
+		if (filter == null) {
+			read(() -> {
+				if (graphURI == null || dataset.containsNamedModel(graphURI)) {
+					GraphUtil.addInto(sink, getModel(graphURI).getGraph());
+				}
+				return null;
+			});
+			return true;
+		}
+
+		String pattern = "?s ?p ?o .\n\t" + filter;
+		Model m = queryConstruct("CONSTRUCT { ?s ?p ?o } WHERE {\n\t"
+				+ (graphURI != null ? "GRAPH <" + graphURI + "> {\n\t" + pattern + "\n\t}" : pattern) + "\n}");
+		if (m == null) {
+			return false;
+		}
+		GraphUtil.addInto(sink, m.getGraph());
+		return true;
+	}
+
+	@Override
+	public void storeTriple(Triple t, String graphURI) {
+		logger.debug("Storing triple {}", t.toString());
+		write(IStoreMetrics.STORE, null, () -> getModel(graphURI).getGraph().add(toJenaTriple(t)));
+	}
+
+	@Override
+	public void removeTriple(Triple t, String graphURI) {
+		logger.debug("Removing triple {}", t.toString());
+		write(IStoreMetrics.REMOVE, null, () -> getModel(graphURI).getGraph().delete(toJenaTriple(t)));
+	}
+
+	@Override
+	public void storeTriples(Set<Triple> triples, String graphURI) {
+		write(IStoreMetrics.STORE, null, () -> {
+			Graph g = getModel(graphURI).getGraph();
+			triples.stream().forEach(t -> g.add(toJenaTriple(t)));
+		});
+	}
+
+	@Override
+	public void removeTriples(Set<Triple> triples, String graphURI) {
+		write(IStoreMetrics.REMOVE, null, () -> {
+			Graph g = getModel(graphURI).getGraph();
+			triples.stream().forEach(t -> g.delete(toJenaTriple(t)));
+		});
+	}
+
+	@Override
+	public void storeModel(Model m, String graphURI) {
+		write(IStoreMetrics.STORE, null, () -> getModel(graphURI).add(m));
+	}
+
+	@Override
+	public void removeModel(Model m, String graphURI) {
+		write(IStoreMetrics.REMOVE, null, () -> getModel(graphURI).remove(m));
+	}
+
+	/**
+	 * Replaces the contents of a graph with the given model in a single operation
+	 *
+	 * @param m the new contents of the graph
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 */
+	public void replaceGraph(Model m, String graphURI) {
+		write(IStoreMetrics.STORE, null, () -> getModel(graphURI).removeAll().add(m));
+	}
+
+	/**
+	 * Stores serialised RDF in the store. The syntax is guessed from the beginning of the string: RDF/XML, JSON-LD
+	 * or Turtle, which includes N-Triples.
+	 *
+	 * @param rdf the rdf to store
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 */
+	@Override
+	public void storeRDF(String rdf, String graphURI) {
+		Model m = parseRDF(rdf);
+		if (m != null) {
+			storeModel(m, graphURI);
+		}
+	}
+
+	/**
+	 * Removes serialised RDF from the store. The syntax is guessed as for storeRDF.
+	 *
+	 * @param rdf the RDF to remove
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 */
+	@Override
+	public void removeRDF(String rdf, String graphURI) {
+		Model m = parseRDF(rdf);
+		if (m != null) {
+			removeModel(m, graphURI);
+		}
+	}
+
+	// Locking ////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Called before the dataset is read
+	 */
+	protected void beginRead() {
+		dataset.getLock().enterCriticalSection(Lock.READ);
+	}
+
+	/**
+	 * Called after the dataset has been read, even if reading failed
+	 */
+	protected void endRead() {
+		dataset.getLock().leaveCriticalSection();
+	}
+
+	/**
+	 * Called before the dataset is changed
+	 */
+	protected void beginWrite() {
+		dataset.getLock().enterCriticalSection(Lock.WRITE);
+	}
+
+	/**
+	 * Called after the dataset has been changed
+	 *
+	 * @param success whether the change has been completed; false if it failed half way through
+	 */
+	protected void endWrite(boolean success) {
+		dataset.getLock().leaveCriticalSection();
+	}
+
+	/**
+	 * Read from the dataset, calling beginRead before and endRead after the action
+	 *
+	 * @param action reads the dataset
+	 * @return the result of the action
+	 */
+	protected <T> T read(Supplier<T> action) {
+		beginRead();
+		try {
+			return action.get();
+		} finally {
+			endRead();
+		}
+	}
+
+	/**
+	 * Change the dataset, calling beginWrite before and endWrite after the action
+	 *
+	 * @param action changes the dataset
+	 */
+	protected void write(Runnable action) {
+		boolean success = false;
+		beginWrite();
+		try {
+			action.run();
+			success = true;
+		} finally {
+			endWrite(success);
+		}
+	}
+
+	/**
+	 * Read from the dataset and record the operation in the metrics
+	 *
+	 * @param operation the operation, as defined in IStoreMetrics
+	 * @param statement the SPARQL statement; may be null
+	 * @param action reads the dataset
+	 * @return the result of the action
+	 */
+	protected <T> T read(String operation, String statement, Supplier<T> action) {
+		long start = System.nanoTime();
+		boolean success = false;
+		try {
+			T result = read(action);
+			success = true;
+			return result;
+		} finally {
+			recordOperation(operation, start, success, statement);
+		}
+	}
+
+	/**
+	 * Change the dataset and record the operation in the metrics
+	 *
+	 * @param operation the operation, as defined in IStoreMetrics
+	 * @param statement the SPARQL statement; may be null
+	 * @param action changes the dataset
+	 */
+	protected void write(String operation, String statement, Runnable action) {
+		long start = System.nanoTime();
+		boolean success = false;
+		try {
+			write(action);
+			success = true;
+		} finally {
+			recordOperation(operation, start, success, statement);
+		}
+	}
+
+	/**
+	 * Get the model of a graph. Named graphs might be created when they are first accessed.
+	 *
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 * @return the model
+	 */
+	protected Model getModel(String graphURI) {
+		return graphURI == null ? dataset.getDefaultModel() : dataset.getNamedModel(graphURI);
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Parse a query, adding the known prefixes
+	 *
+	 * @param sparql the query
+	 * @return the query or null if it could not be parsed
+	 */
+	private Query parseQuery(String sparql) {
+		try {
+			return QueryFactory.create(sparqlPrefixes + sparql);
+		} catch (RuntimeException e) {
+			logger.error("Could not parse SPARQL query", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Run a SELECT query, passing the solutions to the handler
+	 *
+	 * @param query the parsed query
+	 * @param initialBinding the values of some variables; may be null
+	 * @param sparql the query as it was passed in, for the metrics
+	 * @param handler receives the solutions one by one
+	 * @return whether the query was executed
+	 */
+	private boolean select(Query query, QuerySolution initialBinding, String sparql, ISelectResultHandler handler) {
+
+		long rows = read(IStoreMetrics.SELECT, sparql, () -> {
+			long count = 0;
+			QueryExecution qe = createExecution(query, initialBinding);
+			try {
+				ResultSet rs = qe.execSelect();
+				while (rs.hasNext()) {
+					count++;
+					if (!handler.handleSolution(rs.next())) {
+						logger.debug("Result handler stopped after {} solutions", count);
+						break;
+					}
+				}
+			} finally {
+				qe.close();
+			}
+			return count;
+		});
+		logger.debug("{} solutions found", rows);
+		metrics.recordRows(IStoreMetrics.SELECT, rows);
+		return true;
+	}
+
+	/**
+	 * Create an execution of a query on the dataset
+	 *
+	 * @param query the parsed query
+	 * @param initialBinding the values of some variables; may be null
+	 * @return the execution, which needs to be closed
+	 */
+	private QueryExecution createExecution(Query query, QuerySolution initialBinding) {
+		return initialBinding == null ? QueryExecutionFactory.create(query, dataset)
+				: QueryExecutionFactory.create(query, dataset, initialBinding);
+	}
+
+	/**
+	 * Turn the values of a prepared statement into initial bindings for the query engine
+	 *
+	 * @param statement the statement
+	 * @return the bindings
+	 */
+	private QuerySolutionMap getInitialBinding(PreparedStatement statement) {
+
+		QuerySolutionMap initialBinding = new QuerySolutionMap();
+		Model m = dataset.getDefaultModel();
+		statement.getBindings().forEach((var, value) -> initialBinding.add(var, m.asRDFNode(value)));
+		return initialBinding;
+	}
+
+	/**
+	 * Parse serialised RDF into a new model, guessing its syntax
+	 *
+	 * @param rdf the RDF
+	 * @return the model or null if the RDF could not be parsed
+	 */
+	private static Model parseRDF(String rdf) {
+
+		Lang lang = HttpStoreWrapper.guessLang(rdf);
+		Model m = ModelFactory.createDefaultModel();
+		try {
+			RDFDataMgr.read(m, new StringReader(rdf), null, lang);
+		} catch (RuntimeException e) {
+			logger.error("Could not parse RDF as {}", lang.getLabel(), e);
+			return null;
+		}
+		return m;
+	}
+
+	/**
+	 * Convert an EasyJena triple. Short URIs with a known prefix are expanded. Objects of data properties are
+	 * literals, which may be written as in SPARQL (e.g. "5"^^xsd:int); all other objects are URIs.
+	 *
+	 * @param t the triple
+	 * @return the Jena triple
+	 */
+	private com.hp.hpl.jena.graph.Triple toJenaTriple(Triple t) {
+
+		Node object;
+		if (t.getType() == Triple.TripleType.DATA_PROPERTY) {
+			object = toLiteral(t.getObject());
+		} else {
+			object = toURI(t.getObject());
+		}
+		return com.hp.hpl.jena.graph.Triple.create(toURI(t.getSubject()), toURI(t.getPredicate()), object);
+	}
+
+	/**
+	 * Create a URI node, expanding the prefix of short URIs
+	 *
+	 * @param uri the full or short URI
+	 * @return the node
+	 */
+	private Node toURI(String uri) {
+
+		int colon = uri.indexOf(':');
+		if (colon >= 0 && Triple.isShort(uri) && prefixURIMap.containsKey(uri.substring(0, colon))) {
+			return NodeFactory.createURI(prefixURIMap.get(uri.substring(0, colon)) + uri.substring(colon + 1));
+		}
+		return NodeFactory.createURI(uri);
+	}
+
+	/**
+	 * Create a literal node
+	 *
+	 * @param value the plain value or a quoted SPARQL literal
+	 * @return the node
+	 */
+	private Node toLiteral(String value) {
+
+		if (value.startsWith("\"")) {
+			PrefixMapping prefixes = new PrefixMappingImpl().setNsPrefixes(prefixURIMap);
+			try {
+				return NodeFactoryExtra.parseNode(value, prefixes);
+			} catch (RuntimeException e) {
+				logger.debug("Could not parse literal {}, storing it as a plain string", value, e);
+			}
+		}
+		return NodeFactory.createLiteral(value);
+	}
+}
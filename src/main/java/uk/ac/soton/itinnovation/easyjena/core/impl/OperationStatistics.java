@@ -0,0 +1,104 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Immutable summary of a latency histogram, as published through JMX
+ */
+public class OperationStatistics {
+
+	private final long count;
+	private final long errors;
+	private final double mean;
+	private final double p50;
+	private final double p95;
+	private final double p99;
+	private final double max;
+
+	/**
+	 * Create a summary
+	 *
+	 * @param count the number of measurements
+	 * @param errors the number of failed operations
+	 * @param mean the mean duration in ms
+	 * @param p50 the median in ms
+	 * @param p95 the 95th percentile in ms
+	 * @param p99 the 99th percentile in ms
+	 * @param max the maximum in ms
+	 */
+	@ConstructorProperties({"count", "errors", "mean", "p50", "p95", "p99", "max"})
+	public OperationStatistics(long count, long errors, double mean, double p50, double p95, double p99,
+			double max) {
+		this.count = count;
+		this.errors = errors;
+		this.mean = mean;
+		this.p50 = p50;
+		this.p95 = p95;
+		this.p99 = p99;
+		this.max = max;
+	}
+
+	/**
+	 * Summarise a histogram
+	 *
+	 * @param histogram the histogram
+	 * @return the summary
+	 */
+	public static OperationStatistics of(LatencyHistogram histogram) {
+		return new OperationStatistics(histogram.getCount(), histogram.getErrors(), histogram.getMean(),
+				histogram.getPercentile(50), histogram.getPercentile(95), histogram.getPercentile(99),
+				histogram.getMax());
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	public double getMean() {
+		return mean;
+	}
+
+	public double getP50() {
+		return p50;
+	}
+
+	public double getP95() {
+		return p95;
+	}
+
+	public double getP99() {
+		return p99;
+	}
+
+	public double getMax() {
+		return max;
+	}
+}
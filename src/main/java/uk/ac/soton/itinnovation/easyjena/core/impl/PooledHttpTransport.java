@@ -0,0 +1,412 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.params.HttpClientParams;
+import org.apache.http.client.protocol.RequestAcceptEncoding;
+import org.apache.http.client.protocol.ResponseContentEncoding;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.core.spec.IHttpTransport;
+
+/**
+ * HTTP transport which keeps a bounded pool of keep-alive connections per endpoint.
+ * Idle connections are evicted in the background so the pool doesn't hold on to sockets the server
+ * has already given up on.
+ */
+public class PooledHttpTransport implements IHttpTransport {
+
+	private static final Logger logger = LoggerFactory.getLogger(PooledHttpTransport.class);
+
+	//for properties documentation see src/main/resources/easyjena.properties
+	public static final String MAX_CONNECTIONS = "easyjena.sparqlendpoint.maxConnections";
+	public static final String MAX_CONNECTIONS_TOTAL = "easyjena.sparqlendpoint.maxConnectionsTotal";
+	public static final String IDLE_TIMEOUT = "easyjena.sparqlendpoint.idleTimeout";
+	public static final String CONNECT_TIMEOUT = "easyjena.sparqlendpoint.connectTimeout";
+	public static final String READ_TIMEOUT = "easyjena.sparqlendpoint.readTimeout";
+	public static final String DEADLINE = "easyjena.sparqlendpoint.deadline";
+	public static final String COMPRESS_RESPONSES = "easyjena.sparqlendpoint.compressResponses";
+
+	private static final int DEFAULT_MAX_CONNECTIONS = 20;
+	private static final long DEFAULT_IDLE_TIMEOUT = 30000;
+	private static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+	//no read timeout by default as large queries might legitimately take a long time
+	private static final int DEFAULT_READ_TIMEOUT = 0;
+	//never check for idle connections more often than this
+	private static final long MIN_EVICTION_INTERVAL = 1000;
+	//unread bodies up to this length are read on close so the connection can be reused, longer ones are discarded
+	private static final long MAX_CONSUME_LENGTH = 8192;
+
+	private final PoolingClientConnectionManager connectionManager;
+	private final DefaultHttpClient client;
+	private final ScheduledExecutorService evictor;
+	private final long idleTimeout;
+	private final long deadline;
+
+	/**
+	 * Creates a pooled transport with default settings
+	 */
+	public PooledHttpTransport() {
+		this(new Properties());
+	}
+
+	/**
+	 * Creates a pooled transport configured by the easyjena.sparqlendpoint.* properties
+	 *
+	 * @param props the properties; missing entries fall back to the defaults
+	 */
+	public PooledHttpTransport(Properties props) {
+
+		int maxPerEndpoint = getIntProperty(props, MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS);
+		int maxTotal = getIntProperty(props, MAX_CONNECTIONS_TOTAL, maxPerEndpoint * 4);
+		int connectTimeout = getIntProperty(props, CONNECT_TIMEOUT, DEFAULT_CONNECT_TIMEOUT);
+		int readTimeout = getIntProperty(props, READ_TIMEOUT, DEFAULT_READ_TIMEOUT);
+		idleTimeout = getIntProperty(props, IDLE_TIMEOUT, (int) DEFAULT_IDLE_TIMEOUT);
+		deadline = getIntProperty(props, DEADLINE, 0);
+
+		connectionManager = new PoolingClientConnectionManager();
+		connectionManager.setDefaultMaxPerRoute(maxPerEndpoint);
+		connectionManager.setMaxTotal(Integer.max(maxTotal, maxPerEndpoint));
+
+		HttpParams params = new BasicHttpParams();
+		HttpConnectionParams.setConnectionTimeout(params, connectTimeout);
+		HttpConnectionParams.setSoTimeout(params, readTimeout);
+		HttpConnectionParams.setTcpNoDelay(params, true);
+		//don't wait forever for a connection from the pool if all of them are in use
+		HttpClientParams.setConnectionManagerTimeout(params, connectTimeout);
+		client = new DefaultHttpClient(connectionManager, params);
+		//retries are left to the store wrapper, which knows which requests are idempotent and when to give up
+		client.setHttpRequestRetryHandler(new DefaultHttpRequestRetryHandler(0, false));
+		if (Boolean.parseBoolean(props.getProperty(COMPRESS_RESPONSES, "true").trim())) {
+			//ask for gzip or deflate and decompress responses while they are being read
+			client.addRequestInterceptor(new RequestAcceptEncoding());
+			client.addResponseInterceptor(new ResponseContentEncoding());
+		}
+
+		//close idle and expired connections and abort requests which take too long in the background
+		evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "easyjena-http-evictor");
+			t.setDaemon(true);
+			return t;
+		});
+		long interval = Long.max(idleTimeout / 2, MIN_EVICTION_INTERVAL);
+		evictor.scheduleWithFixedDelay(() -> {
+			connectionManager.closeExpiredConnections();
+			connectionManager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+		}, interval, interval, TimeUnit.MILLISECONDS);
+
+		logger.debug("Created HTTP connection pool: {} connections per endpoint, {} in total, idle timeout {}ms, "
+				+ "connect timeout {}ms, read timeout {}ms, deadline {}ms", maxPerEndpoint, maxTotal, idleTimeout,
+				connectTimeout, readTimeout, deadline);
+	}
+
+	@Override
+	public Response execute(String method, String url, Map<String, String> headers, RequestBody body)
+			throws IOException {
+
+		HttpRequestBase request;
+		switch (method.toUpperCase()) {
+			case "GET":
+				request = new HttpGet(url);
+				break;
+			case "POST":
+				request = new HttpPost(url);
+				break;
+			case "PUT":
+				request = new HttpPut(url);
+				break;
+			case "DELETE":
+				request = new HttpDelete(url);
+				break;
+			case "HEAD":
+				request = new HttpHead(url);
+				break;
+			default:
+				throw new IllegalArgumentException("Unsupported HTTP method " + method);
+		}
+
+		if (headers != null) {
+			headers.entrySet().stream().forEach(h -> request.setHeader(h.getKey(), h.getValue()));
+		}
+		if (body != null) {
+			if (request instanceof HttpEntityEnclosingRequestBase) {
+				((HttpEntityEnclosingRequestBase) request).setEntity(new BodyEntity(body));
+			} else {
+				logger.warn("Ignoring request body for HTTP {} request to {}", method, url);
+			}
+		}
+
+		//abort the request if it hasn't been completed, including reading the response, before the deadline
+		ScheduledFuture<?> abort = null;
+		if (deadline > 0) {
+			abort = evictor.schedule(() -> {
+				logger.warn("HTTP {} request to {} exceeded the deadline of {}ms, aborting", method, url, deadline);
+				request.abort();
+			}, deadline, TimeUnit.MILLISECONDS);
+		}
+
+		try {
+			return new PooledResponse(request, client.execute(request), abort);
+		} catch (IOException | RuntimeException e) {
+			if (abort != null) {
+				abort.cancel(false);
+			}
+			//make sure the connection goes back to the pool
+			request.abort();
+			throw e;
+		}
+	}
+
+	/**
+	 * Get the current usage of the connection pool
+	 *
+	 * @return the number of leased, available and pending connections and the maximum across all endpoints
+	 */
+	public PoolStats getPoolStats() {
+		return connectionManager.getTotalStats();
+	}
+
+	@Override
+	public void shutdown() {
+		logger.debug("Shutting down HTTP connection pool");
+		evictor.shutdownNow();
+		connectionManager.shutdown();
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Read an integer property
+	 *
+	 * @param props the properties to read from
+	 * @param key the key of the property
+	 * @param defaultValue the value to use if the property is missing or invalid
+	 * @return the value
+	 */
+	private static int getIntProperty(Properties props, String key, int defaultValue) {
+
+		String value = props.getProperty(key);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			logger.warn("Invalid value {} for property {}, using default {}", value, key, defaultValue);
+			return defaultValue;
+		}
+	}
+
+	// Nested classes /////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Adapts a request body to a HttpClient entity
+	 */
+	private static class BodyEntity extends AbstractHttpEntity {
+
+		private final RequestBody body;
+
+		BodyEntity(RequestBody body) {
+			this.body = body;
+			//stream the body if the length is not known
+			setChunked(body.getContentLength() < 0);
+		}
+
+		@Override
+		public boolean isRepeatable() {
+			return true;
+		}
+
+		@Override
+		public long getContentLength() {
+			return body.getContentLength();
+		}
+
+		@Override
+		public InputStream getContent() throws IOException {
+			throw new UnsupportedOperationException("Request bodies can only be written to a stream");
+		}
+
+		@Override
+		public void writeTo(OutputStream out) throws IOException {
+			body.writeTo(out);
+			out.flush();
+		}
+
+		@Override
+		public boolean isStreaming() {
+			return false;
+		}
+	}
+
+	/**
+	 * A response whose connection is returned to the pool when it is closed.
+	 * If more than a little of the body is left unread (e.g. because a result handler stopped early), the request is
+	 * aborted instead, so the rest of a possibly large result is not transferred just to be thrown away.
+	 */
+	private static class PooledResponse implements Response {
+
+		private final HttpRequestBase request;
+		private final HttpResponse response;
+		//aborts the request when the deadline has passed; null if there is no deadline
+		private final ScheduledFuture<?> abort;
+		//the body handed out to the caller; null if it hasn't been requested
+		private BodyStream content;
+
+		PooledResponse(HttpRequestBase request, HttpResponse response, ScheduledFuture<?> abort) {
+			this.request = request;
+			this.response = response;
+			this.abort = abort;
+		}
+
+		@Override
+		public int getStatusCode() {
+			return response.getStatusLine().getStatusCode();
+		}
+
+		@Override
+		public String getHeader(String name) {
+			Header h = response.getFirstHeader(name);
+			return h != null ? h.getValue() : null;
+		}
+
+		@Override
+		public InputStream getContent() throws IOException {
+			HttpEntity entity = response.getEntity();
+			if (entity == null) {
+				return new ByteArrayInputStream(new byte[0]);
+			}
+			content = new BodyStream(entity.getContent());
+			return content;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (abort != null) {
+				abort.cancel(false);
+			}
+			HttpEntity entity = response.getEntity();
+			if (entity == null) {
+				return;
+			}
+			try {
+				if (content != null) {
+					//parsers often stop after the end of the document without reading the end of the stream
+					if (content.drain(MAX_CONSUME_LENGTH)) {
+						return;
+					}
+				} else if (entity.getContentLength() >= 0 && entity.getContentLength() <= MAX_CONSUME_LENGTH) {
+					//reading the rest of short bodies nobody asked for allows the connection to be reused
+					EntityUtils.consume(entity);
+					return;
+				}
+			} catch (IOException e) {
+				logger.debug("Could not consume response, discarding connection", e);
+			}
+			//the rest of the body would be downloaded for nothing
+			request.abort();
+		}
+	}
+
+	/**
+	 * A response body which remembers whether it has been read to the end
+	 */
+	private static class BodyStream extends FilterInputStream {
+
+		private boolean finished;
+
+		BodyStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			finished |= b < 0;
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			finished |= n < 0;
+			return n;
+		}
+
+		@Override
+		public void close() throws IOException {
+			//closing the stream early would make HttpClient download the rest of the body to reuse the connection,
+			//so this is left to the response which aborts the request instead
+			if (finished) {
+				super.close();
+			}
+		}
+
+		/**
+		 * Read what is left of the body if it isn't longer than the given limit
+		 *
+		 * @param limit the maximum number of bytes to read
+		 * @return true if the end of the body has been reached
+		 * @throws IOException if reading fails
+		 */
+		boolean drain(long limit) throws IOException {
+			byte[] buffer = new byte[1024];
+			long remaining = limit;
+			while (!finished && remaining >= 0) {
+				int n = read(buffer, 0, buffer.length);
+				remaining -= Math.max(n, 0);
+			}
+			return finished;
+		}
+	}
+}
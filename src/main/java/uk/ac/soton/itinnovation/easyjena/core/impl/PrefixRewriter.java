@@ -0,0 +1,280 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rewrites outgoing SPARQL so that it doesn't need all of a store's PREFIX declarations. Either only the
+ * declarations of the prefixes a statement actually uses are put in front of it, or its prefixed names are expanded
+ * to full URIs. Prefixes declared by the statement itself are left alone.
+ *
+ * A rewriter holds a snapshot of the prefixes and can be shared between threads.
+ */
+public class PrefixRewriter {
+
+	/**
+	 * How the prefixes of outgoing statements are declared
+	 */
+	public enum Mode {
+
+		//the declarations of all of the store's prefixes
+		ALL,
+		//only the declarations of the prefixes the statement uses
+		USED,
+		//no declarations, prefixed names are replaced by full URIs
+		EXPAND;
+
+		/**
+		 * Get the mode by name, ignoring case
+		 *
+		 * @param name all, used or expand; null or empty for used
+		 * @return the mode
+		 * @throws IllegalArgumentException if there is no mode by that name
+		 */
+		public static Mode fromName(String name) {
+
+			if (name == null || name.trim().isEmpty()) {
+				return USED;
+			}
+			for (Mode m : values()) {
+				if (m.name().equalsIgnoreCase(name.trim())) {
+					return m;
+				}
+			}
+			throw new IllegalArgumentException("Unknown prefix mode " + name);
+		}
+	}
+
+	private final Map<String, String> prefixURIMap;
+	private final String allPrefixes;
+
+	/**
+	 * Creates a rewriter for the given prefixes
+	 *
+	 * @param prefixURIMap the namespaces by prefix; copied, so later changes are not picked up
+	 */
+	public PrefixRewriter(Map<String, String> prefixURIMap) {
+
+		Map<String, String> declarations = new HashMap<>();
+		StringBuilder sb = new StringBuilder();
+		prefixURIMap.entrySet().stream().filter(e -> e.getKey() != null && e.getValue() != null).forEach(e -> {
+			declarations.put(e.getKey(), e.getValue());
+			sb.append(declaration(e.getKey(), e.getValue()));
+		});
+		this.prefixURIMap = Collections.unmodifiableMap(declarations);
+		allPrefixes = sb.toString();
+	}
+
+	/**
+	 * Rewrite a statement
+	 *
+	 * @param sparql the statement without the store's PREFIX declarations
+	 * @param mode how to declare the prefixes
+	 * @return the statement as it can be sent to the store
+	 */
+	public String rewrite(CharSequence sparql, Mode mode) {
+
+		switch (mode) {
+			case EXPAND:
+				return expand(sparql);
+			case USED:
+				return getPrologue(sparql) + sparql;
+			default:
+				return allPrefixes + sparql;
+		}
+	}
+
+	/**
+	 * Get the declarations of the known prefixes a statement uses
+	 *
+	 * @param sparql the statement without the store's PREFIX declarations
+	 * @return the PREFIX declarations, one per line, in order of first use; empty if none are used
+	 */
+	public String getPrologue(CharSequence sparql) {
+
+		Set<String> used = new LinkedHashSet<>();
+		scan(sparql, (start, colon, end) -> used.add(sparql.subSequence(start, colon).toString()));
+
+		StringBuilder sb = new StringBuilder();
+		for (String prefix : used) {
+			String namespace = prefixURIMap.get(prefix);
+			if (namespace != null) {
+				sb.append(declaration(prefix, namespace));
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Replace all prefixed names using known prefixes by full URIs
+	 *
+	 * @param sparql the statement without the store's PREFIX declarations
+	 * @return the statement with full URIs
+	 */
+	public String expand(CharSequence sparql) {
+
+		StringBuilder sb = new StringBuilder(sparql.length() + 256);
+		int[] copied = {0};
+		scan(sparql, (start, colon, end) -> {
+			String namespace = prefixURIMap.get(sparql.subSequence(start, colon).toString());
+			if (namespace != null) {
+				sb.append(sparql, copied[0], start).append('<').append(namespace);
+				//remove the escapes which are only needed in prefixed names
+				for (int i = colon + 1; i < end; i++) {
+					char c = sparql.charAt(i);
+					if (c == '\\' && i + 1 < end) {
+						c = sparql.charAt(++i);
+					}
+					sb.append(c);
+				}
+				sb.append('>');
+				copied[0] = end;
+			}
+		});
+		return sb.append(sparql, copied[0], sparql.length()).toString();
+	}
+
+	public Map<String, String> getPrefixURIMap() {
+		return prefixURIMap;
+	}
+
+	/**
+	 * Get the declarations of all prefixes
+	 *
+	 * @return the PREFIX declarations, one per line
+	 */
+	public String getAllPrefixes() {
+		return allPrefixes;
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+	private static String declaration(String prefix, String namespace) {
+		return "PREFIX " + prefix + ":<" + namespace + ">\n";
+	}
+
+	/**
+	 * Receives the position of a prefixed name
+	 */
+	private interface PrefixedNameVisitor {
+
+		/**
+		 * @param start the position of the first character of the prefix
+		 * @param colon the position of the colon
+		 * @param end the position after the last character of the local name
+		 */
+		void visit(int start, int colon, int end);
+	}
+
+	/**
+	 * Find all prefixed names in a statement, skipping comments, strings, URIs, variables and blank nodes.
+	 * Names using a prefix declared in the statement itself are not reported.
+	 *
+	 * @param s the statement
+	 * @param visitor receives the prefixed names in order
+	 */
+	private static void scan(CharSequence s, PrefixedNameVisitor visitor) {
+
+		Set<String> declared = new HashSet<>();
+		boolean declaration = false;
+		int n = s.length();
+		int i = 0;
+		while (i < n) {
+			char c = s.charAt(i);
+			if (c == '#') {
+				while (i < n && s.charAt(i) != '\n') {
+					i++;
+				}
+			} else if (c == '"' || c == '\'') {
+				i = SparqlTemplate.skipString(s, i);
+			} else if (c == '<') {
+				i = SparqlTemplate.skipURI(s, i);
+			} else if (c == '?' || c == '$' || c == '@' || (c == '_' && i + 1 < n && s.charAt(i + 1) == ':')) {
+				//variable, language tag or blank node
+				i = skipLocalName(s, i + (c == '_' ? 2 : 1));
+			} else if (Character.isDigit(c)) {
+				while (i < n && Character.isLetterOrDigit(s.charAt(i))) {
+					i++;
+				}
+			} else if (Character.isLetter(c) || c == ':') {
+				int colon = i;
+				while (colon < n && isPrefixChar(s.charAt(colon))) {
+					colon++;
+				}
+				if (colon < n && s.charAt(colon) == ':') {
+					int end = skipLocalName(s, colon + 1);
+					String prefix = s.subSequence(i, colon).toString();
+					if (declaration) {
+						declared.add(prefix);
+						declaration = false;
+					} else if (!declared.contains(prefix)) {
+						visitor.visit(i, colon, end);
+					}
+					i = end;
+				} else {
+					declaration = "PREFIX".equalsIgnoreCase(s.subSequence(i, colon).toString());
+					i = colon;
+				}
+			} else {
+				i++;
+			}
+		}
+	}
+
+	/**
+	 * Skip the local part of a prefixed name, which must not end with a dot
+	 *
+	 * @param s the statement
+	 * @param start the position after the colon
+	 * @return the position after the local name
+	 */
+	private static int skipLocalName(CharSequence s, int start) {
+
+		int i = start;
+		while (i < s.length()) {
+			char c = s.charAt(i);
+			if (c == '\\' && i + 1 < s.length()) {
+				i += 2;
+			} else if (isPrefixChar(c) || c == ':' || c == '%') {
+				i++;
+			} else {
+				break;
+			}
+		}
+		while (i > start && s.charAt(i - 1) == '.') {
+			i--;
+		}
+		return i;
+	}
+
+	private static boolean isPrefixChar(char c) {
+		return SparqlTemplate.isVariableChar(c) || c == '-' || c == '.';
+	}
+}
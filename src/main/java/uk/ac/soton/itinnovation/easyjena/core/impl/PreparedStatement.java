@@ -0,0 +1,274 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+import com.hp.hpl.jena.datatypes.TypeMapper;
+import com.hp.hpl.jena.datatypes.xsd.XSDDatatype;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.NodeFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * A parsed SPARQL statement together with values for some of its variables. Statements are created by
+ * IStoreWrapper.prepare(...) and run by passing them to the store's query and update methods. The values are
+ * written into the statement as escaped RDF terms (or, for stores that can, handed to the query engine directly),
+ * so they can't change its structure.
+ *
+ * A statement can be executed any number of times, changing some values in between. It is not thread-safe, but
+ * any number of statements can be created for the same SPARQL; the parsing is only done once.
+ */
+public class PreparedStatement {
+
+	private static final Pattern LANGUAGE = Pattern.compile("[a-zA-Z]+(-[a-zA-Z0-9]+)*");
+
+	private final SparqlTemplate template;
+	private final Map<String, Node> bindings = new HashMap<>();
+
+	/**
+	 * Creates a statement without any values
+	 *
+	 * @param template the parsed statement
+	 */
+	public PreparedStatement(SparqlTemplate template) {
+		this.template = template;
+	}
+
+	// Bindings ///////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Set a variable to a URI
+	 *
+	 * @param var the variable name without ? or $
+	 * @param uri the full URI
+	 * @return this statement
+	 * @throws IllegalArgumentException if the variable doesn't exist or the URI contains characters not allowed
+	 */
+	public PreparedStatement setURI(String var, String uri) {
+		checkURI(uri);
+		return setNode(var, NodeFactory.createURI(uri));
+	}
+
+	/**
+	 * Set a variable to the name of a graph, e.g. for use in GRAPH ?g { ... }
+	 *
+	 * @param var the variable name without ? or $
+	 * @param graphURI the URI of the graph
+	 * @return this statement
+	 * @throws IllegalArgumentException if the variable doesn't exist or the URI contains characters not allowed
+	 */
+	public PreparedStatement setGraph(String var, String graphURI) {
+		return setURI(var, graphURI);
+	}
+
+	/**
+	 * Set a variable to a plain string literal
+	 *
+	 * @param var the variable name without ? or $
+	 * @param value the string
+	 * @return this statement
+	 * @throws IllegalArgumentException if the variable doesn't exist
+	 */
+	public PreparedStatement setLiteral(String var, String value) {
+		checkNotNull(value);
+		return setNode(var, NodeFactory.createLiteral(value));
+	}
+
+	/**
+	 * Set a variable to a typed literal
+	 *
+	 * @param var the variable name without ? or $
+	 * @param lexical the lexical form of the value
+	 * @param datatypeURI the full URI of the datatype
+	 * @return this statement
+	 * @throws IllegalArgumentException if the variable doesn't exist or the datatype URI is not allowed
+	 */
+	public PreparedStatement setLiteral(String var, String lexical, String datatypeURI) {
+		checkNotNull(lexical);
+		checkURI(datatypeURI);
+		return setNode(var, NodeFactory.createLiteral(lexical, "",
+				TypeMapper.getInstance().getSafeTypeByName(datatypeURI)));
+	}
+
+	/**
+	 * Set a variable to an xsd:integer literal
+	 *
+	 * @param var the variable name without ? or $
+	 * @param value the value
+	 * @return this statement
+	 * @throws IllegalArgumentException if the variable doesn't exist
+	 */
+	public PreparedStatement setLiteral(String var, long value) {
+		return setNode(var, NodeFactory.createLiteral(Long.toString(value), "", XSDDatatype.XSDinteger));
+	}
+
+	/**
+	 * Set a variable to an xsd:double literal
+	 *
+	 * @param var the variable name without ? or $
+	 * @param value the value
+	 * @return this statement
+	 * @throws IllegalArgumentException if the variable doesn't exist
+	 */
+	public PreparedStatement setLiteral(String var, double value) {
+		String lexical = Double.isInfinite(value) ? (value > 0 ? "INF" : "-INF") : Double.toString(value);
+		return setNode(var, NodeFactory.createLiteral(lexical, "", XSDDatatype.XSDdouble));
+	}
+
+	/**
+	 * Set a variable to an xsd:boolean literal
+	 *
+	 * @param var the variable name without ? or $
+	 * @param value the value
+	 * @return this statement
+	 * @throws IllegalArgumentException if the variable doesn't exist
+	 */
+	public PreparedStatement setLiteral(String var, boolean value) {
+		return setNode(var, NodeFactory.createLiteral(Boolean.toString(value), "", XSDDatatype.XSDboolean));
+	}
+
+	/**
+	 * Set a variable to a string literal with a language tag
+	 *
+	 * @param var the variable name without ? or $
+	 * @param value the string
+	 * @param lang the language tag, e.g. en-GB
+	 * @return this statement
+	 * @throws IllegalArgumentException if the variable doesn't exist or the language tag is invalid
+	 */
+	public PreparedStatement setLangLiteral(String var, String value, String lang) {
+		checkNotNull(value);
+		if (lang == null || !LANGUAGE.matcher(lang).matches()) {
+			throw new IllegalArgumentException("Invalid language tag " + lang);
+		}
+		return setNode(var, NodeFactory.createLiteral(value, lang, null));
+	}
+
+	/**
+	 * Set a variable to any URI or literal node
+	 *
+	 * @param var the variable name without ? or $
+	 * @param value the node
+	 * @return this statement
+	 * @throws IllegalArgumentException if the variable doesn't exist, is declared by the statement (e.g. projected)
+	 * or the node is not a URI or literal
+	 */
+	public PreparedStatement setNode(String var, Node value) {
+
+		if (!template.getVariables().contains(var)) {
+			throw new IllegalArgumentException("Variable ?" + var + " does not appear in the statement");
+		}
+		if (template.getDeclaredVariables().contains(var)) {
+			throw new IllegalArgumentException("Variable ?" + var + " is projected, grouped, ordered or assigned by "
+					+ "the statement and can't be given a value");
+		}
+		checkNotNull(value);
+		if (value.isURI()) {
+			checkURI(value.getURI());
+		} else if (!value.isLiteral()) {
+			throw new IllegalArgumentException("Only URIs and literals can be used as values, not " + value);
+		} else if (value.getLiteralDatatypeURI() != null) {
+			checkURI(value.getLiteralDatatypeURI());
+		}
+		bindings.put(var, value);
+		return this;
+	}
+
+	/**
+	 * Remove the value of a variable
+	 *
+	 * @param var the variable name without ? or $
+	 * @return this statement
+	 */
+	public PreparedStatement clear(String var) {
+		bindings.remove(var);
+		return this;
+	}
+
+	/**
+	 * Remove the values of all variables
+	 *
+	 * @return this statement
+	 */
+	public PreparedStatement clearAll() {
+		bindings.clear();
+		return this;
+	}
+
+	// Getters ////////////////////////////////////////////////////////////////////////////////////
+	public SparqlTemplate getTemplate() {
+		return template;
+	}
+
+	public SparqlTemplate.Type getType() {
+		return template.getType();
+	}
+
+	/**
+	 * Get the values which have been set
+	 *
+	 * @return the values, by variable name
+	 */
+	public Map<String, Node> getBindings() {
+		return Collections.unmodifiableMap(bindings);
+	}
+
+	/**
+	 * Get the statement with the current values written in place of their variables
+	 *
+	 * @return the SPARQL, including the store's PREFIX declarations
+	 */
+	public String getSparql() {
+		return template.render(bindings);
+	}
+
+	@Override
+	public String toString() {
+		return getSparql();
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+	private static void checkNotNull(Object value) {
+		if (value == null) {
+			throw new IllegalArgumentException("Values must not be null");
+		}
+	}
+
+	/**
+	 * Make sure a URI can be written in angle brackets without ending them early
+	 *
+	 * @param uri the URI
+	 */
+	private static void checkURI(String uri) {
+
+		checkNotNull(uri);
+		for (int i = 0; i < uri.length(); i++) {
+			if (!SparqlTemplate.isURIChar(uri.charAt(i))) {
+				throw new IllegalArgumentException("Character '" + uri.charAt(i) + "' is not allowed in URI " + uri);
+			}
+		}
+	}
+}
@@ -0,0 +1,162 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.query.ResultSetFactory;
+import com.hp.hpl.jena.sparql.resultset.JSONInput;
+import com.hp.hpl.jena.sparql.resultset.XMLInput;
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * The serialisations of SPARQL results which can be requested from an endpoint, in order of preference.
+ * TSV is the most compact and cheapest to parse. It is only used for SELECT results as there is no
+ * standard TSV serialisation for ASK results. XML comes before JSON because it is parsed while it is being read,
+ * whereas the JSON parser reads the whole document into memory before returning the first result.
+ */
+public enum ResultFormat {
+
+	TSV("text/tab-separated-values", false),
+	XML("application/sparql-results+xml", true),
+	JSON("application/sparql-results+json", true);
+
+	private final String contentType;
+	private final boolean booleanSupported;
+
+	ResultFormat(String contentType, boolean booleanSupported) {
+		this.contentType = contentType;
+		this.booleanSupported = booleanSupported;
+	}
+
+	/**
+	 * Parse SELECT results in this format. TSV and XML results are read from the stream as they are consumed,
+	 * JSON results are read completely first.
+	 *
+	 * @param in the serialised results
+	 * @return the result set
+	 */
+	public ResultSet parse(InputStream in) {
+		switch (this) {
+			case TSV:
+				return ResultSetFactory.fromTSV(in);
+			case JSON:
+				return ResultSetFactory.fromJSON(in);
+			case XML:
+			default:
+				return ResultSetFactory.fromXML(in);
+		}
+	}
+
+	/**
+	 * Parse the result of an ASK query in this format
+	 *
+	 * @param in the serialised result
+	 * @return the result
+	 */
+	public boolean parseBoolean(InputStream in) {
+		if (this == JSON) {
+			return JSONInput.booleanFromJSON(in);
+		}
+		return XMLInput.booleanFromXML(in);
+	}
+
+	/**
+	 * Build the value of an Accept header listing all formats in order of preference
+	 *
+	 * @param booleanResult whether the header is for an ASK query
+	 * @return the header value
+	 */
+	public static String getAcceptHeader(boolean booleanResult) {
+
+		StringBuilder accept = new StringBuilder();
+		int q = 10;
+		for (ResultFormat f : values()) {
+			if (booleanResult && !f.isBooleanSupported()) {
+				continue;
+			}
+			if (accept.length() > 0) {
+				accept.append(", ");
+			}
+			accept.append(f.getContentType());
+			if (q < 10) {
+				accept.append(";q=0.").append(q);
+			}
+			q--;
+		}
+		return accept.toString();
+	}
+
+	/**
+	 * Find the format matching a response's content type
+	 *
+	 * @param contentType the value of the Content-Type header, including parameters
+	 * @return the format or null if it is unknown
+	 */
+	public static ResultFormat fromContentType(String contentType) {
+
+		if (contentType == null) {
+			return null;
+		}
+		String ct = contentType.split(";")[0].trim().toLowerCase(Locale.ENGLISH);
+		for (ResultFormat f : values()) {
+			if (f.getContentType().equals(ct)) {
+				return f;
+			}
+		}
+		//some endpoints use generic content types
+		switch (ct) {
+			case "application/json":
+				return JSON;
+			case "application/xml":
+			case "text/xml":
+				return XML;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Find the format for a given name as used in the properties, e.g. "json"
+	 *
+	 * @param name the name of the format
+	 * @return the format or null if the name is null or empty
+	 */
+	public static ResultFormat fromName(String name) {
+
+		if (name == null || name.trim().isEmpty()) {
+			return null;
+		}
+		return valueOf(name.trim().toUpperCase(Locale.ENGLISH));
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public boolean isBooleanSupported() {
+		return booleanSupported;
+	}
+}
@@ -0,0 +1,224 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Distributes queries over several replicas of a store. Replicas whose endpoint is considered unavailable are left
+ * out until they have recovered; if all of them are unavailable, all are used.
+ */
+public class SelectEndpointRouter {
+
+	/**
+	 * How to choose the replica for the next query
+	 */
+	public enum Routing {
+
+		//each replica in turn
+		ROUND_ROBIN,
+		//the replica with the fewest queries currently running
+		LEAST_OUTSTANDING,
+		//a random replica, preferring replicas which have answered faster recently
+		LATENCY_WEIGHTED;
+
+		/**
+		 * Get the routing strategy by name, ignoring case and any separators
+		 *
+		 * @param name e.g. round-robin, leastOutstanding or LATENCY_WEIGHTED; null or empty for round robin
+		 * @return the routing strategy
+		 * @throws IllegalArgumentException if there is no routing strategy by that name
+		 */
+		public static Routing fromName(String name) {
+
+			if (name == null || name.trim().isEmpty()) {
+				return ROUND_ROBIN;
+			}
+			String normalised = name.replaceAll("[^A-Za-z]", "");
+			for (Routing r : values()) {
+				if (r.name().replace("_", "").equalsIgnoreCase(normalised)) {
+					return r;
+				}
+			}
+			throw new IllegalArgumentException("Unknown routing " + name);
+		}
+	}
+
+	//weight of the latest query when averaging latencies
+	private static final double LATENCY_SMOOTHING = 0.2;
+
+	private final List<String> endpoints;
+	private final Routing routing;
+	private final Function<String, EndpointHealth> health;
+
+	private final AtomicInteger next = new AtomicInteger();
+	private final Map<String, AtomicInteger> outstanding = new HashMap<>();
+	//exponentially weighted moving average of the latency of each replica in ms
+	private final Map<String, Double> latency = new HashMap<>();
+
+	/**
+	 * Create a router
+	 *
+	 * @param endpoints the select endpoints of all replicas
+	 * @param routing how to choose a replica
+	 * @param health provides the health of an endpoint
+	 */
+	public SelectEndpointRouter(List<String> endpoints, Routing routing, Function<String, EndpointHealth> health) {
+
+		if (endpoints.isEmpty()) {
+			throw new IllegalArgumentException("At least one endpoint is required");
+		}
+		this.endpoints = Collections.unmodifiableList(new ArrayList<>(endpoints));
+		this.routing = routing;
+		this.health = health;
+		for (String e : endpoints) {
+			outstanding.put(e, new AtomicInteger());
+			latency.put(e, 0.0);
+		}
+	}
+
+	/**
+	 * Choose the replica for the next query. Every call must be followed by a call to finished once the
+	 * query has been completed.
+	 *
+	 * @return the select endpoint of the replica
+	 */
+	public String choose() {
+
+		if (endpoints.size() == 1) {
+			return started(endpoints.get(0));
+		}
+
+		List<String> candidates = new ArrayList<>(endpoints.size());
+		for (String e : endpoints) {
+			if (health.apply(e).isAvailable()) {
+				candidates.add(e);
+			}
+		}
+		if (candidates.isEmpty()) {
+			candidates = endpoints;
+		}
+
+		switch (routing) {
+			case LEAST_OUTSTANDING:
+				String best = null;
+				int fewest = Integer.MAX_VALUE;
+				//start at a different replica each time so ties are spread evenly
+				int offset = Math.floorMod(next.getAndIncrement(), candidates.size());
+				for (int i = 0; i < candidates.size(); i++) {
+					String e = candidates.get((offset + i) % candidates.size());
+					int running = outstanding.get(e).get();
+					if (running < fewest) {
+						fewest = running;
+						best = e;
+					}
+				}
+				return started(best);
+			case LATENCY_WEIGHTED:
+				double[] weights = new double[candidates.size()];
+				double total = 0;
+				synchronized (latency) {
+					for (int i = 0; i < weights.length; i++) {
+						//replicas which haven't been measured yet are tried first
+						weights[i] = 1.0 / (1.0 + latency.get(candidates.get(i)));
+						total += weights[i];
+					}
+				}
+				double r = ThreadLocalRandom.current().nextDouble() * total;
+				for (int i = 0; i < weights.length; i++) {
+					r -= weights[i];
+					if (r <= 0) {
+						return started(candidates.get(i));
+					}
+				}
+				return started(candidates.get(candidates.size() - 1));
+			default:
+				return started(candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size())));
+		}
+	}
+
+	/**
+	 * Record that a query on a replica has been completed
+	 *
+	 * @param endpoint the select endpoint of the replica, as returned by choose
+	 * @param millis the time the query took
+	 */
+	public void finished(String endpoint, long millis) {
+
+		AtomicInteger running = outstanding.get(endpoint);
+		if (running != null) {
+			running.decrementAndGet();
+			synchronized (latency) {
+				double previous = latency.get(endpoint);
+				latency.put(endpoint, previous == 0 ? millis
+						: previous * (1 - LATENCY_SMOOTHING) + millis * LATENCY_SMOOTHING);
+			}
+		}
+	}
+
+	/**
+	 * Get the average latency of a replica
+	 *
+	 * @param endpoint the select endpoint of the replica
+	 * @return the recent average latency in ms or 0 if it hasn't been used yet
+	 */
+	public double getLatency(String endpoint) {
+		synchronized (latency) {
+			return latency.containsKey(endpoint) ? latency.get(endpoint) : 0;
+		}
+	}
+
+	/**
+	 * Get the number of queries currently running on a replica
+	 *
+	 * @param endpoint the select endpoint of the replica
+	 * @return the number of queries
+	 */
+	public int getOutstanding(String endpoint) {
+		AtomicInteger running = outstanding.get(endpoint);
+		return running != null ? running.get() : 0;
+	}
+
+	public List<String> getEndpoints() {
+		return endpoints;
+	}
+
+	public Routing getRouting() {
+		return routing;
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+	private String started(String endpoint) {
+		outstanding.get(endpoint).incrementAndGet();
+		return endpoint;
+	}
+}
@@ -0,0 +1,234 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import uk.ac.soton.itinnovation.easyjena.core.spec.IHttpTransport;
+
+/**
+ * The body of a SPARQL protocol request, which is encoded straight into the connection while it is sent.
+ * The statement is either sent directly (application/sparql-query or application/sparql-update) or as a form
+ * variable (application/x-www-form-urlencoded). Only a small fixed buffer is needed regardless of the size of the
+ * statement, so large updates don't have to be copied in memory before being sent.
+ */
+public class SparqlRequestBody implements IHttpTransport.RequestBody {
+
+	public static final String FORM = "application/x-www-form-urlencoded";
+	public static final String SPARQL_QUERY = "application/sparql-query";
+	public static final String SPARQL_UPDATE = "application/sparql-update";
+
+	private static final int BUFFER_SIZE = 8192;
+	private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+	private final CharSequence sparql;
+	private final String formVariable;
+	private final boolean update;
+	private final String contentEncoding;
+	private final int chunkThreshold;
+	//the length of the encoded body; -2 if it hasn't been calculated yet
+	private long length = -2;
+
+	/**
+	 * Create a request body. The statement must not be changed until the request has been completed.
+	 *
+	 * @param sparql the SPARQL statement
+	 * @param formVariable the name of the form variable; null to send the statement directly
+	 * @param update whether the statement is an update rather than a query
+	 * @param contentEncoding gzip or deflate to compress the body; null to send it uncompressed
+	 * @param chunkThreshold bodies of more characters than this are sent in chunks instead of calculating their
+	 * length up front
+	 */
+	public SparqlRequestBody(CharSequence sparql, String formVariable, boolean update, String contentEncoding,
+			int chunkThreshold) {
+		this.sparql = sparql;
+		this.formVariable = formVariable;
+		this.update = update;
+		this.contentEncoding = contentEncoding;
+		this.chunkThreshold = chunkThreshold;
+	}
+
+	/**
+	 * Get the value of the Content-Type header for this body
+	 *
+	 * @return the media type
+	 */
+	public String getContentType() {
+		if (formVariable != null) {
+			return FORM;
+		}
+		return update ? SPARQL_UPDATE : SPARQL_QUERY;
+	}
+
+	/**
+	 * Get the value of the Content-Encoding header for this body
+	 *
+	 * @return gzip, deflate or null if the body is not compressed
+	 */
+	public String getContentEncoding() {
+		return contentEncoding;
+	}
+
+	@Override
+	public void writeTo(OutputStream out) throws IOException {
+
+		if (contentEncoding == null) {
+			writeEncoded(out);
+			return;
+		}
+
+		//closing the compressed stream releases the compressor but must not close the connection
+		OutputStream shield = new FilterOutputStream(out) {
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				out.write(b, off, len);
+			}
+
+			@Override
+			public void close() throws IOException {
+				flush();
+			}
+		};
+		try (DeflaterOutputStream compressed = "gzip".equals(contentEncoding)
+				? new GZIPOutputStream(shield, BUFFER_SIZE) : new DeflaterOutputStream(shield)) {
+			writeEncoded(compressed);
+		}
+	}
+
+	@Override
+	public long getContentLength() {
+
+		if (contentEncoding != null || sparql.length() > chunkThreshold) {
+			//the length is only known once the body has been written
+			return -1;
+		}
+		if (length == -2) {
+			CountingOutputStream counter = new CountingOutputStream();
+			try {
+				writeEncoded(counter);
+			} catch (IOException e) {
+				//can't happen as nothing is written anywhere
+				return -1;
+			}
+			length = counter.count;
+		}
+		return length;
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Write the statement in UTF-8, URL encoding it if it is sent as a form variable
+	 *
+	 * @param out the stream to write to
+	 * @throws IOException if writing fails
+	 */
+	private void writeEncoded(OutputStream out) throws IOException {
+
+		OutputStream target = out;
+		if (formVariable != null) {
+			target = new FormEncodingOutputStream(out);
+			target.write(formVariable.getBytes(StandardCharsets.UTF_8));
+			out.write('=');
+		}
+
+		//the writer keeps unpaired surrogates at the end of one chunk until the next one is written
+		Writer writer = new OutputStreamWriter(target, StandardCharsets.UTF_8);
+		char[] chars = new char[BUFFER_SIZE];
+		for (int start = 0; start < sparql.length(); start += chars.length) {
+			int end = Integer.min(start + chars.length, sparql.length());
+			for (int i = start; i < end; i++) {
+				chars[i - start] = sparql.charAt(i);
+			}
+			writer.write(chars, 0, end - start);
+		}
+		writer.flush();
+	}
+
+	// Nested classes /////////////////////////////////////////////////////////////////////////////
+	/**
+	 * URL encodes bytes according to the application/x-www-form-urlencoded rules
+	 */
+	private static class FormEncodingOutputStream extends FilterOutputStream {
+
+		private final byte[] encoded = new byte[BUFFER_SIZE * 3];
+
+		FormEncodingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+
+			int pos = 0;
+			for (int i = off; i < off + len; i++) {
+				if (pos > encoded.length - 3) {
+					out.write(encoded, 0, pos);
+					pos = 0;
+				}
+				int c = b[i] & 0xFF;
+				if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+						|| c == '-' || c == '_' || c == '.' || c == '*') {
+					encoded[pos++] = (byte) c;
+				} else if (c == ' ') {
+					encoded[pos++] = '+';
+				} else {
+					encoded[pos++] = '%';
+					encoded[pos++] = HEX[c >> 4];
+					encoded[pos++] = HEX[c & 0xF];
+				}
+			}
+			out.write(encoded, 0, pos);
+		}
+	}
+
+	/**
+	 * Counts the bytes written to it and discards them
+	 */
+	private static class CountingOutputStream extends OutputStream {
+
+		private long count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+}
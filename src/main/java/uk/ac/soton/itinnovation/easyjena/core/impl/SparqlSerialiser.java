@@ -0,0 +1,174 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+import com.hp.hpl.jena.graph.Node;
+
+/**
+ * Writes RDF terms and triples in SPARQL syntax straight into a buffer. All URIs of Jena nodes are written in full,
+ * so the resulting SPARQL does not depend on any PREFIX declarations. EasyJena triples are written the way they
+ * have always been sent to the store, i.e. prefixed datatypes in their objects need the store's prefixes.
+ */
+public final class SparqlSerialiser {
+
+	private SparqlSerialiser() {
+		//only static methods
+	}
+
+	/**
+	 * Append a triple as it would appear in an INSERT DATA or DELETE DATA block, including the trailing dot.
+	 *
+	 * @param sb the buffer to write to
+	 * @param t the triple
+	 */
+	public static void appendTriple(StringBuilder sb, com.hp.hpl.jena.graph.Triple t) {
+		sb.append("\t\t");
+		appendNode(sb, t.getSubject());
+		sb.append(' ');
+		appendNode(sb, t.getPredicate());
+		sb.append(' ');
+		appendNode(sb, t.getObject());
+		sb.append(" .\n");
+	}
+
+	/**
+	 * Append an EasyJena triple as it would appear in an INSERT DATA or DELETE DATA block, including the trailing dot.
+	 * Objects of data properties are written as literals, all other objects as URIs.
+	 *
+	 * @param sb the buffer to write to
+	 * @param t the triple
+	 */
+	public static void appendTriple(StringBuilder sb, Triple t) {
+		sb.append("\t\t");
+		appendURI(sb, t.getSubject());
+		sb.append(' ');
+		appendURI(sb, t.getPredicate());
+		sb.append(' ');
+		if (t.getType() == Triple.TripleType.DATA_PROPERTY) {
+			//attach quotes in case they don't exist and remove newlines
+			String obj = t.getObject().replaceAll("\"", "'").replaceAll("\n", " ");
+			if (t.getObject().startsWith("\"")) {
+				sb.append(obj);
+			} else {
+				sb.append('"').append(obj).append('"');
+			}
+		} else {
+			//TODO: annotation props
+			appendURI(sb, t.getObject());
+		}
+		sb.append(" .\n");
+	}
+
+	/**
+	 * Append a single RDF term
+	 *
+	 * @param sb the buffer to write to
+	 * @param n the node to write; must be a URI, literal or blank node
+	 */
+	public static void appendNode(StringBuilder sb, Node n) {
+
+		if (n.isURI()) {
+			appendURI(sb, n.getURI());
+		} else if (n.isLiteral()) {
+			appendLiteral(sb, n.getLiteralLexicalForm());
+			String lang = n.getLiteralLanguage();
+			String datatype = n.getLiteralDatatypeURI();
+			if (lang != null && !lang.isEmpty()) {
+				sb.append('@').append(lang);
+			} else if (datatype != null) {
+				sb.append("^^");
+				appendURI(sb, datatype);
+			}
+		} else if (n.isBlank()) {
+			appendBlankNode(sb, n.getBlankNodeLabel());
+		} else {
+			throw new IllegalArgumentException("Can't serialise node " + n + " as SPARQL data");
+		}
+	}
+
+	/**
+	 * Append a URI wrapped in angle brackets
+	 *
+	 * @param sb the buffer to write to
+	 * @param uri the full URI
+	 */
+	public static void appendURI(StringBuilder sb, String uri) {
+		sb.append('<').append(uri).append('>');
+	}
+
+	/**
+	 * Append the lexical form of a literal in double quotes, escaping all characters that would end the string
+	 *
+	 * @param sb the buffer to write to
+	 * @param value the lexical form
+	 */
+	public static void appendLiteral(StringBuilder sb, String value) {
+
+		sb.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"':
+					sb.append("\\\"");
+					break;
+				case '\\':
+					sb.append("\\\\");
+					break;
+				case '\n':
+					sb.append("\\n");
+					break;
+				case '\r':
+					sb.append("\\r");
+					break;
+				case '\t':
+					sb.append("\\t");
+					break;
+				default:
+					sb.append(c);
+			}
+		}
+		sb.append('"');
+	}
+
+	/**
+	 * Append a blank node. Jena's internal labels can contain characters which are not allowed in SPARQL,
+	 * so these are replaced by their hex code. Note that labels only identify a blank node within one request.
+	 *
+	 * @param sb the buffer to write to
+	 * @param label the internal label of the blank node
+	 */
+	public static void appendBlankNode(StringBuilder sb, String label) {
+
+		sb.append("_:b");
+		for (int i = 0; i < label.length(); i++) {
+			char c = label.charAt(i);
+			if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+				sb.append(c);
+			} else {
+				sb.append('x').append(Integer.toHexString(c));
+			}
+		}
+	}
+}
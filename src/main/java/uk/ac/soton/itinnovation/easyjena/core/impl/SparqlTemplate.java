@@ -0,0 +1,454 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.query.Query;
+import com.hp.hpl.jena.query.QueryFactory;
+import com.hp.hpl.jena.update.UpdateFactory;
+import com.hp.hpl.jena.update.UpdateRequest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A SPARQL statement which has been parsed and validated once so that it can be executed many times with different
+ * values for its variables. The statement is split at each variable when it is parsed, so filling in values only
+ * means joining the pieces again. Templates are immutable and can be shared between threads; the values for one
+ * execution are held by a {@link PreparedStatement}.
+ *
+ * Only variables in patterns and expressions can be replaced by values. Variables which are projected, described,
+ * grouped or ordered by, assigned with AS or listed by VALUES are declared by the statement; writing a value in
+ * their place would not be valid SPARQL, so they can't be given one. If a SELECT * query is given values, the *
+ * is replaced by the variables it stands for, so variables with a value are still returned like they are when the
+ * values are bound by a local store.
+ */
+public final class SparqlTemplate {
+
+	/**
+	 * The kinds of statement a template can hold
+	 */
+	public enum Type {
+		SELECT, ASK, CONSTRUCT, DESCRIBE, UPDATE
+	}
+
+	/**
+	 * The clauses in which variables are declared rather than used
+	 */
+	private enum Clause {
+
+		//anywhere else, e.g. patterns, templates and expressions
+		NONE,
+		//the variables after SELECT or DESCRIBE
+		PROJECTION,
+		//the conditions after GROUP BY or ORDER BY
+		MODIFIER,
+		//the variables after VALUES
+		VALUES
+	}
+
+	private final String sparql;
+	private final String prologue;
+	private final Type type;
+	private final Query query;
+	private final UpdateRequest updateRequest;
+
+	//the text around the variables, i.e. there is one more segment than there are variable occurrences
+	private final String[] segments;
+	//the variable occurrences as they appear in the statement, e.g. ?s or $s
+	private final String[] tokens;
+	private final String[] variables;
+	private final Set<String> variableNames;
+	private final Set<String> declaredVariables;
+	//the position of the * projecting all variables of a SELECT query in the first segment; -1 if there is none
+	private final int projectionStar;
+
+	private SparqlTemplate(String sparql, String prologue, Type type, Query query, UpdateRequest updateRequest,
+			List<String> segments, List<String> tokens, Set<String> declaredVariables, int projectionStar) {
+
+		this.sparql = sparql;
+		this.prologue = prologue;
+		this.type = type;
+		this.query = query;
+		this.updateRequest = updateRequest;
+		this.segments = segments.toArray(new String[segments.size()]);
+		this.tokens = tokens.toArray(new String[tokens.size()]);
+
+		variables = new String[this.tokens.length];
+		for (int i = 0; i < variables.length; i++) {
+			variables[i] = this.tokens[i].substring(1);
+		}
+		variableNames = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(variables)));
+		this.declaredVariables = Collections.unmodifiableSet(declaredVariables);
+		this.projectionStar = projectionStar;
+	}
+
+	/**
+	 * Parse a SPARQL query or update
+	 *
+	 * @param prologue the PREFIX declarations to put in front of the statement; may be empty
+	 * @param sparql the statement, using variables for all values which change between executions
+	 * @return the template
+	 * @throws com.hp.hpl.jena.query.QueryException if the statement is not valid SPARQL
+	 */
+	public static SparqlTemplate parse(String prologue, String sparql) {
+
+		String full = prologue + sparql;
+		List<String> segments = new ArrayList<>();
+		List<String> tokens = new ArrayList<>();
+		Set<String> declared = new HashSet<>();
+		Type type = null;
+
+		//keep track of the clause and nesting to find the variables which are declared
+		Clause clause = Clause.NONE;
+		int depth = 0;
+		int clauseDepth = 0;
+		boolean afterAs = false;
+		int projections = 0;
+		int star = -1;
+
+		//split at the variables, skipping anything in comments, strings and URIs
+		int n = full.length();
+		int segmentStart = 0;
+		int i = 0;
+		while (i < n) {
+			char c = full.charAt(i);
+			if (c == '#') {
+				int end = full.indexOf('\n', i);
+				i = end < 0 ? n : end;
+			} else if (c == '"' || c == '\'') {
+				i = skipString(full, i);
+			} else if (c == '<') {
+				i = skipURI(full, i);
+			} else if ((c == '?' || c == '$') && i + 1 < n && isVariableChar(full.charAt(i + 1))) {
+				int end = i + 1;
+				while (end < n && isVariableChar(full.charAt(end))) {
+					end++;
+				}
+				segments.add(full.substring(segmentStart, i));
+				tokens.add(full.substring(i, end));
+				if (afterAs || clause == Clause.VALUES
+						|| ((clause == Clause.PROJECTION || clause == Clause.MODIFIER) && depth == clauseDepth)) {
+					declared.add(full.substring(i + 1, end));
+				}
+				afterAs = false;
+				segmentStart = end;
+				i = end;
+			} else if (c == '@') {
+				//language tags aren't keywords
+				i++;
+				while (i < n && (isVariableChar(full.charAt(i)) || full.charAt(i) == '-')) {
+					i++;
+				}
+			} else if (Character.isLetter(c)) {
+				int end = i + 1;
+				while (end < n && (isVariableChar(full.charAt(end)) || full.charAt(end) == ':')) {
+					end++;
+				}
+				//the local part of a name with the empty prefix isn't a keyword either
+				String word = i > 0 && full.charAt(i - 1) == ':' ? ""
+						: full.substring(i, end).toUpperCase(Locale.ENGLISH);
+				if (type == null) {
+					type = keywordType(word);
+				}
+				afterAs = "AS".equals(word);
+				switch (word) {
+					case "SELECT":
+					case "DESCRIBE":
+						clause = Clause.PROJECTION;
+						clauseDepth = depth;
+						projections++;
+						break;
+					case "BY":
+						clause = Clause.MODIFIER;
+						clauseDepth = depth;
+						break;
+					case "VALUES":
+						clause = Clause.VALUES;
+						break;
+					case "WHERE":
+					case "FROM":
+					case "HAVING":
+					case "LIMIT":
+					case "OFFSET":
+						clause = Clause.NONE;
+						break;
+					default:
+						break;
+				}
+				i = end;
+			} else {
+				if (c == '(') {
+					depth++;
+				} else if (c == ')') {
+					depth--;
+				} else if (c == '{' || c == '}') {
+					clause = Clause.NONE;
+				} else if (c == '*' && clause == Clause.PROJECTION && depth == clauseDepth && projections == 1
+						&& type == Type.SELECT) {
+					//only the outermost query's projection; subqueries come later
+					star = i;
+				}
+				i++;
+			}
+		}
+		segments.add(full.substring(segmentStart));
+
+		Query query = null;
+		UpdateRequest updateRequest = null;
+		if (type == null || type == Type.UPDATE) {
+			updateRequest = UpdateFactory.create(full);
+			type = Type.UPDATE;
+		} else {
+			query = QueryFactory.create(full);
+			//this is set lazily otherwise, so do it now as the query will be shared between threads
+			query.setResultVars();
+		}
+		return new SparqlTemplate(sparql, prologue, type, query, updateRequest, segments, tokens, declared, star);
+	}
+
+	/**
+	 * Write the statement with the given values in place of the variables. Variables without a value are kept.
+	 * The * of a SELECT * query is replaced by its variables, projecting the given values as (value AS ?var).
+	 *
+	 * @param bindings the values, by variable name
+	 * @return the SPARQL statement, including the prologue
+	 */
+	public String render(Map<String, Node> bindings) {
+
+		if (bindings.isEmpty()) {
+			return prologue + sparql;
+		}
+		StringBuilder sb = new StringBuilder(prologue.length() + sparql.length() + bindings.size() * 64);
+		for (int i = 0; i < variables.length; i++) {
+			if (i == 0 && projectionStar >= 0) {
+				sb.append(segments[0], 0, projectionStar);
+				appendProjection(sb, bindings);
+				sb.append(segments[0], projectionStar + 1, segments[0].length());
+			} else {
+				sb.append(segments[i]);
+			}
+			Node value = bindings.get(variables[i]);
+			if (value != null) {
+				SparqlSerialiser.appendNode(sb, value);
+			} else {
+				sb.append(tokens[i]);
+			}
+		}
+		sb.append(segments[variables.length]);
+		return sb.toString();
+	}
+
+	// Getters ////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Get the statement without the prologue. This is the statement as it was passed in, unless its prefixed names
+	 * have been expanded.
+	 *
+	 * @return the statement
+	 */
+	public String getSparql() {
+		return sparql;
+	}
+
+	public String getPrologue() {
+		return prologue;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Get the parsed query. It is shared by all executions of this template and must not be changed.
+	 *
+	 * @return the query or null if this is an update
+	 */
+	public Query getQuery() {
+		return query;
+	}
+
+	/**
+	 * Get the parsed update. It is shared by all executions of this template and must not be changed.
+	 *
+	 * @return the update or null if this is a query
+	 */
+	public UpdateRequest getUpdateRequest() {
+		return updateRequest;
+	}
+
+	/**
+	 * Get the names of all variables which appear in the statement
+	 *
+	 * @return the variable names without ? or $
+	 */
+	public Set<String> getVariables() {
+		return variableNames;
+	}
+
+	/**
+	 * Get the names of the variables which are declared by the statement, i.e. projected, described, grouped or
+	 * ordered by, assigned with AS or listed by VALUES. These can't be given a value.
+	 *
+	 * @return the variable names without ? or $
+	 */
+	public Set<String> getDeclaredVariables() {
+		return declaredVariables;
+	}
+
+	@Override
+	public String toString() {
+		return sparql;
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Write the variables a SELECT * query projects, in the order the query returns them
+	 *
+	 * @param sb where to write them
+	 * @param bindings the values of the variables, which are projected with AS
+	 */
+	private void appendProjection(StringBuilder sb, Map<String, Node> bindings) {
+
+		List<String> resultVars = query.getResultVars();
+		for (int i = 0; i < resultVars.size(); i++) {
+			if (i > 0) {
+				sb.append(' ');
+			}
+			String var = resultVars.get(i);
+			Node value = bindings.get(var);
+			if (value != null) {
+				sb.append('(');
+				SparqlSerialiser.appendNode(sb, value);
+				sb.append(" AS ?").append(var).append(')');
+			} else {
+				sb.append('?').append(var);
+			}
+		}
+	}
+
+	/**
+	 * Find the statement type a keyword starts
+	 *
+	 * @param word the word in upper case
+	 * @return the type or null if the word isn't a query or update keyword
+	 */
+	private static Type keywordType(String word) {
+
+		switch (word) {
+			case "SELECT":
+				return Type.SELECT;
+			case "ASK":
+				return Type.ASK;
+			case "CONSTRUCT":
+				return Type.CONSTRUCT;
+			case "DESCRIBE":
+				return Type.DESCRIBE;
+			case "INSERT":
+			case "DELETE":
+			case "WITH":
+			case "LOAD":
+			case "CLEAR":
+			case "CREATE":
+			case "DROP":
+			case "ADD":
+			case "MOVE":
+			case "COPY":
+				return Type.UPDATE;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Skip a string literal in single or double quotes, including long strings in triple quotes
+	 *
+	 * @param s the statement
+	 * @param start the position of the opening quote
+	 * @return the position after the closing quote
+	 */
+	static int skipString(CharSequence s, int start) {
+
+		char quote = s.charAt(start);
+		boolean isLong = isTripleQuote(s, start, quote);
+		int i = start + (isLong ? 3 : 1);
+		while (i < s.length()) {
+			char c = s.charAt(i);
+			if (c == '\\') {
+				i += 2;
+			} else if (c == quote && (!isLong || isTripleQuote(s, i, quote))) {
+				return i + (isLong ? 3 : 1);
+			} else {
+				i++;
+			}
+		}
+		return i;
+	}
+
+	private static boolean isTripleQuote(CharSequence s, int i, char quote) {
+		return i + 2 < s.length() && s.charAt(i) == quote && s.charAt(i + 1) == quote && s.charAt(i + 2) == quote;
+	}
+
+	/**
+	 * Skip a URI in angle brackets. The bracket might also be a less-than operator, in which case only that
+	 * character is skipped.
+	 *
+	 * @param s the statement
+	 * @param start the position of the opening bracket
+	 * @return the position after the closing bracket or after the operator
+	 */
+	static int skipURI(CharSequence s, int start) {
+
+		int i = start + 1;
+		while (i < s.length() && isURIChar(s.charAt(i))) {
+			i++;
+		}
+		return i < s.length() && s.charAt(i) == '>' ? i + 1 : start + 1;
+	}
+
+	/**
+	 * Check whether a character may appear in a URI in angle brackets
+	 *
+	 * @param c the character
+	 * @return true if it may, false otherwise
+	 */
+	static boolean isURIChar(char c) {
+		return c > ' ' && "<>\"{}|^`\\".indexOf(c) < 0;
+	}
+
+	/**
+	 * Check whether a character may appear in a variable name
+	 *
+	 * @param c the character
+	 * @return true if it may, false otherwise
+	 */
+	static boolean isVariableChar(char c) {
+		return Character.isLetterOrDigit(c) || c == '_' || c == '\u00B7';
+	}
+}
@@ -0,0 +1,220 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.core.spec.IStoreMetrics;
+
+/**
+ * In-memory metrics registry. It keeps a latency histogram for each operation and each endpoint, counts bytes,
+ * rows, errors and retries, and remembers the most recent slow statements so they can be found in production.
+ * The same registry can be shared by several store wrappers.
+ */
+public class StoreMetrics implements IStoreMetrics {
+
+	private static final Logger logger = LoggerFactory.getLogger(StoreMetrics.class);
+
+	private static final long DEFAULT_SLOW_THRESHOLD = 1000;
+	private static final int SLOW_STATEMENTS = 20;
+	//longer statements are cut off in the slow statement log
+	private static final int MAX_STATEMENT_LENGTH = 1000;
+
+	private final long slowThreshold;
+
+	private final Map<String, LatencyHistogram> operations = new ConcurrentHashMap<>();
+	private final Map<String, LatencyHistogram> requests = new ConcurrentHashMap<>();
+	private final Map<String, LongAdder> rows = new ConcurrentHashMap<>();
+	private final Map<String, LongAdder> bytesSent = new ConcurrentHashMap<>();
+	private final Map<String, LongAdder> bytesReceived = new ConcurrentHashMap<>();
+	private final Map<String, LongAdder> retries = new ConcurrentHashMap<>();
+	private final Deque<String> slowStatements = new ConcurrentLinkedDeque<>();
+
+	private volatile int poolLeased;
+	private volatile int poolAvailable;
+	private volatile int poolPending;
+	private volatile int poolMax;
+
+	/**
+	 * Creates a registry which considers operations taking more than a second slow
+	 */
+	public StoreMetrics() {
+		this(DEFAULT_SLOW_THRESHOLD);
+	}
+
+	/**
+	 * Creates a registry
+	 *
+	 * @param slowThreshold operations taking longer than this many ms are logged; 0 to turn this off
+	 */
+	public StoreMetrics(long slowThreshold) {
+		this.slowThreshold = slowThreshold;
+	}
+
+	@Override
+	public void recordOperation(String operation, long nanos, boolean success, String statement) {
+
+		operations.computeIfAbsent(operation, k -> new LatencyHistogram()).record(nanos, success);
+
+		long millis = nanos / 1000000;
+		if (slowThreshold > 0 && millis >= slowThreshold) {
+			String text = statement == null ? "" : statement.length() > MAX_STATEMENT_LENGTH
+					? statement.substring(0, MAX_STATEMENT_LENGTH) + "..." : statement;
+			logger.info("Slow {} took {}ms: {}", operation, millis, text);
+			slowStatements.addFirst(millis + "ms " + operation + ": " + text);
+			while (slowStatements.size() > SLOW_STATEMENTS) {
+				slowStatements.pollLast();
+			}
+		}
+	}
+
+	@Override
+	public void recordRows(String operation, long count) {
+		rows.computeIfAbsent(operation, k -> new LongAdder()).add(count);
+	}
+
+	@Override
+	public void recordRequest(String endpoint, long nanos, int status) {
+		requests.computeIfAbsent(endpoint, k -> new LatencyHistogram()).record(nanos, status >= 200 && status < 400);
+	}
+
+	@Override
+	public void recordRetry(String endpoint) {
+		retries.computeIfAbsent(endpoint, k -> new LongAdder()).increment();
+	}
+
+	@Override
+	public void recordBytes(String endpoint, long sent, long received) {
+		bytesSent.computeIfAbsent(endpoint, k -> new LongAdder()).add(sent);
+		bytesReceived.computeIfAbsent(endpoint, k -> new LongAdder()).add(received);
+	}
+
+	@Override
+	public void recordPool(int leased, int available, int pending, int max) {
+		poolLeased = leased;
+		poolAvailable = available;
+		poolPending = pending;
+		poolMax = max;
+	}
+
+	/**
+	 * Forget everything recorded so far
+	 */
+	public void reset() {
+		operations.clear();
+		requests.clear();
+		rows.clear();
+		bytesSent.clear();
+		bytesReceived.clear();
+		retries.clear();
+		slowStatements.clear();
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Take a snapshot of a set of counters
+	 *
+	 * @param counters the counters
+	 * @return the current values by key
+	 */
+	private static Map<String, Long> snapshot(Map<String, LongAdder> counters) {
+		Map<String, Long> result = new HashMap<>();
+		counters.entrySet().stream().forEach(e -> result.put(e.getKey(), e.getValue().sum()));
+		return result;
+	}
+
+	// Getters ////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Get the latency histograms of all operations
+	 *
+	 * @return the histograms by operation
+	 */
+	public Map<String, LatencyHistogram> getOperations() {
+		return Collections.unmodifiableMap(operations);
+	}
+
+	/**
+	 * Get the latency histograms of the requests sent to each endpoint
+	 *
+	 * @return the histograms by endpoint URL
+	 */
+	public Map<String, LatencyHistogram> getRequests() {
+		return Collections.unmodifiableMap(requests);
+	}
+
+	public Map<String, Long> getRows() {
+		return snapshot(rows);
+	}
+
+	public Map<String, Long> getBytesSent() {
+		return snapshot(bytesSent);
+	}
+
+	public Map<String, Long> getBytesReceived() {
+		return snapshot(bytesReceived);
+	}
+
+	public Map<String, Long> getRetries() {
+		return snapshot(retries);
+	}
+
+	/**
+	 * Get the most recent slow statements
+	 *
+	 * @return the statements, newest first, each with its duration and operation
+	 */
+	public List<String> getSlowStatements() {
+		return new ArrayList<>(slowStatements);
+	}
+
+	public long getSlowThreshold() {
+		return slowThreshold;
+	}
+
+	public int getPoolLeased() {
+		return poolLeased;
+	}
+
+	public int getPoolAvailable() {
+		return poolAvailable;
+	}
+
+	public int getPoolPending() {
+		return poolPending;
+	}
+
+	public int getPoolMax() {
+		return poolMax;
+	}
+}
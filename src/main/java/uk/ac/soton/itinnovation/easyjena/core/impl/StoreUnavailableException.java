@@ -0,0 +1,53 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+/**
+ * Thrown instead of returning an empty result if a store can't be reached and the store wrapper has been
+ * configured to fail fast.
+ */
+public class StoreUnavailableException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Create a new exception
+	 *
+	 * @param message the reason why the store is unavailable
+	 */
+	public StoreUnavailableException(String message) {
+		super(message);
+	}
+
+	/**
+	 * Create a new exception
+	 *
+	 * @param message the reason why the store is unavailable
+	 * @param cause the exception which caused the request to fail
+	 */
+	public StoreUnavailableException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -0,0 +1,271 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.impl;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks whether ontologies exist on the web. Documents are requested with HEAD (falling back to GET for servers
+ * which don't support it) using strict timeouts, and the results are cached for all ontology managers, so the same
+ * URL isn't requested over and over again while loading imports. Only the results for the most recently used
+ * {@link #MAX_RESULTS} URLs are kept.
+ *
+ * Some URLs are known never to point to a loadable ontology (e.g. because the server times out or the document is
+ * not RDF). They can be configured as permanent entries of the negative cache and are never requested at all.
+ */
+public class UrlProbe {
+
+	private static final Logger logger = LoggerFactory.getLogger(UrlProbe.class);
+
+	//for properties documentation see src/main/resources/easyjena.properties
+	public static final String TIMEOUT = "easyjena.urlprobe.timeout";
+	public static final String TTL = "easyjena.urlprobe.ttl";
+	public static final String UNREACHABLE = "easyjena.urlprobe.unreachable";
+
+	public static final int MAX_RESULTS = 10000;
+	public static final int DEFAULT_TIMEOUT = 5000;
+	public static final long DEFAULT_TTL = 600000;
+	public static final Set<String> DEFAULT_UNREACHABLE = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+		"http://www.w3.org/2001/XMLSchema#",
+		"http://www.w3.org/2005/xpath-functions#",
+		"http://www.w3.org/XML/1998/namespace",
+		"http://proton.semanticweb.org/protonext#",
+		"http://proton.semanticweb.org/protonsys#"
+	)));
+
+	private static final String ACCEPT = "application/rdf+xml, text/turtle;q=0.9, application/n-triples;q=0.8, "
+			+ "text/n3;q=0.7, */*;q=0.1";
+	private static final String[] ALLOWED_CONTENT_TYPES = {"application/rdf+xml", "text/turtle", "text/plain",
+		"text/html"};
+
+	//results of earlier requests by URL, shared by all probes, least recently used first
+	private static final Map<String, Result> RESULTS = Collections.synchronizedMap(
+			new LinkedHashMap<String, Result>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Result> eldest) {
+					return size() > MAX_RESULTS;
+				}
+			});
+
+	private final int timeout;
+	private final long ttl;
+	private final Set<String> unreachable;
+
+	/**
+	 * Create a new probe
+	 *
+	 * @param timeout the connect and read timeout in ms
+	 * @param ttl the time in ms for which a result is reused
+	 * @param unreachable the URLs which are never requested
+	 */
+	public UrlProbe(int timeout, long ttl, Collection<String> unreachable) {
+		this.timeout = timeout;
+		this.ttl = ttl;
+		this.unreachable = Collections.unmodifiableSet(new HashSet<>(unreachable));
+	}
+
+	/**
+	 * Creates a probe as configured in the properties, using the defaults for missing properties
+	 *
+	 * @param props the properties
+	 * @return the probe
+	 */
+	public static UrlProbe fromProperties(Properties props) {
+
+		int timeout = DEFAULT_TIMEOUT;
+		long ttl = DEFAULT_TTL;
+		try {
+			timeout = Integer.parseInt(props.getProperty(TIMEOUT, String.valueOf(DEFAULT_TIMEOUT)).trim());
+		} catch (NumberFormatException e) {
+			logger.warn("Invalid value {} for property {}, using {}", props.getProperty(TIMEOUT), TIMEOUT,
+					DEFAULT_TIMEOUT);
+		}
+		try {
+			ttl = Long.parseLong(props.getProperty(TTL, String.valueOf(DEFAULT_TTL)).trim());
+		} catch (NumberFormatException e) {
+			logger.warn("Invalid value {} for property {}, using {}", props.getProperty(TTL), TTL, DEFAULT_TTL);
+		}
+		Collection<String> unreachable = DEFAULT_UNREACHABLE;
+		if (props.containsKey(UNREACHABLE)) {
+			unreachable = new HashSet<>();
+			for (String url : props.getProperty(UNREACHABLE).trim().split("[\\s,]+")) {
+				if (!url.isEmpty()) {
+					unreachable.add(url);
+				}
+			}
+		}
+		return new UrlProbe(timeout, ttl, unreachable);
+	}
+
+	// Probing ////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Checks whether the given URL exists and represents a valid ontology file
+	 *
+	 * @param location the URL to test
+	 * @return whether it exists and is valid or not
+	 */
+	public boolean exists(String location) {
+
+		if (isUnreachable(location)) {
+			logger.debug("Not requesting <{}>, it is configured as unreachable", location);
+			return false;
+		}
+		Result result = RESULTS.get(location);
+		if (result != null && result.isValid(ttl)) {
+			return result.found;
+		}
+		boolean found = request(location);
+		record(location, found);
+		return found;
+	}
+
+	/**
+	 * Find out whether a URL is known not to exist without requesting it
+	 *
+	 * @param location the URL
+	 * @return true if the URL is configured as unreachable or has not been found recently
+	 */
+	public boolean isKnownMissing(String location) {
+		if (isUnreachable(location)) {
+			return true;
+		}
+		Result result = RESULTS.get(location);
+		return result != null && !result.found && result.isValid(ttl);
+	}
+
+	/**
+	 * Find out whether a URL is one of the configured URLs which are never requested
+	 *
+	 * @param location the URL
+	 * @return whether it is configured as unreachable
+	 */
+	public boolean isUnreachable(String location) {
+		return unreachable.contains(location);
+	}
+
+	/**
+	 * Remember whether a URL could be loaded, e.g. after actually trying to load the document
+	 *
+	 * @param location the URL
+	 * @param found whether it exists and is valid
+	 */
+	public void record(String location, boolean found) {
+		RESULTS.put(location, new Result(found, System.currentTimeMillis()));
+	}
+
+	/**
+	 * Forget all results of earlier requests (of all probes)
+	 */
+	public static void clearCache() {
+		RESULTS.clear();
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+
+	private boolean request(String location) {
+
+		try {
+			URL url = new URL(location);
+			HttpURLConnection huc = connect(url, "HEAD");
+			int responseCode = huc.getResponseCode();
+			//not all servers support HEAD requests
+			if (responseCode == HttpURLConnection.HTTP_BAD_METHOD || responseCode == HttpURLConnection.HTTP_FORBIDDEN
+					|| responseCode == HttpURLConnection.HTTP_NOT_IMPLEMENTED) {
+				huc.disconnect();
+				logger.debug("HEAD request for <{}> not supported, falling back to GET", location);
+				huc = connect(url, "GET");
+				responseCode = huc.getResponseCode();
+			}
+			String responseMsg = huc.getResponseMessage();
+			String contentType = huc.getContentType();
+			//don't actually load the file, the connection was only needed for the response code and headers
+			huc.disconnect();
+
+			//HTTP error encountered
+			if (responseCode != HttpURLConnection.HTTP_OK) {
+				logger.debug("Could not find ontology at given URL, HTTP error code: {} - {}", responseCode, responseMsg);
+				return false;
+			}
+
+			//check whether it's in an allowed format
+			if (contentType != null) {
+				for (String act : ALLOWED_CONTENT_TYPES) {
+					if (contentType.contains(act)) {
+						return true;
+					}
+				}
+			}
+			logger.debug("Wrong content type ({}): the document found at URL <{}> is not a valid ontology file",
+					contentType, location);
+
+		} catch (MalformedURLException e) {
+			logger.debug("URL <{}> is invalid", location, e);
+		} catch (IOException | ClassCastException e) {
+			logger.debug("Error loading ontology from URL <{}>", location, e);
+		}
+		return false;
+	}
+
+	private HttpURLConnection connect(URL url, String method) throws IOException {
+		HttpURLConnection huc = (HttpURLConnection) url.openConnection();
+		huc.setRequestMethod(method);
+		huc.setConnectTimeout(timeout);
+		huc.setReadTimeout(timeout);
+		huc.setRequestProperty("Accept", ACCEPT);
+		huc.connect();
+		return huc;
+	}
+
+	/**
+	 * The outcome of a request and when it was made
+	 */
+	private static class Result {
+
+		private final boolean found;
+		private final long checked;
+
+		Result(boolean found, long checked) {
+			this.found = found;
+			this.checked = checked;
+		}
+
+		boolean isValid(long ttl) {
+			return System.currentTimeMillis() - checked < ttl;
+		}
+	}
+}
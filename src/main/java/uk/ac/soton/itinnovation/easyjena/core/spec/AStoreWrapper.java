@@ -24,12 +24,17 @@
 /////////////////////////////////////////////////////////////////////////
 package uk.ac.soton.itinnovation.easyjena.core.spec;
 
+import com.hp.hpl.jena.graph.Graph;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.core.impl.PrefixRewriter;
+import uk.ac.soton.itinnovation.easyjena.core.impl.PreparedStatement;
+import uk.ac.soton.itinnovation.easyjena.core.impl.SparqlTemplate;
 
 /**
  * This class provides the basis for store wrapper implementations.
@@ -41,11 +46,30 @@ public abstract class AStoreWrapper implements IStoreWrapper {
 
 	private static final Logger logger = LoggerFactory.getLogger(AStoreWrapper.class);
 
+	//the number of parsed statements kept by prepare(...)
+	private static final int STATEMENT_CACHE_SIZE = 256;
+
 	protected Properties props = new Properties();
 	protected Map<String, String> prefixURIMap = new HashMap<>();
 	protected String sparqlPrefixes = "";
 	protected boolean connected = false;
 	protected boolean geoSupport = false;
+	protected volatile IStoreMetrics metrics = IStoreMetrics.NONE;
+	protected volatile PrefixRewriter.Mode prefixMode = PrefixRewriter.Mode.USED;
+
+	//access ordered, i.e. the first entry is the least recently used one
+	private final Map<String, SparqlTemplate> statements = new LinkedHashMap<String, SparqlTemplate>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, SparqlTemplate> eldest) {
+			return size() > STATEMENT_CACHE_SIZE;
+		}
+	};
+	//guarded by statements
+	private PrefixRewriter prefixRewriter;
+	private String rewriterPrefixes;
 
 	/**
 	 * It is highly recommended to call this constructor in any implementing classes' constructor.
@@ -76,6 +100,18 @@ public abstract class AStoreWrapper implements IStoreWrapper {
 		return null;
 	}
 
+	@Override
+	public boolean querySelect(String sparql, ISelectResultHandler handler) {
+		logger.error("Streaming SELECT queries currently not supported for store of type {}", this.getClass());
+		return false;
+	}
+
+	@Override
+	public boolean exportGraph(String graphURI, String filter, Graph sink) {
+		logger.error("Exporting graphs currently not supported for store of type {}", this.getClass());
+		return false;
+	}
+
 	@Override
 	public Object queryConstruct(String sparql) {
 		logger.error("CONSTRUCT queries currently not supported for store of type {}", this.getClass());
@@ -105,6 +141,120 @@ public abstract class AStoreWrapper implements IStoreWrapper {
 		return null;
 	}
 
+	// Prepared statements ////////////////////////////////////////////////////////////////////////
+	/**
+	 * Parse a statement or take it from the cache. Only the PREFIX declarations the statement uses are put in
+	 * front of it, unless the prefix mode says otherwise. The cache is cleared when the store's prefixes change.
+	 *
+	 * @param sparql the query or update (doesn't need prefix statements if previously specified)
+	 * @return a new statement without any values
+	 */
+	@Override
+	public PreparedStatement prepare(String sparql) {
+
+		PrefixRewriter rewriter = getPrefixRewriter();
+		PrefixRewriter.Mode mode = prefixMode;
+		SparqlTemplate template;
+		synchronized (statements) {
+			template = statements.get(sparql);
+		}
+		if (template == null) {
+			if (mode == PrefixRewriter.Mode.EXPAND) {
+				template = SparqlTemplate.parse("", rewriter.expand(sparql));
+			} else {
+				template = SparqlTemplate.parse(mode == PrefixRewriter.Mode.ALL ? rewriter.getAllPrefixes()
+						: rewriter.getPrologue(sparql), sparql);
+			}
+			synchronized (statements) {
+				//don't cache statements parsed with outdated prefixes
+				if (rewriter == prefixRewriter && mode == prefixMode) {
+					statements.put(sparql, template);
+				}
+			}
+		}
+		return new PreparedStatement(template);
+	}
+
+	/**
+	 * Get the rewriter for outgoing SPARQL, creating a new one if the store's prefixes have changed
+	 *
+	 * @return the rewriter
+	 */
+	protected PrefixRewriter getPrefixRewriter() {
+
+		synchronized (statements) {
+			if (prefixRewriter == null || !sparqlPrefixes.equals(rewriterPrefixes)) {
+				prefixRewriter = new PrefixRewriter(prefixURIMap);
+				rewriterPrefixes = sparqlPrefixes;
+				statements.clear();
+			}
+			return prefixRewriter;
+		}
+	}
+
+	//The following run the statement with its values written into the SPARQL, including the PREFIX declarations.
+	//Stores which can pass the values to their query engine directly should override them.
+
+	@Override
+	public Object querySelect(PreparedStatement statement) {
+		return checkType(statement, SparqlTemplate.Type.SELECT) ? querySelect(statement.getSparql()) : null;
+	}
+
+	@Override
+	public boolean querySelect(PreparedStatement statement, ISelectResultHandler handler) {
+		return checkType(statement, SparqlTemplate.Type.SELECT) && querySelect(statement.getSparql(), handler);
+	}
+
+	@Override
+	public Object queryConstruct(PreparedStatement statement) {
+		return checkType(statement, SparqlTemplate.Type.CONSTRUCT) ? queryConstruct(statement.getSparql()) : null;
+	}
+
+	@Override
+	public Object queryDescribe(PreparedStatement statement) {
+		return checkType(statement, SparqlTemplate.Type.DESCRIBE) ? queryDescribe(statement.getSparql()) : null;
+	}
+
+	@Override
+	public boolean queryAsk(PreparedStatement statement) {
+		return checkType(statement, SparqlTemplate.Type.ASK) && queryAsk(statement.getSparql());
+	}
+
+	@Override
+	public void update(PreparedStatement statement) {
+		if (checkType(statement, SparqlTemplate.Type.UPDATE)) {
+			update(statement.getSparql());
+		}
+	}
+
+	/**
+	 * Check whether a prepared statement can be run by a particular method
+	 *
+	 * @param statement the statement
+	 * @param type the kind of statement the method runs
+	 * @return true if the statement is of that type, false (after logging an error) otherwise
+	 */
+	protected boolean checkType(PreparedStatement statement, SparqlTemplate.Type type) {
+		if (statement.getType() != type) {
+			logger.error("Invalid {} statement:\n{}", type, statement.getTemplate().getSparql());
+			return false;
+		}
+		return true;
+	}
+
+	// Metrics ////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Record an operation which has been started using System.nanoTime()
+	 *
+	 * @param operation the operation, as defined in IStoreMetrics
+	 * @param start the value of System.nanoTime() when the operation was started
+	 * @param success whether the operation succeeded
+	 * @param statement the SPARQL statement; may be null
+	 */
+	protected void recordOperation(String operation, long start, boolean success, String statement) {
+		metrics.recordOperation(operation, System.nanoTime() - start, success, statement);
+	}
+
 	// Getters/Setters ////////////////////////////////////////////////////////////////////////////
 	@Override
 	public String getSPARQLPrefixes() {
@@ -131,4 +281,33 @@ public abstract class AStoreWrapper implements IStoreWrapper {
 		return geoSupport;
 	}
 
+	public PrefixRewriter.Mode getPrefixMode() {
+		return prefixMode;
+	}
+
+	/**
+	 * Set how the prefixes of outgoing statements are declared
+	 *
+	 * @param prefixMode the mode; null for the default (only the prefixes which are used)
+	 */
+	public void setPrefixMode(PrefixRewriter.Mode prefixMode) {
+		synchronized (statements) {
+			this.prefixMode = prefixMode != null ? prefixMode : PrefixRewriter.Mode.USED;
+			statements.clear();
+		}
+	}
+
+	public IStoreMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Set where the measurements of this store are recorded
+	 *
+	 * @param metrics the metrics registry; null to stop recording
+	 */
+	public void setMetrics(IStoreMetrics metrics) {
+		this.metrics = metrics != null ? metrics : IStoreMetrics.NONE;
+	}
+
 }
@@ -0,0 +1,135 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.spec;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import uk.ac.soton.itinnovation.easyjena.core.impl.Triple;
+
+/**
+ * Non-blocking access to a store. Every operation is executed in the background and returns a future which
+ * completes with its result, so independent queries can be sent to the store at the same time.
+ *
+ * Updates are ordered by graph: all updates for the same graph are executed one after another in the order in
+ * which they were submitted, while updates for different graphs and all queries may run concurrently.
+ * A future completes exceptionally if the underlying store throws an exception.
+ */
+public interface IAsyncStoreWrapper {
+
+	/**
+	 * Get the store all operations are executed on
+	 *
+	 * @return the blocking store wrapper
+	 */
+	IStoreWrapper getStore();
+
+	/**
+	 * Run a SELECT query
+	 *
+	 * @param sparql the SPARQL SELECT query (doesn't need prefix statements if previously specified)
+	 * @return the translated results, i.e. a list containing a map of all variables for each result
+	 */
+	CompletableFuture<List<Map<String, String>>> querySelect(String sparql);
+
+	/**
+	 * Run a SELECT query and pass each solution to the handler while the results are being received.
+	 * The handler is called from a background thread.
+	 *
+	 * @param sparql the SPARQL SELECT query (doesn't need prefix statements if previously specified)
+	 * @param handler receives the solutions
+	 * @return a future which completes once all solutions have been handled, with whether the query was executed
+	 */
+	CompletableFuture<Boolean> querySelect(String sparql, ISelectResultHandler handler);
+
+	/**
+	 * Run an ASK query
+	 *
+	 * @param sparql the SPARQL ASK query (doesn't need prefix statements if previously specified)
+	 * @return the answer
+	 */
+	CompletableFuture<Boolean> queryAsk(String sparql);
+
+	/**
+	 * Run a CONSTRUCT query
+	 *
+	 * @param sparql the SPARQL CONSTRUCT query (doesn't need prefix statements if previously specified)
+	 * @return the result as returned by the store, usually a model
+	 */
+	CompletableFuture<Object> queryConstruct(String sparql);
+
+	/**
+	 * Run an update. Updates without a graph are ordered with all other updates for the default graph.
+	 *
+	 * @param sparql the update to run
+	 * @return a future which completes once the update has been executed
+	 */
+	CompletableFuture<Void> update(String sparql);
+
+	/**
+	 * Run an update which affects the given graph. It will only be executed after all previously submitted
+	 * updates for the same graph.
+	 *
+	 * @param sparql the update to run
+	 * @param graphURI the URI of the graph the update changes; default graph if this is null
+	 * @return a future which completes once the update has been executed
+	 */
+	CompletableFuture<Void> update(String sparql, String graphURI);
+
+	/**
+	 * Store a model in the store
+	 *
+	 * @param m the model to store
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 * @return a future which completes once the model has been stored
+	 */
+	CompletableFuture<Void> storeModel(Model m, String graphURI);
+
+	/**
+	 * Store a set of triples
+	 *
+	 * @param triples the triples to store
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 * @return a future which completes once the triples have been stored
+	 */
+	CompletableFuture<Void> storeTriples(Set<Triple> triples, String graphURI);
+
+	/**
+	 * Remove a set of triples
+	 *
+	 * @param triples the triples to remove
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 * @return a future which completes once the triples have been removed
+	 */
+	CompletableFuture<Void> removeTriples(Set<Triple> triples, String graphURI);
+
+	/**
+	 * Stop accepting new operations and release the executor if it was created by this wrapper.
+	 * Operations which have already been submitted are still executed.
+	 */
+	void shutdown();
+}
@@ -0,0 +1,106 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.spec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * This interface specifies the transport used by HTTP based store wrappers to talk to a SPARQL endpoint.
+ * Implementations are expected to be thread safe and to reuse connections between requests where possible.
+ */
+public interface IHttpTransport {
+
+	/**
+	 * Executes a HTTP request. The response has to be closed by the caller to release the connection.
+	 *
+	 * @param method the HTTP method, e.g. GET or POST
+	 * @param url the URL to send the request to
+	 * @param headers the HTTP headers to set on the request; may be null
+	 * @param body the body of the request; null if the request doesn't have one
+	 * @return the response of the server
+	 * @throws IOException if the request could not be sent or the response could not be received
+	 */
+	Response execute(String method, String url, Map<String, String> headers, RequestBody body) throws IOException;
+
+	/**
+	 * Closes all connections and releases all resources held by this transport.
+	 * The transport can not be used any more afterwards.
+	 */
+	void shutdown();
+
+	/**
+	 * The body of a HTTP request, which is written directly to the connection.
+	 */
+	interface RequestBody {
+
+		/**
+		 * Writes the body to the given stream
+		 *
+		 * @param out the stream of the connection
+		 * @throws IOException if writing fails
+		 */
+		void writeTo(OutputStream out) throws IOException;
+
+		/**
+		 * Get the length of the body in bytes
+		 *
+		 * @return the length or -1 if it is not known in advance
+		 */
+		long getContentLength();
+	}
+
+	/**
+	 * The response of a HTTP request
+	 */
+	interface Response extends Closeable {
+
+		/**
+		 * Get the HTTP status code
+		 *
+		 * @return the status code
+		 */
+		int getStatusCode();
+
+		/**
+		 * Get the value of a response header
+		 *
+		 * @param name the name of the header
+		 * @return the value or null if the header was not sent
+		 */
+		String getHeader(String name);
+
+		/**
+		 * Get the body of the response. This can only be read once.
+		 *
+		 * @return the body as a stream
+		 * @throws IOException if the body can not be read
+		 */
+		InputStream getContent() throws IOException;
+	}
+}
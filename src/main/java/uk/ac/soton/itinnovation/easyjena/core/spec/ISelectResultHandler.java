@@ -0,0 +1,42 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.spec;
+
+import com.hp.hpl.jena.query.QuerySolution;
+
+/**
+ * Receives the solutions of a SELECT query one by one while they are being read from the store.
+ * This allows processing arbitrarily large results without keeping them in memory.
+ */
+public interface ISelectResultHandler {
+
+	/**
+	 * Handle a single solution of the query. The solution must not be used after this method returns.
+	 *
+	 * @param solution the next solution
+	 * @return true to continue with the next solution, false to stop and discard all remaining results
+	 */
+	boolean handleSolution(QuerySolution solution);
+}
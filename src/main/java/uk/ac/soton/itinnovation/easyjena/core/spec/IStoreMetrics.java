@@ -0,0 +1,109 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.spec;
+
+/**
+ * Receives measurements from a store wrapper. Implementations decide how to aggregate and publish them and must be
+ * thread safe, as the store can be used by many threads at the same time. All methods do nothing by default, so an
+ * implementation only needs to override what it is interested in.
+ */
+public interface IStoreMetrics {
+
+	//operations of a store wrapper
+	String SELECT = "select";
+	String ASK = "ask";
+	String CONSTRUCT = "construct";
+	String DESCRIBE = "describe";
+	String UPDATE = "update";
+	String STORE = "store";
+	String REMOVE = "remove";
+	String IMPORT = "import";
+	String EXPORT = "export";
+
+	/**
+	 * Metrics which are discarded
+	 */
+	IStoreMetrics NONE = new IStoreMetrics() {
+	};
+
+	/**
+	 * Record a completed operation
+	 *
+	 * @param operation the operation, e.g. SELECT
+	 * @param nanos how long the operation took in ns
+	 * @param success whether the operation succeeded
+	 * @param statement the SPARQL statement; may be null
+	 */
+	default void recordOperation(String operation, long nanos, boolean success, String statement) {
+	}
+
+	/**
+	 * Record the number of results of an operation
+	 *
+	 * @param operation the operation, e.g. SELECT
+	 * @param rows the number of solutions or triples
+	 */
+	default void recordRows(String operation, long rows) {
+	}
+
+	/**
+	 * Record a request sent to an endpoint
+	 *
+	 * @param endpoint the URL of the endpoint (without query string)
+	 * @param nanos how long the request took in ns, including reading the response
+	 * @param status the HTTP status code or -1 if no response was received
+	 */
+	default void recordRequest(String endpoint, long nanos, int status) {
+	}
+
+	/**
+	 * Record a request that had to be sent again
+	 *
+	 * @param endpoint the URL of the endpoint (without query string)
+	 */
+	default void recordRetry(String endpoint) {
+	}
+
+	/**
+	 * Record the amount of data exchanged with an endpoint in one request
+	 *
+	 * @param endpoint the URL of the endpoint (without query string)
+	 * @param sent the size of the request body in bytes
+	 * @param received the size of the response body in bytes, after decompression
+	 */
+	default void recordBytes(String endpoint, long sent, long received) {
+	}
+
+	/**
+	 * Record the current state of the connection pool
+	 *
+	 * @param leased connections in use
+	 * @param available idle connections
+	 * @param pending requests waiting for a connection
+	 * @param max the maximum number of connections
+	 */
+	default void recordPool(int leased, int available, int pending, int max) {
+	}
+}
@@ -0,0 +1,117 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core.spec;
+
+import java.util.List;
+import java.util.Map;
+import uk.ac.soton.itinnovation.easyjena.core.impl.OperationStatistics;
+
+/**
+ * Management interface of the store metrics published through JMX. All durations are in ms.
+ */
+public interface IStoreMetricsMXBean {
+
+	/**
+	 * Get the latency statistics of each operation
+	 *
+	 * @return the statistics by operation
+	 */
+	Map<String, OperationStatistics> getOperations();
+
+	/**
+	 * Get the latency statistics of the requests sent to each endpoint
+	 *
+	 * @return the statistics by endpoint URL
+	 */
+	Map<String, OperationStatistics> getRequests();
+
+	/**
+	 * Get the number of solutions or triples returned by each operation
+	 *
+	 * @return the number of rows by operation
+	 */
+	Map<String, Long> getRows();
+
+	/**
+	 * Get the number of bytes sent to each endpoint
+	 *
+	 * @return the bytes by endpoint URL
+	 */
+	Map<String, Long> getBytesSent();
+
+	/**
+	 * Get the number of bytes received from each endpoint
+	 *
+	 * @return the bytes by endpoint URL
+	 */
+	Map<String, Long> getBytesReceived();
+
+	/**
+	 * Get the number of retried requests for each endpoint
+	 *
+	 * @return the retries by endpoint URL
+	 */
+	Map<String, Long> getRetries();
+
+	/**
+	 * Get the most recent slow statements
+	 *
+	 * @return the statements, newest first
+	 */
+	List<String> getSlowStatements();
+
+	/**
+	 * Get the number of pooled connections in use
+	 *
+	 * @return the number of connections
+	 */
+	int getPoolLeased();
+
+	/**
+	 * Get the number of idle pooled connections
+	 *
+	 * @return the number of connections
+	 */
+	int getPoolAvailable();
+
+	/**
+	 * Get the number of requests waiting for a pooled connection
+	 *
+	 * @return the number of requests
+	 */
+	int getPoolPending();
+
+	/**
+	 * Get the maximum number of pooled connections
+	 *
+	 * @return the number of connections
+	 */
+	int getPoolMax();
+
+	/**
+	 * Forget everything recorded so far
+	 */
+	void reset();
+}
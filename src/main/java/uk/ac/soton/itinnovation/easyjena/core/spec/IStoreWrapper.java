@@ -25,12 +25,14 @@
 
 package uk.ac.soton.itinnovation.easyjena.core.spec;
 
+import com.hp.hpl.jena.graph.Graph;
 import com.hp.hpl.jena.rdf.model.Model;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import org.apache.jena.riot.RDFFormat;
+import uk.ac.soton.itinnovation.easyjena.core.impl.PreparedStatement;
 import uk.ac.soton.itinnovation.easyjena.core.impl.Triple;
 
 
@@ -109,6 +111,18 @@ public interface IStoreWrapper {
 	 */
 	Object querySelect(String sparql);
 
+	/**
+	 * Queries the store and passes each solution to the handler as soon as it has been received.
+	 * Unlike querySelect(String) the results are not collected, so memory use does not depend on the size
+	 * of the result.
+	 *
+	 * @param sparql the SPARQL SELECT query (doesn't need prefix statements if previously specified)
+	 * @param handler receives the solutions one by one
+	 * @return whether the query was executed; false if it failed, in which case the handler may have received
+	 * some of the solutions
+	 */
+	boolean querySelect(String sparql, ISelectResultHandler handler);
+
 	/**
 	 * Queries the store
 	 *
@@ -147,6 +161,70 @@ public interface IStoreWrapper {
 	 */
 	List<Map<String, String>> translateSelectResult(Object results);
 
+	// Prepared statements ////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Parse a SPARQL query or update so that it can be run many times with different values for its variables.
+	 * The statement is validated once and the parsed form is cached by the store, so preparing the same SPARQL
+	 * again is cheap. Values are set on the returned statement and escaped before they are sent to the store.
+	 * Variables that are given a value must be used as RDF terms, e.g. not in the projection of a SELECT query.
+	 *
+	 * @param sparql the query or update (doesn't need prefix statements if previously specified)
+	 * @return a new statement without any values
+	 * @throws com.hp.hpl.jena.query.QueryException if the statement is not valid SPARQL
+	 */
+	PreparedStatement prepare(String sparql);
+
+	/**
+	 * Runs a prepared SELECT query
+	 *
+	 * @param statement the query with its values
+	 * @return the results of the query, in whatever form the implementing class chooses
+	 * @see #querySelect(String)
+	 */
+	Object querySelect(PreparedStatement statement);
+
+	/**
+	 * Runs a prepared SELECT query, passing the solutions to the handler as they arrive
+	 *
+	 * @param statement the query with its values
+	 * @param handler receives the solutions one by one
+	 * @return whether the query was executed
+	 * @see #querySelect(String, ISelectResultHandler)
+	 */
+	boolean querySelect(PreparedStatement statement, ISelectResultHandler handler);
+
+	/**
+	 * Runs a prepared CONSTRUCT query
+	 *
+	 * @param statement the query with its values
+	 * @return the constructed triples in whatever form the implementing class chooses
+	 */
+	Object queryConstruct(PreparedStatement statement);
+
+	/**
+	 * Runs a prepared DESCRIBE query
+	 *
+	 * @param statement the query with its values
+	 * @return the results of the query in whatever form the implementing class chooses
+	 */
+	Object queryDescribe(PreparedStatement statement);
+
+	/**
+	 * Runs a prepared ASK query
+	 *
+	 * @param statement the query with its values
+	 * @return the results of the query
+	 */
+	boolean queryAsk(PreparedStatement statement);
+
+	/**
+	 * Runs a prepared update
+	 *
+	 * @param statement the update with its values
+	 */
+	void update(PreparedStatement statement);
+
 	// Actions that might be executed on a particular graph ///////////////////////////////////////
 
 	/**
@@ -167,6 +245,18 @@ public interface IStoreWrapper {
 	 */
 	String getRDF(String graphURI);
 
+	/**
+	 * Export the contents of a graph straight into a Jena graph, without going through SELECT results.
+	 * The triples are parsed and added to the sink while they are received.
+	 *
+	 * @param graphURI the URI of the graph; default graph if this is null
+	 * @param filter additional SPARQL graph pattern (e.g. a FILTER on ?s ?p ?o) to export only part of the graph;
+	 * the whole graph if this is null
+	 * @param sink the graph to add the triples to
+	 * @return whether the export succeeded. The sink might contain part of the graph if it didn't.
+	 */
+	boolean exportGraph(String graphURI, String filter, Graph sink);
+
 	/**
 	 * Stores a single triple in the store. Since this method should be a transaction,
 	 * it is discouraged from using it for large amounts of triples.
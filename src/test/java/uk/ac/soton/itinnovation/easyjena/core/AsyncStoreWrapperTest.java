@@ -0,0 +1,153 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import junit.framework.TestCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.core.impl.AsyncStoreWrapper;
+import uk.ac.soton.itinnovation.easyjena.core.impl.LocalStoreWrapper;
+
+@RunWith(JUnit4.class)
+public class AsyncStoreWrapperTest extends TestCase {
+
+	private static final String NS = "http://example.com/ns#";
+
+	private static Logger logger;
+
+	private RecordingStore store;
+	private ExecutorService executor;
+	private AsyncStoreWrapper async;
+
+	@BeforeClass
+	public static void beforeClass() {
+		logger = LoggerFactory.getLogger(AsyncStoreWrapperTest.class);
+		logger.info("AsyncStoreWrapper tests executing...");
+	}
+
+	@Before
+	public void beforeEachTest() {
+		store = new RecordingStore();
+		store.connect();
+		executor = Executors.newFixedThreadPool(4);
+		async = new AsyncStoreWrapper(store, executor);
+	}
+
+	@After
+	public void afterEachTest() {
+		executor.shutdownNow();
+	}
+
+	// Tests //////////////////////////////////////////////////////////////////////////////////////
+
+	@Test
+	public void testQuerySelect() throws Exception {
+		store.update("INSERT DATA { <" + NS + "a> <" + NS + "p> 1, 2, 3 }");
+
+		List<Map<String, String>> result = async.querySelect("SELECT ?o WHERE { ?s ?p ?o } ORDER BY ?o")
+				.get(10, TimeUnit.SECONDS);
+		assertEquals(3, result.size());
+		assertTrue(result.get(0).get("o").startsWith("1"));
+
+		int[] rows = {0};
+		assertTrue(async.querySelect("SELECT ?o WHERE { ?s ?p ?o }", solution -> ++rows[0] < 2)
+				.get(10, TimeUnit.SECONDS));
+		assertEquals(2, rows[0]);
+		assertFalse(async.querySelect("ASK { ?s ?p ?o }", solution -> true).get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testUpdatesOrderedPerGraph() throws Exception {
+		CompletableFuture<Void> a1 = async.update("a1", NS + "a");
+		CompletableFuture<Void> a2 = async.update("a2", NS + "a");
+		CompletableFuture<Void> b1 = async.update("b1", NS + "b");
+
+		//updates of other graphs don't wait for the blocked one
+		b1.get(10, TimeUnit.SECONDS);
+		assertFalse(a1.isDone());
+		assertFalse(a2.isDone());
+
+		store.release.countDown();
+		a2.get(10, TimeUnit.SECONDS);
+		assertTrue(a1.isDone());
+		assertEquals(Arrays.asList("b1", "a1", "a2"), store.updates);
+	}
+
+	@Test
+	public void testFailedUpdateDoesNotStopGraph() throws Exception {
+		store.release.countDown();
+		CompletableFuture<Void> failed = async.update("fail", null);
+		CompletableFuture<Void> next = async.update("next", null);
+
+		next.get(10, TimeUnit.SECONDS);
+		assertTrue(failed.isCompletedExceptionally());
+		assertEquals(Arrays.asList("fail", "next"), store.updates);
+	}
+
+	/**
+	 * A store which records the updates it runs instead of executing them. The update "a1" waits until it is
+	 * released and the update "fail" throws an exception.
+	 */
+	private static class RecordingStore extends LocalStoreWrapper {
+
+		private final CountDownLatch release = new CountDownLatch(1);
+		private final List<String> updates = Collections.synchronizedList(new ArrayList<>());
+
+		@Override
+		public void update(String sparql) {
+			if (sparql.startsWith("INSERT")) {
+				super.update(sparql);
+				return;
+			}
+			try {
+				if (sparql.equals("a1") && !release.await(10, TimeUnit.SECONDS)) {
+					throw new IllegalStateException("Update has not been released");
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			updates.add(sparql);
+			if (sparql.equals("fail")) {
+				throw new IllegalStateException("Update failed");
+			}
+		}
+	}
+}
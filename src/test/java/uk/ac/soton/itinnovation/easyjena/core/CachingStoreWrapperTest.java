@@ -0,0 +1,233 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import java.util.ArrayList;
+import java.util.Set;
+import junit.framework.TestCase;
+import org.apache.jena.riot.RDFFormat;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.core.impl.CachingStoreWrapper;
+import uk.ac.soton.itinnovation.easyjena.core.impl.Triple;
+import uk.ac.soton.itinnovation.easyjena.core.spec.AStoreWrapper;
+
+@RunWith(JUnit4.class)
+public class CachingStoreWrapperTest extends TestCase {
+
+	private static Logger logger;
+
+	private CountingStore store;
+	private CachingStoreWrapper cache;
+
+	@BeforeClass
+	public static void beforeClass() {
+		logger = LoggerFactory.getLogger(CachingStoreWrapperTest.class);
+		logger.info("CachingStoreWrapper tests executing...");
+	}
+
+	@Before
+	public void beforeEachTest() {
+		store = new CountingStore();
+		cache = new CachingStoreWrapper(store, 2, 0);
+	}
+
+	// Tests //////////////////////////////////////////////////////////////////////////////////////
+
+	@Test
+	public void testHit() {
+		Object first = cache.querySelect("SELECT * WHERE { ?s ?p ?o }");
+		Object second = cache.querySelect("SELECT *\n\tWHERE {\n\t\t?s ?p ?o\n\t}");
+		assertSame(first, second);
+		assertEquals(1, store.queries);
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void testLiteralWhitespaceKept() {
+		cache.queryAsk("ASK { ?s ?p \"a  b\" }");
+		cache.queryAsk("ASK { ?s ?p \"a b\" }");
+		assertEquals(2, store.queries);
+	}
+
+	@Test
+	public void testEviction() {
+		cache.getCount("http://example.com/a");
+		cache.getCount("http://example.com/b");
+		//a is used more recently than b now
+		cache.getCount("http://example.com/a");
+		cache.getCount("http://example.com/c");
+		assertEquals(1, cache.getEvictions());
+		assertEquals(2, cache.getSize());
+
+		cache.getCount("http://example.com/a");
+		assertEquals(3, store.queries);
+		cache.getCount("http://example.com/b");
+		assertEquals(4, store.queries);
+	}
+
+	@Test
+	public void testInvalidateGraph() {
+		cache.getCount("http://example.com/a");
+		cache.getCount("http://example.com/b");
+		cache.clearGraph("http://example.com/a");
+
+		cache.getCount("http://example.com/b");
+		assertEquals(2, store.queries);
+		cache.getCount("http://example.com/a");
+		assertEquals(3, store.queries);
+	}
+
+	@Test
+	public void testInvalidateByUpdate() {
+		String query = "SELECT * WHERE { GRAPH <http://example.com/a> { ?s ?p ?o } }";
+		cache.querySelect(query);
+		cache.update("INSERT DATA { GRAPH <http://example.com/b> { <http://example.com/s> "
+				+ "<http://example.com/p> <http://example.com/o> } }");
+		//the query also reads the default graph, which is the union of all graphs by default
+		cache.querySelect(query);
+		assertEquals(2, store.queries);
+	}
+
+	@Test
+	public void testFromClauseLimitsInvalidation() {
+		String query = "SELECT * FROM <http://example.com/a> WHERE { ?s ?p ?o }";
+		cache.querySelect(query);
+		cache.storeTriples(null, "http://example.com/b");
+		cache.querySelect(query);
+		assertEquals(1, store.queries);
+		cache.storeTriples(null, "http://example.com/a");
+		cache.querySelect(query);
+		assertEquals(2, store.queries);
+	}
+
+	/**
+	 * A store which answers every query with a new object and counts the queries it receives
+	 */
+	private static class CountingStore extends AStoreWrapper {
+
+		private int queries;
+
+		@Override
+		public Object querySelect(String sparql) {
+			queries++;
+			return new ArrayList<>();
+		}
+
+		@Override
+		public boolean queryAsk(String sparql) {
+			queries++;
+			return true;
+		}
+
+		@Override
+		public int getCount(String graphURI) {
+			queries++;
+			return queries;
+		}
+
+		@Override
+		public boolean graphExists(String graphURI) {
+			queries++;
+			return true;
+		}
+
+		@Override
+		public void update(String sparql) {
+		}
+
+		@Override
+		public void createGraph(String graphURI) {
+		}
+
+		@Override
+		public void clearGraph(String graphURI) {
+		}
+
+		@Override
+		public void deleteGraph(String graphURI) {
+		}
+
+		@Override
+		public void connect() {
+		}
+
+		@Override
+		public void disconnect() {
+		}
+
+		@Override
+		public void loadNamespaces() {
+		}
+
+		@Override
+		public void importDocumentToGraph(String ontologypath, String baseURI, String graphURI, RDFFormat format) {
+		}
+
+		@Override
+		public String getRDF(String graphURI) {
+			return null;
+		}
+
+		@Override
+		public void storeTriple(Triple t, String graphURI) {
+		}
+
+		@Override
+		public void removeTriple(Triple t, String graphURI) {
+		}
+
+		@Override
+		public void storeTriples(Set<Triple> triples, String graphURI) {
+		}
+
+		@Override
+		public void removeTriples(Set<Triple> triples, String graphURI) {
+		}
+
+		@Override
+		public void storeModel(Model m, String graphURI) {
+		}
+
+		@Override
+		public void removeModel(Model m, String graphURI) {
+		}
+
+		@Override
+		public void storeRDF(String rdf, String graphURI) {
+		}
+
+		@Override
+		public void removeRDF(String rdf, String graphURI) {
+		}
+	}
+}
@@ -39,7 +39,15 @@ import org.slf4j.LoggerFactory;
 @RunWith(Suite.class)
 @SuiteClasses({
 	JenaOntologyManagerTest.class,
-	HttpStoreWrapperTest.class
+	HttpStoreWrapperTest.class,
+	CachingStoreWrapperTest.class,
+	LocalStoreWrapperTest.class,
+	AsyncStoreWrapperTest.class,
+	ResultFormatTest.class,
+	SparqlSerialiserTest.class,
+	SelectEndpointRouterTest.class,
+	SparqlRequestBodyTest.class,
+	EndpointHealthTest.class
 	//TODO: add other test classes here: semanticfactory and triple
 })
 public class EasyJenaCoreTestSuite {
@@ -52,7 +60,15 @@ public class EasyJenaCoreTestSuite {
 
 		Result result = org.junit.runner.JUnitCore.runClasses(
 			JenaOntologyManagerTest.class,
-			HttpStoreWrapperTest.class
+			HttpStoreWrapperTest.class,
+			CachingStoreWrapperTest.class,
+			LocalStoreWrapperTest.class,
+			AsyncStoreWrapperTest.class,
+			ResultFormatTest.class,
+			SparqlSerialiserTest.class,
+			SelectEndpointRouterTest.class,
+			SparqlRequestBodyTest.class,
+			EndpointHealthTest.class
 			//TODO: add other test classes here: semanticfactory and triple
 		);
 
@@ -0,0 +1,109 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core;
+
+import junit.framework.TestCase;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.core.impl.EndpointHealth;
+
+@RunWith(JUnit4.class)
+public class EndpointHealthTest extends TestCase {
+
+	private static final String ENDPOINT = "http://example.com/sparql";
+
+	private static Logger logger;
+
+	@BeforeClass
+	public static void beforeClass() {
+		logger = LoggerFactory.getLogger(EndpointHealthTest.class);
+		logger.info("EndpointHealth tests executing...");
+	}
+
+	// Tests //////////////////////////////////////////////////////////////////////////////////////
+
+	@Test
+	public void testOpensAfterConsecutiveFailures() {
+		EndpointHealth health = new EndpointHealth(ENDPOINT, 3, 60000);
+		health.recordFailure();
+		health.recordFailure();
+		//a success resets the count
+		health.recordSuccess();
+		health.recordFailure();
+		health.recordFailure();
+		assertEquals(EndpointHealth.State.CLOSED, health.getState());
+		assertTrue(health.allowRequest());
+		assertTrue(health.isAvailable());
+
+		health.recordFailure();
+		assertEquals(EndpointHealth.State.OPEN, health.getState());
+		assertEquals(3, health.getConsecutiveFailures());
+		assertEquals(5, health.getFailures());
+		assertEquals(1, health.getSuccesses());
+		assertFalse(health.allowRequest());
+		assertFalse(health.isAvailable());
+	}
+
+	@Test
+	public void testSingleTrialWhenHalfOpen() {
+		EndpointHealth health = new EndpointHealth(ENDPOINT, 1, 0);
+		health.recordFailure();
+		assertEquals(EndpointHealth.State.OPEN, health.getState());
+		//the open time has passed straight away
+		assertTrue(health.isAvailable());
+
+		assertTrue(health.allowRequest());
+		assertEquals(EndpointHealth.State.HALF_OPEN, health.getState());
+		assertFalse(health.isAvailable());
+		//only the first request is let through while the trial is running
+		assertFalse(health.allowRequest());
+		assertFalse(health.allowRequest());
+
+		health.recordSuccess();
+		assertEquals(EndpointHealth.State.CLOSED, health.getState());
+		assertTrue(health.allowRequest());
+		assertTrue(health.allowRequest());
+	}
+
+	@Test
+	public void testFailedTrialReopens() {
+		EndpointHealth health = new EndpointHealth(ENDPOINT, 5, 0);
+		for (int i = 0; i < 5; i++) {
+			health.recordFailure();
+		}
+		assertTrue(health.allowRequest());
+		assertEquals(EndpointHealth.State.HALF_OPEN, health.getState());
+
+		//a single failure is enough while half open
+		health.recordFailure();
+		assertEquals(EndpointHealth.State.OPEN, health.getState());
+		assertTrue(health.getLastFailure() > 0);
+		assertEquals(0, health.getLastSuccess());
+	}
+}
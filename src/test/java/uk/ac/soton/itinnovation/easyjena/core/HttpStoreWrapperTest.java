@@ -24,9 +24,40 @@
 /////////////////////////////////////////////////////////////////////////
 package uk.ac.soton.itinnovation.easyjena.core;
 
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.query.QueryFactory;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.sparql.graph.GraphFactory;
+import com.hp.hpl.jena.vocabulary.OWL;
+import com.hp.hpl.jena.vocabulary.RDF;
+import com.hp.hpl.jena.vocabulary.RDFS;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import junit.framework.TestCase;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -35,7 +66,17 @@ import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.core.impl.BatchReport;
+import uk.ac.soton.itinnovation.easyjena.core.impl.EndpointHealth;
+import uk.ac.soton.itinnovation.easyjena.core.impl.GraphStatistics;
 import uk.ac.soton.itinnovation.easyjena.core.impl.HttpStoreWrapper;
+import uk.ac.soton.itinnovation.easyjena.core.impl.PooledHttpTransport;
+import uk.ac.soton.itinnovation.easyjena.core.impl.PreparedStatement;
+import uk.ac.soton.itinnovation.easyjena.core.impl.ResultFormat;
+import uk.ac.soton.itinnovation.easyjena.core.impl.SparqlRequestBody;
+import uk.ac.soton.itinnovation.easyjena.core.impl.StoreMetrics;
+import uk.ac.soton.itinnovation.easyjena.core.impl.StoreUnavailableException;
+import uk.ac.soton.itinnovation.easyjena.core.spec.IHttpTransport;
 
 @RunWith(JUnit4.class)
 public class HttpStoreWrapperTest extends TestCase
@@ -117,5 +158,713 @@ public class HttpStoreWrapperTest extends TestCase
 			fail("Error creating graph");
 		}
 	}
-	
+
+	// Tests without a store //////////////////////////////////////////////////////////////////////
+
+	@Test
+	public void testBlankNodesInOneBatch() {
+		Properties p = new Properties();
+		p.putAll(props);
+		p.setProperty("easyjena.sparqlendpoint.batch.triples", "2");
+		HttpStoreWrapper s = new HttpStoreWrapper(p);
+		RecordingTransport transport = new RecordingTransport();
+		s.setTransport(transport);
+
+		Model m = ModelFactory.createDefaultModel();
+		Resource restriction = m.createResource();
+		m.add(m.createResource("http://example.com/C"), RDFS.subClassOf, restriction);
+		m.add(restriction, RDF.type, OWL.Restriction);
+		m.add(restriction, OWL.onProperty, m.createResource("http://example.com/p"));
+		m.add(restriction, OWL.someValuesFrom, m.createResource("http://example.com/D"));
+		for (int i = 0; i < 3; i++) {
+			m.add(m.createResource("http://example.com/s" + i), RDF.type, OWL.Thing);
+		}
+
+		BatchReport report = s.storeModelInBatches(m, "http://example.com/g");
+		assertTrue(report.isSuccessful());
+		assertEquals(7, report.getTriples());
+
+		//the restriction's triples have all been sent in the same request
+		int requests = 0;
+		for (String body : transport.bodies) {
+			if (body.contains("_:")) {
+				requests++;
+				assertEquals(4, body.split("_:", -1).length - 1);
+			}
+		}
+		assertEquals(1, requests);
+	}
+
+	@Test
+	public void testResultFormats() {
+		RecordingTransport transport = new RecordingTransport();
+		store.setTransport(transport);
+
+		//generic content types are understood as well
+		transport.contentType = "application/json; charset=utf-8";
+		transport.content = "{ \"head\": { \"vars\": [ \"s\" ] }, \"results\": { \"bindings\": [ "
+				+ "{ \"s\": { \"type\": \"uri\", \"value\": \"http://example.com/a\" } } ] } }";
+		List<Map<String, String>> result = store.querySelect("SELECT ?s WHERE { ?s ?p ?o }");
+		assertEquals(1, result.size());
+		assertEquals("http://example.com/a", result.get(0).get("s"));
+		assertEquals(ResultFormat.getAcceptHeader(false), transport.headers.get(0).get("Accept"));
+		assertEquals(SparqlRequestBody.FORM, transport.headers.get(0).get("Content-Type"));
+
+		transport.contentType = ResultFormat.XML.getContentType();
+		transport.content = "<?xml version=\"1.0\"?>\n<sparql xmlns=\"http://www.w3.org/2005/sparql-results#\">"
+				+ "<head/><boolean>true</boolean></sparql>";
+		assertTrue(store.queryAsk("ASK { ?s ?p ?o }"));
+		assertEquals(ResultFormat.getAcceptHeader(true), transport.headers.get(1).get("Accept"));
+	}
+
+	@Test
+	public void testChecksAfterWritesUsePrimary() {
+		RecordingTransport transport = new RecordingTransport();
+		store.setTransport(transport);
+		store.setSelectEndpoints(Arrays.asList("http://a.example.com/sparql", "http://b.example.com/sparql"));
+		transport.contentType = ResultFormat.XML.getContentType();
+		transport.content = "<?xml version=\"1.0\"?>\n<sparql xmlns=\"http://www.w3.org/2005/sparql-results#\">"
+				+ "<head/><boolean>false</boolean></sparql>";
+
+		for (int i = 0; i < 4; i++) {
+			store.clearGraph("http://example.com/g");
+		}
+		int checks = 0;
+		for (int i = 0; i < transport.bodies.size(); i++) {
+			if (transport.bodies.get(i).startsWith("ASK")) {
+				checks++;
+				assertEquals("http://a.example.com/sparql", transport.urls.get(i));
+			}
+		}
+		assertEquals(4, checks);
+	}
+
+	@Test
+	public void testClearGraphFallback() {
+		RecordingTransport transport = new RecordingTransport();
+		store.setTransport(transport);
+		transport.answer(false);
+
+		//graphs the store doesn't know about are not an error
+		store.clearGraph("http://example.com/g");
+		assertEquals("CLEAR SILENT GRAPH <http://example.com/g>", transport.bodies.get(0));
+
+		//if clearing fails, only the triples still in the graph are deleted
+		transport.bodies.clear();
+		transport.answer(true);
+		transport.script.add(501);
+		store.clearGraph("http://example.com/g");
+		assertEquals(3, transport.bodies.size());
+		assertTrue(transport.bodies.get(1).startsWith("ASK"));
+		assertEquals("DELETE {?s ?p ?o} WHERE {GRAPH <http://example.com/g> {?s ?p ?o}}", transport.bodies.get(2));
+
+		//the whole store is only wiped if it has nothing but a default graph
+		transport.bodies.clear();
+		store.setNamedGraphs(false);
+		transport.script.add(400);
+		store.clearGraph("http://example.com/g");
+		assertEquals(Arrays.asList("CLEAR SILENT GRAPH <http://example.com/g>", "DELETE WHERE {?s ?p ?o}"),
+				transport.bodies);
+	}
+
+	@Test
+	public void testStatisticsCache() {
+		RecordingTransport transport = new RecordingTransport();
+		store.setTransport(transport);
+		transport.contentType = ResultFormat.JSON.getContentType();
+		transport.content = "{ \"head\": { \"vars\": [ \"count\" ] }, \"results\": { \"bindings\": [ "
+				+ "{ \"count\": " + countLiteral(42) + " } ] } }";
+
+		//counted once, then cached
+		assertEquals(42, store.getCount("http://example.com/g"));
+		assertEquals(42, store.getStatistics("http://example.com/g").getTriples());
+		assertEquals(1, transport.urls.size());
+
+		//any update might have changed the graph
+		store.update("INSERT DATA { GRAPH <http://example.com/g> { <http://example.com/a> <http://example.com/p> "
+				+ "<http://example.com/b> } }");
+		assertEquals(42, store.getCount("http://example.com/g"));
+		assertEquals(3, transport.urls.size());
+
+		//all graphs are counted with a single query
+		transport.content = "{ \"head\": { \"vars\": [ \"g\", \"count\" ] }, \"results\": { \"bindings\": [ "
+				+ "{ \"g\": { \"type\": \"uri\", \"value\": \"http://example.com/g1\" }, \"count\": "
+				+ countLiteral(5) + " }, "
+				+ "{ \"g\": { \"type\": \"uri\", \"value\": \"http://example.com/g2\" }, \"count\": "
+				+ countLiteral(7) + " } ] } }";
+		Map<String, GraphStatistics> all = store.getGraphStatistics();
+		assertEquals(2, all.size());
+		assertEquals(7, all.get("http://example.com/g2").getTriples());
+		transport.urls.clear();
+		assertEquals(5, store.getCount("http://example.com/g1"));
+		assertEquals(7, store.getCount("http://example.com/g2"));
+		assertTrue(transport.urls.isEmpty());
+
+		//only the graph which has been written to is counted again
+		Model m = ModelFactory.createDefaultModel();
+		m.add(m.createResource("http://example.com/a"), RDF.type, OWL.Thing);
+		store.storeModel(m, "http://example.com/g1");
+		transport.urls.clear();
+		assertEquals(7, store.getCount("http://example.com/g2"));
+		assertTrue(transport.urls.isEmpty());
+		store.getCount("http://example.com/g1");
+		assertEquals(1, transport.urls.size());
+	}
+
+	@Test
+	public void testConstructUsesReplicas() {
+		RecordingTransport transport = new RecordingTransport();
+		store.setTransport(transport);
+		store.setSelectEndpoints(Arrays.asList("http://a.example.com/sparql", "http://b.example.com/sparql"));
+		transport.contentType = "application/n-triples";
+		transport.content = "<http://example.com/a> <http://example.com/p> <http://example.com/b> .\n";
+
+		//CONSTRUCT queries only read, so they are distributed over the replicas like all other queries
+		for (int i = 0; i < 2; i++) {
+			Model m = store.queryConstruct("CONSTRUCT { ?s ?p ?o } WHERE { ?s ?p ?o }");
+			assertEquals(1, m.size());
+		}
+		assertTrue(transport.urls.contains("http://a.example.com/sparql"));
+		assertTrue(transport.urls.contains("http://b.example.com/sparql"));
+	}
+
+	@Test
+	public void testPreparedStatementRendering() {
+		RecordingTransport transport = new RecordingTransport();
+		store.setTransport(transport);
+		transport.contentType = ResultFormat.TSV.getContentType();
+		transport.content = "?label\n";
+
+		//only the variables in the pattern are replaced by their values
+		PreparedStatement labels = store.prepare("SELECT ?label WHERE { "
+				+ "?s <http://www.w3.org/2000/01/rdf-schema#label> ?label } ORDER BY ?label");
+		labels.setURI("s", "http://example.com/a");
+		store.querySelect(labels);
+		String sent = transport.bodies.get(0);
+		assertTrue(sent.endsWith("SELECT ?label WHERE { <http://example.com/a> "
+				+ "<http://www.w3.org/2000/01/rdf-schema#label> ?label } ORDER BY ?label"));
+		QueryFactory.create(sent);
+
+		PreparedStatement counts = store.prepare("SELECT ?g (COUNT(*) AS ?n) WHERE { GRAPH ?g { ?s ?p ?o } } "
+				+ "GROUP BY ?g");
+		counts.setURI("s", "http://example.com/a").setLiteral("o", 1);
+		store.querySelect(counts);
+		QueryFactory.create(transport.bodies.get(1));
+
+		//SELECT * returns the variables with a value as well, the same as binding the values in a local store does
+		PreparedStatement all = store.prepare("SELECT * WHERE { GRAPH ?g { ?s ?p ?o } }");
+		all.setURI("s", "http://example.com/a").setGraph("g", "http://example.com/g");
+		store.querySelect(all);
+		assertEquals(Arrays.asList("g", "s", "p", "o"), QueryFactory.create(transport.bodies.get(2)).getResultVars());
+
+		//writing values in place of projected, grouped or assigned variables would not be valid SPARQL
+		for (String var : Arrays.asList("g", "n")) {
+			try {
+				counts.setURI(var, "http://example.com/b");
+				fail("Declared variable ?" + var + " must not be given a value");
+			} catch (IllegalArgumentException e) {
+				//expected
+			}
+		}
+		try {
+			labels.setLiteral("label", "A");
+			fail("Projected variables must not be given a value");
+		} catch (IllegalArgumentException e) {
+			//expected
+		}
+	}
+
+	@Test
+	public void testRetries() {
+		RecordingTransport transport = new RecordingTransport();
+		HttpStoreWrapper s = createStore(transport, "easyjena.sparqlendpoint.retries", "2",
+				"easyjena.sparqlendpoint.retryBackoff", "1");
+		transport.answer(true);
+
+		//queries are sent again until they succeed...
+		transport.script.add(503);
+		transport.script.add(new IOException("Connection reset"));
+		assertTrue(s.queryAsk("ASK { ?s ?p ?o }"));
+		assertEquals(3, transport.urls.size());
+
+		//...or the retries are used up
+		transport.urls.clear();
+		transport.script.addAll(Arrays.asList(500, 502, 503, 504));
+		assertFalse(s.queryAsk("ASK { ?s ?p ?o }"));
+		assertEquals(3, transport.urls.size());
+		transport.script.clear();
+
+		//errors caused by the request itself are not retried
+		transport.urls.clear();
+		transport.script.add(400);
+		assertFalse(s.queryAsk("ASK { ?s ?p ?o }"));
+		assertEquals(1, transport.urls.size());
+
+		//updates might be applied twice, so they are only sent once
+		transport.urls.clear();
+		transport.script.add(new IOException("Connection reset"));
+		s.update("INSERT DATA { <http://example.com/a> <http://example.com/p> <http://example.com/b> }");
+		assertEquals(1, transport.urls.size());
+	}
+
+	@Test
+	public void testBackoff() {
+		RecordingTransport transport = new RecordingTransport();
+		HttpStoreWrapper s = createStore(transport, "easyjena.sparqlendpoint.retries", "2",
+				"easyjena.sparqlendpoint.retryBackoff", "100");
+		transport.answer(true);
+		transport.script.addAll(Arrays.asList(503, 429));
+
+		//at least half of 100ms and 200ms, as the backoff is doubled for each retry
+		long start = System.currentTimeMillis();
+		assertTrue(s.queryAsk("ASK { ?s ?p ?o }"));
+		assertTrue(System.currentTimeMillis() - start >= 150);
+		assertEquals(3, transport.urls.size());
+	}
+
+	@Test
+	public void testDeadline() {
+		RecordingTransport transport = new RecordingTransport();
+		HttpStoreWrapper s = createStore(transport, "easyjena.sparqlendpoint.retries", "100",
+				"easyjena.sparqlendpoint.retryBackoff", "100", "easyjena.sparqlendpoint.deadline", "1000",
+				"easyjena.sparqlendpoint.breaker.failures", "100");
+		transport.status = 503;
+
+		//the retries stop before the deadline is exceeded, long before they are used up
+		long start = System.currentTimeMillis();
+		assertFalse(s.queryAsk("ASK { ?s ?p ?o }"));
+		assertTrue(System.currentTimeMillis() - start < 1500);
+		assertTrue(transport.urls.size() > 1);
+		assertTrue(transport.urls.size() <= 5);
+
+		//no retry at all if the first backoff alone would exceed the deadline
+		s = createStore(transport, "easyjena.sparqlendpoint.retries", "100",
+				"easyjena.sparqlendpoint.retryBackoff", "5000", "easyjena.sparqlendpoint.deadline", "1000");
+		transport.urls.clear();
+		start = System.currentTimeMillis();
+		assertFalse(s.queryAsk("ASK { ?s ?p ?o }"));
+		assertTrue(System.currentTimeMillis() - start < 1000);
+		assertEquals(1, transport.urls.size());
+	}
+
+	@Test
+	public void testFailFast() {
+		RecordingTransport transport = new RecordingTransport();
+		HttpStoreWrapper s = createStore(transport, "easyjena.sparqlendpoint.retries", "0",
+				"easyjena.sparqlendpoint.failFast", "true");
+		transport.answer(true);
+
+		transport.script.add(new IOException("Connection refused"));
+		try {
+			s.queryAsk("ASK { ?s ?p ?o }");
+			fail("An unreachable endpoint must cause a StoreUnavailableException");
+		} catch (StoreUnavailableException e) {
+			//expected
+		}
+		transport.script.add(503);
+		try {
+			s.querySelect("SELECT ?s WHERE { ?s ?p ?o }");
+			fail("An overloaded endpoint must cause a StoreUnavailableException");
+		} catch (StoreUnavailableException e) {
+			//expected
+		}
+		assertTrue(s.queryAsk("ASK { ?s ?p ?o }"));
+	}
+
+	@Test
+	public void testCircuitBreaker() {
+		RecordingTransport transport = new RecordingTransport();
+		HttpStoreWrapper s = createStore(transport, "easyjena.sparqlendpoint.retries", "0",
+				"easyjena.sparqlendpoint.breaker.failures", "2", "easyjena.sparqlendpoint.breaker.openTime", "60000");
+		transport.status = 500;
+
+		assertFalse(s.queryAsk("ASK { ?s ?p ?o }"));
+		assertTrue(s.isAvailable());
+		assertFalse(s.queryAsk("ASK { ?s ?p ?o }"));
+		assertFalse(s.isAvailable());
+		assertEquals(EndpointHealth.State.OPEN, s.getEndpointHealth(transport.urls.get(0)).getState());
+
+		//no more requests are sent while the endpoint is unavailable
+		assertFalse(s.queryAsk("ASK { ?s ?p ?o }"));
+		assertEquals(2, transport.urls.size());
+	}
+
+	@Test
+	public void testGraphExistsWithoutAnswer() {
+		RecordingTransport transport = new RecordingTransport();
+		HttpStoreWrapper s = createStore(transport, "easyjena.sparqlendpoint.retries", "0");
+		transport.status = 503;
+
+		//a graph is no longer assumed to exist if the store can't be asked
+		assertFalse(s.graphExists("http://example.com/g"));
+		s.setFailFast(true);
+		try {
+			s.graphExists("http://example.com/g");
+			fail("An unavailable store must cause a StoreUnavailableException");
+		} catch (StoreUnavailableException e) {
+			//expected
+		}
+	}
+
+	@Test
+	public void testHandlerExceptionsArePassedOn() {
+		RecordingTransport transport = new RecordingTransport();
+		store.setTransport(transport);
+		transport.contentType = ResultFormat.JSON.getContentType();
+		transport.content = "{ \"head\": { \"vars\": [ \"s\" ] }, \"results\": { \"bindings\": [ "
+				+ "{ \"s\": { \"type\": \"uri\", \"value\": \"http://example.com/a\" } } ] } }";
+
+		try {
+			store.querySelect("SELECT ?s WHERE { ?s ?p ?o }", solution -> {
+				throw new IllegalStateException("Handler failed");
+			});
+			fail("Exceptions thrown by the result handler must be passed on");
+		} catch (IllegalStateException e) {
+			//expected
+		}
+		//the response has been read, so the query is not sent again
+		assertEquals(1, transport.urls.size());
+	}
+
+	@Test
+	public void testGraphStoreProtocol() throws IOException {
+		RecordingTransport transport = new RecordingTransport();
+		HttpStoreWrapper s = createStore(transport, HttpStoreWrapper.DATA_ENDPOINT, "http://example.com/data");
+		Model m = ModelFactory.createDefaultModel();
+		m.add(m.createResource("http://example.com/a"), RDFS.label, "A");
+		m.add(m.createResource("http://example.com/b"), RDF.type, OWL.Thing);
+		String graph = "http://example.com/data?graph=" + URLEncoder.encode("http://example.com/g", "UTF-8");
+
+		//models are added to a graph with POST and replace it with PUT, as one N-Triples document each
+		s.storeModel(m, "http://example.com/g");
+		s.replaceGraph(m, null);
+		assertEquals(Arrays.asList("POST", "PUT"), transport.methods);
+		assertEquals(Arrays.asList(graph, "http://example.com/data?default"), transport.urls);
+		for (int i = 0; i < 2; i++) {
+			assertEquals(Lang.NTRIPLES.getContentType().getContentType(), transport.headers.get(i).get("Content-Type"));
+			Model sent = ModelFactory.createDefaultModel();
+			RDFDataMgr.read(sent, new ByteArrayInputStream(transport.bodies.get(i).getBytes(StandardCharsets.UTF_8)),
+					Lang.NTRIPLES);
+			assertTrue(m.isIsomorphicWith(sent));
+		}
+
+		//Turtle documents on disk are sent as they are
+		File file = File.createTempFile("easyjena", ".ttl");
+		try {
+			String turtle = "@prefix ex: <http://example.com/> .\nex:a ex:p ex:b .\n";
+			Files.write(file.toPath(), turtle.getBytes(StandardCharsets.UTF_8));
+			s.importDocumentToGraph(file.getPath(), null, "http://example.com/g", null);
+			assertEquals("POST", transport.methods.get(2));
+			assertEquals(graph, transport.urls.get(2));
+			assertEquals(Lang.TURTLE.getContentType().getContentType(), transport.headers.get(2).get("Content-Type"));
+			assertEquals(turtle, transport.bodies.get(2));
+		} finally {
+			Files.delete(file.toPath());
+		}
+
+		//graphs are downloaded with GET
+		transport.contentType = Lang.TURTLE.getContentType().getContentType();
+		transport.content = "<http://example.com/a> <http://example.com/p> <http://example.com/b> .\n";
+		assertEquals(transport.content, s.getRDF("http://example.com/g"));
+		assertEquals("GET", transport.methods.get(3));
+		assertEquals(graph, transport.urls.get(3));
+	}
+
+	@Test
+	public void testUploadsWithoutDataEndpoint() {
+		RecordingTransport transport = new RecordingTransport();
+		HttpStoreWrapper s = createStore(transport, HttpStoreWrapper.DATA_ENDPOINT, "");
+		transport.answer(false);
+		Model m = ModelFactory.createDefaultModel();
+		m.add(m.createResource("http://example.com/a"), RDFS.label, "A");
+
+		//without a data endpoint the triples are sent as SPARQL updates
+		s.storeModel(m, "http://example.com/g");
+		assertEquals(1, transport.bodies.size());
+		assertTrue(transport.bodies.get(0).contains("INSERT DATA"));
+		assertTrue(transport.bodies.get(0).contains("<http://example.com/a>"));
+
+		//and the graph is cleared before the model is stored when it is replaced
+		transport.bodies.clear();
+		s.replaceGraph(m, "http://example.com/g");
+		assertEquals("CLEAR SILENT GRAPH <http://example.com/g>", transport.bodies.get(0));
+		assertTrue(transport.bodies.get(transport.bodies.size() - 1).contains("INSERT DATA"));
+		for (String url : transport.urls) {
+			assertFalse(url.contains("graph="));
+		}
+	}
+
+	@Test
+	public void testExportGraph() throws IOException {
+		RecordingTransport transport = new RecordingTransport();
+		HttpStoreWrapper s = createStore(transport, HttpStoreWrapper.DATA_ENDPOINT, "",
+				"easyjena.sparqlendpoint.retries", "0");
+		transport.contentType = Lang.NTRIPLES.getContentType().getContentType();
+		transport.content = "<http://example.com/a> <http://example.com/p> <http://example.com/b> .\n"
+				+ "<http://example.com/a> <http://example.com/p> \"b\" .\n";
+
+		//without a data endpoint the graph is exported with a CONSTRUCT query, preferably as N-Triples
+		Graph sink = GraphFactory.createDefaultGraph();
+		assertTrue(s.exportGraph("http://example.com/g", null, sink));
+		assertEquals(2, sink.size());
+		assertTrue(transport.bodies.get(0).contains("CONSTRUCT"));
+		assertTrue(transport.bodies.get(0).contains("GRAPH <http://example.com/g>"));
+		assertTrue(transport.headers.get(0).get("Accept").startsWith("application/n-triples"));
+
+		//filters become part of the query
+		assertTrue(s.exportGraph("http://example.com/g", "FILTER(isIRI(?o))", GraphFactory.createDefaultGraph()));
+		assertTrue(transport.bodies.get(1).contains("FILTER(isIRI(?o))"));
+
+		//endpoints which can't negotiate the format are asked for RDF/XML instead, from then on
+		transport.script.add(406);
+		transport.contentType = "application/rdf+xml";
+		transport.content = "<?xml version=\"1.0\"?>\n"
+				+ "<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\" xmlns:ex=\"http://example.com/\">"
+				+ "<rdf:Description rdf:about=\"http://example.com/a\">"
+				+ "<ex:p rdf:resource=\"http://example.com/b\"/></rdf:Description></rdf:RDF>";
+		sink = GraphFactory.createDefaultGraph();
+		assertTrue(s.exportGraph("http://example.com/g", null, sink));
+		assertEquals(1, sink.size());
+		assertEquals("application/rdf+xml", transport.headers.get(3).get("Accept"));
+		assertTrue(s.exportGraph("http://example.com/g", null, GraphFactory.createDefaultGraph()));
+		assertEquals(5, transport.urls.size());
+		assertEquals("application/rdf+xml", transport.headers.get(4).get("Accept"));
+
+		//failed exports are reported
+		transport.status = 500;
+		assertFalse(s.exportGraph("http://example.com/g", null, GraphFactory.createDefaultGraph()));
+
+		//with a data endpoint whole graphs are downloaded as documents
+		s.setDataEndpoint("http://example.com/data");
+		transport.status = 200;
+		transport.urls.clear();
+		transport.methods.clear();
+		transport.contentType = Lang.TURTLE.getContentType().getContentType();
+		transport.content = "@prefix ex: <http://example.com/> .\nex:a ex:p ex:b, ex:c .\n";
+		sink = GraphFactory.createDefaultGraph();
+		assertTrue(s.exportGraph("http://example.com/g", null, sink));
+		assertEquals(2, sink.size());
+		assertEquals(Collections.singletonList("GET"), transport.methods);
+		assertEquals(Collections.singletonList("http://example.com/data?graph="
+				+ URLEncoder.encode("http://example.com/g", "UTF-8")), transport.urls);
+	}
+
+	@Test
+	public void testConnectionPool() throws IOException {
+		//the connections to a local server show whether they are used again
+		Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+		byte[] answer = ("<?xml version=\"1.0\"?>\n<sparql xmlns=\"http://www.w3.org/2005/sparql-results#\">"
+				+ "<head/><boolean>true</boolean></sparql>").getBytes(StandardCharsets.UTF_8);
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/sparql", exchange -> {
+			clientPorts.add(exchange.getRemoteAddress().getPort());
+			try (InputStream in = exchange.getRequestBody()) {
+				while (in.read() >= 0) {
+					//the request body is not needed
+				}
+			}
+			exchange.getResponseHeaders().set("Content-Type", ResultFormat.XML.getContentType());
+			exchange.sendResponseHeaders(200, answer.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(answer);
+			}
+		});
+		server.start();
+		String url = "http://localhost:" + server.getAddress().getPort() + "/sparql";
+		PooledHttpTransport transport = new PooledHttpTransport(new Properties());
+
+		try {
+			HttpStoreWrapper s = createStore(transport, "easyjena.sparqlendpoint.select", url);
+			for (int i = 0; i < 5; i++) {
+				assertTrue(s.queryAsk("ASK { ?s ?p ?o }"));
+			}
+			//the connection has been returned to the pool after each query and used for the next one
+			assertEquals(1, clientPorts.size());
+			assertEquals(0, transport.getPoolStats().getLeased());
+			assertEquals(1, transport.getPoolStats().getAvailable());
+
+			//shutting down closes the pooled connections and no more requests can be sent
+			transport.shutdown();
+			assertEquals(0, transport.getPoolStats().getAvailable());
+			try {
+				transport.execute("GET", url, null, null);
+				fail("Requests must not be sent after the pool has been shut down");
+			} catch (IllegalStateException e) {
+				//expected
+			}
+		} finally {
+			transport.shutdown();
+			server.stop(0);
+		}
+	}
+
+	@Test
+	public void testMetrics() {
+		RecordingTransport transport = new RecordingTransport();
+		Properties pool = new Properties();
+		pool.setProperty(PooledHttpTransport.MAX_CONNECTIONS, "5");
+		IdlePoolTransport pooled = new IdlePoolTransport(pool, transport);
+		HttpStoreWrapper s = createStore(pooled, "easyjena.sparqlendpoint.select",
+				"http://example.com/query?infer=true", "easyjena.sparqlendpoint.update", "http://example.com/update",
+				"easyjena.sparqlendpoint.retries", "1", "easyjena.sparqlendpoint.retryBackoff", "1");
+		StoreMetrics metrics = new StoreMetrics(0);
+		s.setMetrics(metrics);
+		transport.answer(true);
+
+		try {
+			assertTrue(s.queryAsk("ASK { ?s ?p ?o }"));
+			long sent = metrics.getBytesSent().get("http://example.com/query");
+			assertTrue(sent > 0);
+			assertEquals(Long.valueOf(transport.content.getBytes(StandardCharsets.UTF_8).length),
+					metrics.getBytesReceived().get("http://example.com/query"));
+
+			//the failed attempt is measured as well, but nothing has been read from it
+			transport.script.add(503);
+			assertTrue(s.queryAsk("ASK { ?s ?p ?o }"));
+			assertEquals(Long.valueOf(3 * sent), metrics.getBytesSent().get("http://example.com/query"));
+			assertEquals(Long.valueOf(2 * transport.content.getBytes(StandardCharsets.UTF_8).length),
+					metrics.getBytesReceived().get("http://example.com/query"));
+			assertEquals(Long.valueOf(1), metrics.getRetries().get("http://example.com/query"));
+
+			//requests are measured for each endpoint, without the query string
+			s.update("INSERT DATA { <http://example.com/a> <http://example.com/p> <http://example.com/b> }");
+			assertEquals(3, metrics.getRequests().get("http://example.com/query").getCount());
+			assertEquals(1, metrics.getRequests().get("http://example.com/query").getErrors());
+			assertEquals(1, metrics.getRequests().get("http://example.com/update").getCount());
+			assertNull(metrics.getRetries().get("http://example.com/update"));
+
+			//the state of the connection pool is recorded after each request
+			assertEquals(0, metrics.getPoolLeased());
+			assertEquals(20, metrics.getPoolMax());
+		} finally {
+			pooled.shutdown();
+		}
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Serialise a count in the SPARQL JSON results format
+	 *
+	 * @param count the count
+	 * @return the JSON object for the literal
+	 */
+	private static String countLiteral(long count) {
+		return "{ \"type\": \"literal\", \"datatype\": \"http://www.w3.org/2001/XMLSchema#integer\", "
+				+ "\"value\": \"" + count + "\" }";
+	}
+
+	/**
+	 * Create a store wrapper which sends its requests to the given transport
+	 *
+	 * @param transport the transport
+	 * @param settings property names, each followed by its value, to override the test properties
+	 * @return the store wrapper
+	 */
+	private static HttpStoreWrapper createStore(IHttpTransport transport, String... settings) {
+		Properties p = new Properties();
+		p.putAll(props);
+		for (int i = 0; i + 1 < settings.length; i += 2) {
+			p.setProperty(settings[i], settings[i + 1]);
+		}
+		HttpStoreWrapper s = new HttpStoreWrapper(p);
+		s.setTransport(transport);
+		return s;
+	}
+
+	/**
+	 * A connection pool which is never used, as all requests are passed on to another transport. The statistics of
+	 * the pool are still available.
+	 */
+	private static class IdlePoolTransport extends PooledHttpTransport {
+
+		private final IHttpTransport requests;
+
+		IdlePoolTransport(Properties props, IHttpTransport requests) {
+			super(props);
+			this.requests = requests;
+		}
+
+		@Override
+		public Response execute(String method, String url, Map<String, String> headers, RequestBody body)
+				throws IOException {
+			return requests.execute(method, url, headers, body);
+		}
+	}
+
+	/**
+	 * A transport which records the methods, URLs, headers and bodies of all requests. Scripted status codes or
+	 * exceptions are returned first, all other requests are answered with the same response.
+	 */
+	private static class RecordingTransport implements IHttpTransport {
+
+		private final List<String> methods = new ArrayList<>();
+		private final List<String> urls = new ArrayList<>();
+		private final List<String> bodies = new ArrayList<>();
+		private final List<Map<String, String>> headers = new ArrayList<>();
+		//status codes (Integer) or IOExceptions to answer the next requests with
+		private final Deque<Object> script = new ArrayDeque<>();
+		private int status = 200;
+		private String contentType;
+		private String content = "";
+
+		@Override
+		public synchronized Response execute(String method, String url, Map<String, String> headers,
+				RequestBody body) throws IOException {
+			methods.add(method);
+			urls.add(url);
+			this.headers.add(headers);
+			String sent = "";
+			if (body != null) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				body.writeTo(out);
+				sent = new String(out.toByteArray(), StandardCharsets.UTF_8);
+				if (sent.startsWith("update=") || sent.startsWith("query=")) {
+					sent = URLDecoder.decode(sent.substring(sent.indexOf('=') + 1), "UTF-8");
+				}
+			}
+			bodies.add(sent);
+			Object next = script.poll();
+			if (next instanceof IOException) {
+				throw (IOException) next;
+			}
+			int code = next != null ? (Integer) next : status;
+			byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+			return new Response() {
+				@Override
+				public int getStatusCode() {
+					return code;
+				}
+
+				@Override
+				public String getHeader(String name) {
+					return "Content-Type".equalsIgnoreCase(name) ? contentType : null;
+				}
+
+				@Override
+				public InputStream getContent() {
+					return new ByteArrayInputStream(bytes);
+				}
+
+				@Override
+				public void close() {
+				}
+			};
+		}
+
+		@Override
+		public void shutdown() {
+		}
+
+		/**
+		 * Answer all requests with the result of an ASK query
+		 *
+		 * @param answer the result
+		 */
+		private void answer(boolean answer) {
+			contentType = ResultFormat.XML.getContentType();
+			content = "<?xml version=\"1.0\"?>\n<sparql xmlns=\"http://www.w3.org/2005/sparql-results#\">"
+					+ "<head/><boolean>" + answer + "</boolean></sparql>";
+		}
+	}
 }
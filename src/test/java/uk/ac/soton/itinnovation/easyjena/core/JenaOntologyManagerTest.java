@@ -24,10 +24,29 @@
 /////////////////////////////////////////////////////////////////////////
 package uk.ac.soton.itinnovation.easyjena.core;
 
+import com.hp.hpl.jena.graph.Graph;
 import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.vocabulary.OWL;
+import com.hp.hpl.jena.vocabulary.RDF;
+import com.hp.hpl.jena.vocabulary.RDFS;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import junit.framework.TestCase;
 import org.junit.After;
 import org.junit.Before;
@@ -39,8 +58,13 @@ import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.core.impl.ImportCache;
+import uk.ac.soton.itinnovation.easyjena.core.impl.ImportResolver;
 import uk.ac.soton.itinnovation.easyjena.core.impl.JenaOntologyManager;
 import uk.ac.soton.itinnovation.easyjena.core.impl.JenaOntologyManager.LoadingLocation;
+import uk.ac.soton.itinnovation.easyjena.core.impl.LocalStoreWrapper;
+import uk.ac.soton.itinnovation.easyjena.core.impl.SemanticFactory;
+import uk.ac.soton.itinnovation.easyjena.core.impl.UrlProbe;
 
 @RunWith(JUnit4.class)
 public class JenaOntologyManagerTest extends TestCase
@@ -352,5 +376,251 @@ public class JenaOntologyManagerTest extends TestCase
 		}
 	}
 
+	/**
+	 * Load an import twice through the import cache
+	 */
+	@Test
+	public void testImportCache() {
+		logger.info("Running test {}", name.getMethodName());
+		try {
+			File dir = Files.createTempDirectory("easyjena-imports").toFile();
+			ImportCache cache = new ImportCache(dir, 0);
+			String path = getClass().getClassLoader().getResource("test/owl.ttl").getFile();
+
+			Model first = cache.load("http://www.w3.org/2002/07/owl#", path);
+			assertEquals(450, first.size());
+			assertEquals(1, new File(dir, "data").list().length);
+
+			//the second time the parsed triples and prefixes are read from the cache
+			Model second = cache.load("http://www.w3.org/2002/07/owl#", path);
+			assertTrue(first.isIsomorphicWith(second));
+			assertEquals(first.getNsPrefixMap(), second.getNsPrefixMap());
+			assertEquals(1, new File(dir, "data").list().length);
+
+			//data is only deleted once it has not been used for the given time, as it might still be being read
+			cache.invalidate("http://www.w3.org/2002/07/owl#");
+			assertEquals(1, new File(dir, "data").list().length);
+			cache.sweep(3600000);
+			assertEquals(1, new File(dir, "data").list().length);
+			cache.sweep(0);
+			assertEquals(0, new File(dir, "data").list().length);
+
+			//a changed document doesn't overwrite the data of the previous version
+			File copy = new File(dir, "owl.ttl");
+			Files.copy(new File(path).toPath(), copy.toPath());
+			cache.load("http://www.w3.org/2002/07/owl#", copy.getPath());
+			Files.write(copy.toPath(), "\n# changed\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+			assertEquals(450, cache.load("http://www.w3.org/2002/07/owl#", copy.getPath()).size());
+			assertEquals(2, new File(dir, "data").list().length);
+			cache.sweep(0);
+			assertEquals(1, new File(dir, "data").list().length);
+		} catch (IOException e) {
+			logger.error("Could not create cache directory", e);
+			fail("Could not create cache directory");
+		}
+	}
+
+	/**
+	 * Resolve an import, parsing it only once
+	 */
+	@Test
+	public void testImportResolver() {
+		logger.info("Running test {}", name.getMethodName());
+		jom.addImportLocationMapping("http://www.w3.org/2002/07/owl#",
+				getClass().getClassLoader().getResource("test/owl.ttl").getFile(), LoadingLocation.DIRECTORY);
+		SemanticFactory sf = new SemanticFactory();
+		ImportResolver resolver = new ImportResolver(sf, jom.getImportLocationMap(), null,
+				UrlProbe.fromProperties(new Properties()), LoadingLocation.DIRECTORY, 2);
+
+		Map<String, Model> documents = resolver.resolve(Collections.singletonMap("owl", "http://www.w3.org/2002/07/owl#"));
+		assertEquals(1, documents.size());
+		Model owl = documents.get("http://www.w3.org/2002/07/owl#");
+		assertEquals(450, owl.size());
+		assertEquals("http://www.w3.org/2003/g/data-view#", sf.getNamespaceForPrefix("grddl"));
+
+		//the same document is not parsed again
+		documents = resolver.resolve(Collections.singletonMap("owl", "http://www.w3.org/2002/07/owl#"));
+		assertEquals(1, documents.size());
+		assertSame(owl, documents.get("http://www.w3.org/2002/07/owl#"));
+	}
+
+	/**
+	 * Resolve two ontologies importing each other
+	 */
+	@Test
+	public void testImportResolverCycle() {
+		logger.info("Running test {}", name.getMethodName());
+		jom.addImportLocationMapping("http://example.org/cycle-a#",
+				getClass().getClassLoader().getResource("test/cycle-a.ttl").getFile(), LoadingLocation.DIRECTORY);
+		jom.addImportLocationMapping("http://example.org/cycle-b#",
+				getClass().getClassLoader().getResource("test/cycle-b.ttl").getFile(), LoadingLocation.DIRECTORY);
+		SemanticFactory sf = new SemanticFactory();
+		ImportResolver resolver = new ImportResolver(sf, jom.getImportLocationMap(), null,
+				UrlProbe.fromProperties(new Properties()), LoadingLocation.DIRECTORY, 4);
+
+		Map<String, Model> documents = resolver.resolve(Collections.singletonMap("ca", "http://example.org/cycle-a#"));
+		assertEquals(2, documents.size());
+		assertEquals(4, documents.get("http://example.org/cycle-a#").size());
+		assertEquals(4, documents.get("http://example.org/cycle-b#").size());
+		assertEquals("http://example.org/cycle-b#", sf.getNamespaceForPrefix("cb"));
+	}
+
+	/**
+	 * Download imports without an import cache and stop waiting for those which take too long
+	 */
+	@Test
+	public void testImportResolverTimeout() throws IOException {
+		logger.info("Running test {}", name.getMethodName());
+		CountDownLatch release = new CountDownLatch(1);
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/fast", exchange -> {
+			byte[] body = "<http://example.org/fast#A> a <http://www.w3.org/2002/07/owl#Class> .\n"
+					.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "text/turtle");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.createContext("/slow", exchange -> {
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			exchange.close();
+		});
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+		String base = "http://localhost:" + server.getAddress().getPort();
+
+		try {
+			SemanticFactory sf = new SemanticFactory();
+			ImportResolver resolver = new ImportResolver(sf, Collections.emptyMap(), null,
+					new UrlProbe(1000, 0, Collections.emptySet()), LoadingLocation.WEB, 2);
+			resolver.setTimeout(1000);
+			Map<String, String> uris = new HashMap<>();
+			uris.put("fast", base + "/fast#");
+			uris.put("slow", base + "/slow#");
+
+			long start = System.currentTimeMillis();
+			Map<String, Model> documents = resolver.resolve(uris);
+			assertTrue(System.currentTimeMillis() - start < 5000);
+			assertEquals(Collections.singleton(base + "/fast#"), documents.keySet());
+			assertEquals(1, documents.get(base + "/fast#").size());
+			//the import which timed out only gets its prefix
+			assertEquals(base + "/slow#", sf.getNamespaceForPrefix("slow"));
+		} finally {
+			release.countDown();
+			server.stop(0);
+			UrlProbe.clearCache();
+		}
+	}
+
+	/**
+	 * Load an ontology with its imports as a view rather than a copy
+	 */
+	@Test
+	public void testLoadOntologyAsView() {
+		logger.info("Running test {}", name.getMethodName());
+		try {
+			jom.setProperty("easyjena.imports.view", "true");
+			jom.addImportLocationMapping("http://example.org/cycle-b#",
+					getClass().getClassLoader().getResource("test/cycle-b.ttl").getFile(), LoadingLocation.DIRECTORY);
+			Model ont = jom.loadOntology(getClass().getClassLoader().getResource("test/cycle-a.ttl").getFile(),
+					LoadingLocation.DIRECTORY);
+
+			//the imported ontology's statements are hidden, its other statements are visible
+			assertEquals(6, ont.size());
+			assertFalse(ont.contains(ont.getResource("http://example.org/cycle-b"), RDF.type, OWL.Ontology));
+			assertTrue(ont.contains(ont.getResource("http://example.org/cycle-b#B"), RDF.type, OWL.Class));
+
+			ont.add(ont.getResource("http://example.org/cycle-a#C"), RDF.type, OWL.Class);
+			assertEquals(7, ont.size());
+		} catch (FileNotFoundException e) {
+			logger.error("Error loading ontology as view", e);
+			fail("Error loading ontology as view");
+		}
+	}
+
+	/**
+	 * Use the URL probe's cache instead of requesting URLs
+	 */
+	@Test
+	public void testUrlProbe() {
+		logger.info("Running test {}", name.getMethodName());
+		try {
+			UrlProbe probe = new UrlProbe(1000, 60000, Collections.singleton("http://example.org/unreachable#"));
+			assertTrue(probe.isKnownMissing("http://example.org/unreachable#"));
+			assertFalse(probe.exists("http://example.org/unreachable#"));
+
+			//recorded results are used without sending a request, by all probes
+			probe.record("http://example.org/missing#", false);
+			probe.record("http://example.org/found#", true);
+			assertTrue(probe.isKnownMissing("http://example.org/missing#"));
+			assertFalse(probe.exists("http://example.org/missing#"));
+			assertTrue(new UrlProbe(1000, 60000, Collections.emptySet()).exists("http://example.org/found#"));
+
+			//expired results are ignored
+			assertFalse(new UrlProbe(1000, 0, Collections.emptySet()).isKnownMissing("http://example.org/missing#"));
+
+			//only the most recently used results are kept
+			for (int i = 0; i < UrlProbe.MAX_RESULTS - 1; i++) {
+				probe.record("http://example.org/missing" + i + "#", false);
+			}
+			assertTrue(probe.isKnownMissing("http://example.org/missing#"));
+			probe.record("http://example.org/missing-too#", false);
+			assertTrue(probe.isKnownMissing("http://example.org/missing#"));
+			assertTrue(probe.isKnownMissing("http://example.org/missing-too#"));
+			assertFalse(probe.isKnownMissing("http://example.org/missing0#"));
+			assertFalse(probe.exists("http://example.org/missing#"));
+
+			//the default configuration skips the XML schema namespace
+			assertTrue(UrlProbe.fromProperties(new Properties()).isUnreachable("http://www.w3.org/2001/XMLSchema#"));
+		} finally {
+			UrlProbe.clearCache();
+		}
+	}
+
+	/**
+	 * Load an ontology page by page from a store which can't export it
+	 */
+	@Test
+	public void testLoadOntologyFromStoreInPages() {
+		logger.info("Running test {}", name.getMethodName());
+		Model m = ModelFactory.createDefaultModel();
+		for (int i = 0; i < 10; i++) {
+			m.add(m.createResource("http://example.org/s" + i), RDF.type, OWL.Class);
+		}
+		//ordered differently by code point than by UTF-16 code unit
+		m.add(m.createResource("http://example.org/\uFF01"), RDF.type, OWL.Class);
+		m.add(m.createResource("http://example.org/\uD83D\uDE00"), RDF.type, OWL.Class);
+		m.add(m.createResource("http://example.org/\uD83D\uDE00"), RDFS.label, "smile");
+		Resource restriction = m.createResource();
+		m.add(restriction, RDF.type, OWL.Restriction);
+		m.add(restriction, OWL.onProperty, m.createResource("http://example.org/p"));
+		NonExportingStore store = new NonExportingStore();
+		store.storeModel(m, null);
+
+		jom.setProperty("easyjena.store.pageSize", "5");
+		jom.setProperty("easyjena.store.loadThreads", "2");
+		Model loaded = jom.loadOntologyFromStore(store, LoadingLocation.NONE);
+		assertNotNull(loaded);
+		assertEquals(m.size(), loaded.size());
+		assertTrue(loaded.contains(loaded.getResource("http://example.org/\uD83D\uDE00"), RDFS.label, "smile"));
+		assertEquals(1, loaded.listSubjectsWithProperty(RDF.type, OWL.Restriction).toList().size());
+	}
+
 	// TODO: implement more unit tests
+
+	/**
+	 * A store which can only be queried, so ontologies have to be selected from it page by page
+	 */
+	private static class NonExportingStore extends LocalStoreWrapper {
+
+		@Override
+		public boolean exportGraph(String graphURI, String filter, Graph sink) {
+			return false;
+		}
+	}
 }
@@ -0,0 +1,243 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.sparql.graph.GraphFactory;
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import junit.framework.TestCase;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.core.impl.JmxStoreMetrics;
+import uk.ac.soton.itinnovation.easyjena.core.impl.LocalStoreWrapper;
+import uk.ac.soton.itinnovation.easyjena.core.impl.PrefixRewriter;
+import uk.ac.soton.itinnovation.easyjena.core.impl.PreparedStatement;
+import uk.ac.soton.itinnovation.easyjena.core.impl.StoreMetrics;
+import uk.ac.soton.itinnovation.easyjena.core.impl.Triple;
+import uk.ac.soton.itinnovation.easyjena.core.spec.IStoreMetrics;
+
+@RunWith(JUnit4.class)
+public class LocalStoreWrapperTest extends TestCase {
+
+	private static final String GRAPH = "http://example.com/graph";
+	private static final String NS = "http://example.com/ns#";
+
+	private static Logger logger;
+
+	private LocalStoreWrapper store;
+
+	@BeforeClass
+	public static void beforeClass() {
+		logger = LoggerFactory.getLogger(LocalStoreWrapperTest.class);
+		logger.info("LocalStoreWrapper tests executing...");
+	}
+
+	@Before
+	public void beforeEachTest() {
+		store = new LocalStoreWrapper();
+		store.connect();
+	}
+
+	// Tests //////////////////////////////////////////////////////////////////////////////////////
+
+	@Test
+	public void testCreateAndDeleteGraph() {
+		assertFalse(store.graphExists(GRAPH));
+		store.createGraph(GRAPH);
+		assertTrue(store.graphExists(GRAPH));
+		store.deleteGraph(GRAPH);
+		assertFalse(store.graphExists(GRAPH));
+	}
+
+	@Test
+	public void testStoreAndRemoveTriples() {
+		Set<Triple> triples = new HashSet<>();
+		triples.add(new Triple(NS + "a", "", NS + "Thing", Triple.TripleType.CLASS_ASSERTION));
+		triples.add(new Triple(NS + "a", NS + "name", "\"A\"@en", Triple.TripleType.DATA_PROPERTY));
+		triples.add(new Triple(NS + "a", "rdfs:seeAlso", NS + "b", Triple.TripleType.OBJECT_PROPERTY));
+		store.storeTriples(triples, GRAPH);
+		assertEquals(3, store.getCount(GRAPH));
+		assertEquals(0, store.getCount(null));
+
+		//prefixes are expanded and literals parsed
+		assertTrue(store.queryAsk("ASK { GRAPH <" + GRAPH + "> { <" + NS + "a> rdfs:seeAlso <" + NS + "b> ; <"
+				+ NS + "name> \"A\"@en } }"));
+
+		store.removeTriple(new Triple(NS + "a", "rdfs:seeAlso", NS + "b", Triple.TripleType.OBJECT_PROPERTY),
+				GRAPH);
+		assertEquals(2, store.getCount(GRAPH));
+	}
+
+	@Test
+	public void testUpdateAndSelect() {
+		store.update("INSERT DATA { GRAPH <" + GRAPH + "> { <" + NS + "a> <" + NS + "p> 1, 2, 3 } }");
+		List<Map<String, String>> result = store.querySelect("SELECT ?o WHERE { GRAPH <" + GRAPH + "> { ?s ?p ?o } }"
+				+ " ORDER BY ?o");
+		assertEquals(3, result.size());
+
+		int[] rows = {0};
+		store.querySelect("SELECT ?o WHERE { GRAPH <" + GRAPH + "> { ?s ?p ?o } }", solution -> ++rows[0] < 2);
+		assertEquals(2, rows[0]);
+	}
+
+	@Test
+	public void testStoreAndRemoveRDF() {
+		String rdf = "<" + NS + "a> <" + NS + "p> <" + NS + "b> .\n<" + NS + "b> <" + NS + "p> <" + NS + "c> .\n";
+		store.storeRDF(rdf, null);
+		assertEquals(2, store.getCount(null));
+		store.removeRDF("<" + NS + "a> <" + NS + "p> <" + NS + "b> .", null);
+		assertEquals(1, store.getCount(null));
+	}
+
+	@Test
+	public void testExportGraph() {
+		store.update("INSERT DATA { GRAPH <" + GRAPH + "> { <" + NS + "a> <" + NS + "p> 1, 2, 3 } }");
+
+		Graph all = GraphFactory.createDefaultGraph();
+		assertTrue(store.exportGraph(GRAPH, null, all));
+		assertEquals(3, all.size());
+
+		Graph filtered = GraphFactory.createDefaultGraph();
+		assertTrue(store.exportGraph(GRAPH, "FILTER (?o > 1)", filtered));
+		assertEquals(2, filtered.size());
+	}
+
+	@Test
+	public void testPreparedStatements() {
+		PreparedStatement insert = store.prepare("INSERT { GRAPH ?g { ?s rdfs:label ?label } } WHERE {}");
+		assertSame(insert.getTemplate(), store.prepare("INSERT { GRAPH ?g { ?s rdfs:label ?label } } WHERE {}")
+				.getTemplate());
+		insert.setGraph("g", GRAPH).setURI("s", NS + "a").setLiteral("label", "say \"hi\" # not a comment");
+		store.update(insert);
+		insert.setURI("s", NS + "b").setLangLiteral("label", "B", "en-GB");
+		store.update(insert);
+		assertEquals(2, store.getCount(GRAPH));
+
+		PreparedStatement ask = store.prepare("ASK { GRAPH ?g { ?s rdfs:label ?label } }");
+		ask.setGraph("g", GRAPH).setURI("s", NS + "a").setLiteral("label", "say \"hi\" # not a comment");
+		assertTrue(store.queryAsk(ask));
+		ask.setURI("s", NS + "b");
+		assertFalse(store.queryAsk(ask));
+
+		//values are escaped when they are written into the SPARQL
+		assertEquals("PREFIX rdfs:<http://www.w3.org/2000/01/rdf-schema#>\nASK { GRAPH <" + GRAPH + "> { <" + NS
+				+ "b> rdfs:label \"say \\\"hi\\\" # not a comment\" } }", ask.getSparql());
+		try {
+			ask.setURI("s", NS + "a> ?p ?o . <" + NS + "b");
+			fail("URI must not be able to end the angle brackets");
+		} catch (IllegalArgumentException e) {
+			//expected
+		}
+		try {
+			ask.setURI("unknown", NS + "a");
+			fail("Unknown variables must be rejected");
+		} catch (IllegalArgumentException e) {
+			//expected
+		}
+
+		PreparedStatement select = store.prepare("SELECT ?s WHERE { GRAPH ?g { ?s rdfs:label ?label } }");
+		select.setGraph("g", GRAPH);
+		assertEquals(2, store.querySelect(select).size());
+		assertFalse(store.queryAsk(select));
+
+		//SELECT * returns the variables with a value as well, the same as rendering the values into the query does
+		PreparedStatement all = store.prepare("SELECT * WHERE { GRAPH ?g { ?s rdfs:label ?label } }");
+		all.setGraph("g", GRAPH);
+		List<Map<String, String>> rows = store.querySelect(all);
+		assertEquals(2, rows.size());
+		assertEquals(GRAPH, rows.get(0).get("g"));
+		assertEquals(3, rows.get(0).size());
+	}
+
+	@Test
+	public void testPrefixModes() {
+		String sparql = "SELECT * WHERE { ?s a owl:Class ; rdfs:label \"rdf:no\" }";
+		String prologue = "PREFIX owl:<http://www.w3.org/2002/07/owl#>\n"
+				+ "PREFIX rdfs:<http://www.w3.org/2000/01/rdf-schema#>\n";
+		assertEquals(prologue + sparql, store.prepare(sparql).getSparql());
+
+		store.setPrefixMode(PrefixRewriter.Mode.EXPAND);
+		assertEquals("SELECT * WHERE { ?s a <http://www.w3.org/2002/07/owl#Class> ; "
+				+ "<http://www.w3.org/2000/01/rdf-schema#label> \"rdf:no\" }", store.prepare(sparql).getSparql());
+
+		store.setPrefixMode(PrefixRewriter.Mode.ALL);
+		assertEquals(store.getSPARQLPrefixes().length() + sparql.length(),
+				store.prepare(sparql).getSparql().length());
+	}
+
+	@Test
+	public void testMetrics() {
+		StoreMetrics metrics = new StoreMetrics(0);
+		store.setMetrics(metrics);
+		store.update("INSERT DATA { <" + NS + "a> <" + NS + "p> 1, 2, 3 }");
+		store.querySelect("SELECT * WHERE { ?s ?p ?o }");
+		store.querySelect("SELECT * WHERE { ?s ?p ?o } LIMIT 1");
+
+		assertEquals(1, metrics.getOperations().get(IStoreMetrics.UPDATE).getCount());
+		assertEquals(2, metrics.getOperations().get(IStoreMetrics.SELECT).getCount());
+		assertEquals(0, metrics.getOperations().get(IStoreMetrics.SELECT).getErrors());
+		assertEquals(Long.valueOf(4), metrics.getRows().get(IStoreMetrics.SELECT));
+	}
+
+	@Test
+	public void testJmxMetrics() throws JMException {
+		StoreMetrics metrics = new StoreMetrics(0);
+		store.setMetrics(metrics);
+		store.querySelect("SELECT * WHERE { ?s ?p ?o }");
+		metrics.recordPool(1, 2, 3, 4);
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		JmxStoreMetrics jmx = JmxStoreMetrics.register(metrics, "local, \"test\" store");
+		ObjectName name = jmx.getObjectName();
+		try {
+			assertTrue(server.isRegistered(name));
+			assertEquals(JmxStoreMetrics.DOMAIN, name.getDomain());
+			assertEquals(4, server.getAttribute(name, "PoolMax"));
+			TabularData operations = (TabularData) server.getAttribute(name, "Operations");
+			assertNotNull(operations.get(new Object[] {IStoreMetrics.SELECT}));
+
+			//registering another registry under the same name replaces the bean
+			JmxStoreMetrics.register(new StoreMetrics(0), "local, \"test\" store");
+			assertEquals(0, server.getAttribute(name, "PoolMax"));
+			assertTrue(((TabularData) server.getAttribute(name, "Operations")).isEmpty());
+		} finally {
+			jmx.unregister();
+		}
+		assertFalse(server.isRegistered(name));
+	}
+}
@@ -0,0 +1,111 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core;
+
+import com.hp.hpl.jena.query.QuerySolution;
+import com.hp.hpl.jena.query.ResultSet;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import junit.framework.TestCase;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.core.impl.ResultFormat;
+
+@RunWith(JUnit4.class)
+public class ResultFormatTest extends TestCase {
+
+	private static Logger logger;
+
+	@BeforeClass
+	public static void beforeClass() {
+		logger = LoggerFactory.getLogger(ResultFormatTest.class);
+		logger.info("ResultFormat tests executing...");
+	}
+
+	// Tests //////////////////////////////////////////////////////////////////////////////////////
+
+	@Test
+	public void testAcceptHeader() {
+		assertEquals("text/tab-separated-values, application/sparql-results+xml;q=0.9, "
+				+ "application/sparql-results+json;q=0.8", ResultFormat.getAcceptHeader(false));
+		//there is no TSV serialisation for ASK results
+		assertEquals("application/sparql-results+xml, application/sparql-results+json;q=0.9",
+				ResultFormat.getAcceptHeader(true));
+	}
+
+	@Test
+	public void testFromContentType() {
+		assertEquals(ResultFormat.TSV, ResultFormat.fromContentType("text/tab-separated-values"));
+		assertEquals(ResultFormat.XML, ResultFormat.fromContentType("Application/SPARQL-Results+XML; charset=UTF-8"));
+		assertEquals(ResultFormat.JSON, ResultFormat.fromContentType("application/sparql-results+json"));
+		assertEquals(ResultFormat.JSON, ResultFormat.fromContentType("application/json;charset=utf-8"));
+		assertEquals(ResultFormat.XML, ResultFormat.fromContentType("text/xml"));
+		assertEquals(ResultFormat.XML, ResultFormat.fromContentType("application/xml"));
+		assertNull(ResultFormat.fromContentType("text/html"));
+		assertNull(ResultFormat.fromContentType(null));
+	}
+
+	@Test
+	public void testFromName() {
+		assertEquals(ResultFormat.JSON, ResultFormat.fromName(" json "));
+		assertEquals(ResultFormat.TSV, ResultFormat.fromName("TSV"));
+		assertNull(ResultFormat.fromName(""));
+		assertNull(ResultFormat.fromName(null));
+		try {
+			ResultFormat.fromName("csv");
+			fail("Unknown formats must be rejected");
+		} catch (IllegalArgumentException e) {
+			//expected
+		}
+	}
+
+	@Test
+	public void testParse() {
+		ResultSet tsv = ResultFormat.TSV.parse(stream("?s\t?o\n<http://example.com/a>\t\"x\"@en\n"));
+		assertTrue(tsv.hasNext());
+		QuerySolution solution = tsv.next();
+		assertEquals("http://example.com/a", solution.getResource("s").getURI());
+		assertEquals("x", solution.getLiteral("o").getLexicalForm());
+		assertFalse(tsv.hasNext());
+
+		ResultSet json = ResultFormat.JSON.parse(stream("{ \"head\": { \"vars\": [ \"s\" ] }, \"results\": { "
+				+ "\"bindings\": [ { \"s\": { \"type\": \"uri\", \"value\": \"http://example.com/a\" } } ] } }"));
+		assertEquals("http://example.com/a", json.next().getResource("s").getURI());
+
+		assertTrue(ResultFormat.XML.parseBoolean(stream("<?xml version=\"1.0\"?>\n"
+				+ "<sparql xmlns=\"http://www.w3.org/2005/sparql-results#\"><head/><boolean>true</boolean></sparql>")));
+		assertFalse(ResultFormat.JSON.parseBoolean(stream("{ \"head\": {}, \"boolean\": false }")));
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+	private static InputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
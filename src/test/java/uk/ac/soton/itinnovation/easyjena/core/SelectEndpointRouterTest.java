@@ -0,0 +1,149 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import junit.framework.TestCase;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.core.impl.EndpointHealth;
+import uk.ac.soton.itinnovation.easyjena.core.impl.SelectEndpointRouter;
+import uk.ac.soton.itinnovation.easyjena.core.impl.SelectEndpointRouter.Routing;
+
+@RunWith(JUnit4.class)
+public class SelectEndpointRouterTest extends TestCase {
+
+	private static final String A = "http://a.example.com/sparql";
+	private static final String B = "http://b.example.com/sparql";
+	private static final String C = "http://c.example.com/sparql";
+
+	private static Logger logger;
+
+	private Map<String, EndpointHealth> health;
+
+	@BeforeClass
+	public static void beforeClass() {
+		logger = LoggerFactory.getLogger(SelectEndpointRouterTest.class);
+		logger.info("SelectEndpointRouter tests executing...");
+	}
+
+	@Before
+	public void beforeEachTest() {
+		health = new HashMap<>();
+		for (String e : Arrays.asList(A, B, C)) {
+			health.put(e, new EndpointHealth(e, 1, 60000));
+		}
+	}
+
+	// Tests //////////////////////////////////////////////////////////////////////////////////////
+
+	@Test
+	public void testRoutingNames() {
+		assertEquals(Routing.ROUND_ROBIN, Routing.fromName(null));
+		assertEquals(Routing.ROUND_ROBIN, Routing.fromName("round-robin"));
+		assertEquals(Routing.LEAST_OUTSTANDING, Routing.fromName("leastOutstanding"));
+		assertEquals(Routing.LATENCY_WEIGHTED, Routing.fromName("LATENCY_WEIGHTED"));
+		try {
+			Routing.fromName("random");
+			fail("Unknown routing must be rejected");
+		} catch (IllegalArgumentException e) {
+			//expected
+		}
+	}
+
+	@Test
+	public void testRoundRobin() {
+		SelectEndpointRouter router = new SelectEndpointRouter(Arrays.asList(A, B, C), Routing.ROUND_ROBIN,
+				health::get);
+		assertEquals(Arrays.asList(A, B, C, A), Arrays.asList(router.choose(), router.choose(), router.choose(),
+				router.choose()));
+		assertEquals(2, router.getOutstanding(A));
+
+		router.finished(A, 10);
+		router.finished(A, 20);
+		assertEquals(0, router.getOutstanding(A));
+		assertEquals(12.0, router.getLatency(A), 0.001);
+	}
+
+	@Test
+	public void testUnavailableLeftOut() {
+		SelectEndpointRouter router = new SelectEndpointRouter(Arrays.asList(A, B, C), Routing.ROUND_ROBIN,
+				health::get);
+		health.get(B).recordFailure();
+		for (int i = 0; i < 4; i++) {
+			assertFalse(B.equals(router.choose()));
+		}
+
+		//all replicas are used if none of them is available
+		health.get(A).recordFailure();
+		health.get(C).recordFailure();
+		assertEquals(new HashSet<>(Arrays.asList(A, B, C)), new HashSet<>(Arrays.asList(router.choose(),
+				router.choose(), router.choose())));
+	}
+
+	@Test
+	public void testLeastOutstanding() {
+		SelectEndpointRouter router = new SelectEndpointRouter(Arrays.asList(A, B, C), Routing.LEAST_OUTSTANDING,
+				health::get);
+		router.choose();
+		router.choose();
+		router.choose();
+		router.finished(B, 5);
+		assertEquals(B, router.choose());
+
+		health.get(B).recordFailure();
+		router.finished(B, 5);
+		router.finished(C, 5);
+		assertEquals(C, router.choose());
+	}
+
+	@Test
+	public void testLatencyWeighted() {
+		SelectEndpointRouter router = new SelectEndpointRouter(Arrays.asList(A, B, C), Routing.LATENCY_WEIGHTED,
+				health::get);
+		router.finished(A, 1000);
+		router.finished(B, 1);
+		router.finished(C, 1);
+		health.get(C).recordFailure();
+		int fast = 0;
+		for (int i = 0; i < 100; i++) {
+			String e = router.choose();
+			assertFalse(C.equals(e));
+			if (B.equals(e)) {
+				fast++;
+			}
+		}
+		//B is chosen 500 times as often as A
+		assertTrue(fast > 90);
+	}
+}
@@ -0,0 +1,126 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import junit.framework.TestCase;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.core.impl.SparqlRequestBody;
+
+@RunWith(JUnit4.class)
+public class SparqlRequestBodyTest extends TestCase {
+
+	private static final String QUERY = "SELECT * WHERE { ?s ?p \"café & 100% ~ *\" } # €";
+
+	private static Logger logger;
+
+	@BeforeClass
+	public static void beforeClass() {
+		logger = LoggerFactory.getLogger(SparqlRequestBodyTest.class);
+		logger.info("SparqlRequestBody tests executing...");
+	}
+
+	// Tests //////////////////////////////////////////////////////////////////////////////////////
+
+	@Test
+	public void testFormEncoding() throws IOException {
+		SparqlRequestBody body = new SparqlRequestBody(QUERY, "query", false, null, 65536);
+		assertEquals(SparqlRequestBody.FORM, body.getContentType());
+		assertNull(body.getContentEncoding());
+
+		byte[] sent = write(body);
+		assertEquals("query=" + URLEncoder.encode(QUERY, "UTF-8"), new String(sent, StandardCharsets.US_ASCII));
+		assertEquals(sent.length, body.getContentLength());
+	}
+
+	@Test
+	public void testDirect() throws IOException {
+		SparqlRequestBody query = new SparqlRequestBody(QUERY, null, false, null, 65536);
+		assertEquals(SparqlRequestBody.SPARQL_QUERY, query.getContentType());
+		SparqlRequestBody update = new SparqlRequestBody("CLEAR ALL", null, true, null, 65536);
+		assertEquals(SparqlRequestBody.SPARQL_UPDATE, update.getContentType());
+
+		//the length is counted in bytes, not characters
+		byte[] expected = QUERY.getBytes(StandardCharsets.UTF_8);
+		assertTrue(expected.length > QUERY.length());
+		assertEquals(expected.length, query.getContentLength());
+		assertTrue(Arrays.equals(expected, write(query)));
+	}
+
+	@Test
+	public void testLongStatement() throws IOException {
+		//characters outside the BMP are split across the internal buffers
+		StringBuilder sb = new StringBuilder("INSERT DATA { <http://example.com/s> <http://example.com/p> \"");
+		for (int i = 0; i < 10000; i++) {
+			sb.append("é 𝄞");
+		}
+		sb.append("\" }");
+		String sparql = sb.toString();
+
+		SparqlRequestBody form = new SparqlRequestBody(sparql, "update", true, null, Integer.MAX_VALUE);
+		byte[] sent = write(form);
+		assertEquals("update=" + URLEncoder.encode(sparql, "UTF-8"), new String(sent, StandardCharsets.US_ASCII));
+		assertEquals(sent.length, form.getContentLength());
+
+		//above the threshold the length isn't calculated
+		assertEquals(-1, new SparqlRequestBody(sparql, "update", true, null, 1000).getContentLength());
+	}
+
+	@Test
+	public void testCompression() throws IOException {
+		SparqlRequestBody body = new SparqlRequestBody(QUERY, null, false, "gzip", 65536);
+		assertEquals("gzip", body.getContentEncoding());
+		assertEquals(-1, body.getContentLength());
+
+		ByteArrayOutputStream unzipped = new ByteArrayOutputStream();
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(write(body)))) {
+			byte[] buffer = new byte[1024];
+			int n;
+			while ((n = in.read(buffer)) >= 0) {
+				unzipped.write(buffer, 0, n);
+			}
+		}
+		assertEquals(QUERY, new String(unzipped.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+	private static byte[] write(SparqlRequestBody body) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		body.writeTo(out);
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,99 @@
+/////////////////////////////////////////////////////////////////////////
+//
+// (c) University of Southampton IT Innovation Centre, 2026
+//
+// Copyright in this software belongs to University of Southampton
+// IT Innovation Centre of Gamma House, Enterprise Road,
+// Chilworth Science Park, Southampton, SO16 7NS, UK.
+//
+// This software may not be used, sold, licensed, transferred, copied
+// or reproduced in whole or in part in any manner or form or in or
+// on any media by any person other than in accordance with the terms
+// of the Licence Agreement supplied with the software, or otherwise
+// without the prior written consent of the copyright owners.
+//
+// This software is distributed WITHOUT ANY WARRANTY, without even the
+// implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+// PURPOSE, except where stated in the Licence Agreement supplied with
+// the software.
+//
+//      Created By :            Stefanie Wiegand
+//      Created Date :          2026-10-18
+//      Created for Project :   EasyJena
+//
+/////////////////////////////////////////////////////////////////////////
+package uk.ac.soton.itinnovation.easyjena.core;
+
+import com.hp.hpl.jena.datatypes.xsd.XSDDatatype;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.NodeFactory;
+import com.hp.hpl.jena.rdf.model.AnonId;
+import junit.framework.TestCase;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.soton.itinnovation.easyjena.core.impl.SparqlSerialiser;
+import uk.ac.soton.itinnovation.easyjena.core.impl.Triple;
+
+@RunWith(JUnit4.class)
+public class SparqlSerialiserTest extends TestCase {
+
+	private static final String NS = "http://example.com/ns#";
+
+	private static Logger logger;
+
+	@BeforeClass
+	public static void beforeClass() {
+		logger = LoggerFactory.getLogger(SparqlSerialiserTest.class);
+		logger.info("SparqlSerialiser tests executing...");
+	}
+
+	// Tests //////////////////////////////////////////////////////////////////////////////////////
+
+	@Test
+	public void testLiteralEscaping() {
+		StringBuilder sb = new StringBuilder();
+		SparqlSerialiser.appendLiteral(sb, "say \"hi\"\\\n\r\tcafé } .");
+		assertEquals("\"say \\\"hi\\\"\\\\\\n\\r\\tcafé } .\"", sb.toString());
+	}
+
+	@Test
+	public void testNodes() {
+		assertEquals("<" + NS + "a>", append(NodeFactory.createURI(NS + "a")));
+		assertEquals("\"chat\"@fr", append(NodeFactory.createLiteral("chat", "fr", null)));
+		assertEquals("\"1\"^^<http://www.w3.org/2001/XMLSchema#integer>",
+				append(NodeFactory.createLiteral("1", "", XSDDatatype.XSDinteger)));
+		//characters not allowed in blank node labels are replaced by their hex code
+		assertEquals("_:bAx2d1x3a2", append(NodeFactory.createAnon(new AnonId("A-1:2"))));
+		try {
+			append(NodeFactory.createVariable("x"));
+			fail("Variables are not data");
+		} catch (IllegalArgumentException e) {
+			//expected
+		}
+	}
+
+	@Test
+	public void testTriples() {
+		StringBuilder sb = new StringBuilder();
+		SparqlSerialiser.appendTriple(sb, com.hp.hpl.jena.graph.Triple.create(NodeFactory.createURI(NS + "a"),
+				NodeFactory.createURI(NS + "p"), NodeFactory.createLiteral("x\"y")));
+		assertEquals("\t\t<" + NS + "a> <" + NS + "p> \"x\\\"y\" .\n", sb.toString());
+
+		//EasyJena triples are written the way they always have been
+		sb.setLength(0);
+		SparqlSerialiser.appendTriple(sb, new Triple(NS + "a", NS + "name", "say \"hi\"\nthere",
+				Triple.TripleType.DATA_PROPERTY));
+		assertEquals("\t\t<" + NS + "a> <" + NS + "name> \"say 'hi' there\" .\n", sb.toString());
+	}
+
+	// Private Methods ////////////////////////////////////////////////////////////////////////////
+	private static String append(Node n) {
+		StringBuilder sb = new StringBuilder();
+		SparqlSerialiser.appendNode(sb, n);
+		return sb.toString();
+	}
+}